@@ -59,5 +59,5 @@ if __name__ == "__main__":
     text = sys.stdin.read().strip()
     root = parse_sexpr(text)
     dot = build_graphviz(root)
-    output_path = dot.render('ast_tree', cleanup=True)
-    print(output_path)  # Java lo podrá leer por stdout
+    # El PNG sale por stdout (pipe) en lugar de un ast_tree.png compartido
+    sys.stdout.buffer.write(dot.pipe(format='png'))
@@ -1,25 +1,32 @@
 package com.fmd;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fmd.modules.Symbol;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
-import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.tree.ParseTree;
-
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.fmd.api.CompilationCache;
+import com.fmd.api.CompilationService;
+import com.fmd.api.CompilationService.EscuchaCompilacion;
+import com.fmd.api.ParserWarmup;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.IncrementalParser;
 import com.fmd.modules.SemanticError;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import com.fmd.CompiscriptLexer;
-import com.fmd.CompiscriptParser;
-import com.fmd.CompiscriptBaseVisitor;
+import static com.fmd.api.CompilationService.SIN_ESCUCHA;
 
 @SpringBootApplication
 public class AnalizadorApplication {
@@ -32,78 +39,275 @@ public class AnalizadorApplication {
 @RequestMapping("/compilar")
 class AnalizadorController {
 
+    private static final long TIMEOUT_STREAM_MS = 60_000L;
+
+    private final CompilationService compilador;
+    private final CompilationCache cache;
+    private final ParserWarmup warmup;
+    private final ForkJoinPool batchPool;
+    private final ExecutorService streamExecutor;
+    private final int maxArchivosPorLote;
+
+    // Último parseo de cada documento abierto en el IDE, para /compilar/incremental (LRU)
+    @Value("${compilador.incremental.max-documentos:256}")
+    private int maxDocumentos = 256;
+    private final Map<String, SesionIncremental> documentos = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SesionIncremental> eldest) {
+            return size() > maxDocumentos;
+        }
+    };
+
+    private static class SesionIncremental {
+        private IncrementalParser.Documento documento;
+    }
+
+    AnalizadorController(CompilationService compilador, CompilationCache cache, ParserWarmup warmup, ForkJoinPool batchPool,
+                         @Qualifier("streamExecutor") ExecutorService streamExecutor,
+                         @Value("${compilador.batch.max-archivos:1000}") int maxArchivosPorLote) {
+        this.compilador = compilador;
+        this.cache = cache;
+        this.warmup = warmup;
+        this.batchPool = batchPool;
+        this.streamExecutor = streamExecutor;
+        this.maxArchivosPorLote = maxArchivosPorLote;
+    }
+
     @PostMapping
     public Map<String, Object> analizar(@RequestBody Map<String, String> body) throws Exception {
         String code = body.get("codigo");
+
+        // 0. Buscar en caché por hash del contenido
+        String llave = CompilationCache.hash(code);
+        CompilationResult resultado = cache.get(llave);
+        if (resultado == null) {
+            try {
+                resultado = compilador.compilar(code);
+                cache.put(llave, resultado);
+            } catch (CompilationBudget.BudgetExceededException e) {
+                resultado = new CompilationResult(List.of(e.toSemanticError()), List.of(), null);
+            }
+        }
+
         Map<String, Object> response = new HashMap<>();
+        response.put("errors", resultado.getErrores());
+        response.put("symbols", resultado.getSimbolos());
+        response.put("astImage", resultado.getAstImage());
+        response.put("parseStage", resultado.getEtapaParser());
 
-        // 1. Crear lexer y parser
-        CompiscriptLexer lexer = new CompiscriptLexer(CharStreams.fromString(code));
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        CompiscriptParser parser = new CompiscriptParser(tokens);
-
-        // 2. Parsear
-        ParseTree tree = parser.program();
-
-        // 3. Semántico
-        SemanticVisitor visitor = new SemanticVisitor();
-        visitor.visit(tree);
-
-        System.out.println("===== TABLAS DE SÍMBOLOS POR SCOPE =====");
-        visitor.getRaiz().imprimirScopes("");
-        System.out.println("========================================");
-
-        // 4. Guardar errores y símbolos
-        List<SemanticError> errores = visitor.getErrores();
-        List<Map<String, Object>> simbolos = visitor.getRaiz().getAllScopesSymbols().values().stream()
-                .map(sym -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("name", sym.getName());
-                    map.put("type", sym.getType());
-                    map.put("kind", sym.getKind());
-                    map.put("line", sym.getLine());
-                    map.put("column", sym.getColumn());
-                    return map;
-                })
-                .toList();
-
-        // 5. Ejecutar script de Python para generar imagen del árbol
-        String treeString = tree.toStringTree(parser);
-        String base64Img = generarImagen(treeString);
-
-        response.put("errors", errores);
-        response.put("symbols", simbolos);
-        response.put("astImage", base64Img);
+        return response;
+    }
+
+    /**
+     * Compila muchos programas en una sola petición. Cada archivo usa su propio
+     * SemanticVisitor y se reparte en el pool work-stealing; la imagen del AST
+     * solo se genera si se pide con ?imagenes=true.
+     */
+    @PostMapping("/batch")
+    public Map<String, Object> analizarLote(@RequestBody Map<String, List<Map<String, String>>> body,
+                                            @RequestParam(defaultValue = "false") boolean imagenes) {
+        List<Map<String, String>> archivos = body.getOrDefault("archivos", List.of());
+        if (archivos.size() > maxArchivosPorLote) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "El lote excede el máximo de " + maxArchivosPorLote + " archivos");
+        }
 
+        long inicio = System.nanoTime();
+        List<ForkJoinTask<Map<String, Object>>> tareas = new ArrayList<>(archivos.size());
+        for (Map<String, String> archivo : archivos) {
+            tareas.add(batchPool.submit(() -> compilarArchivo(archivo, imagenes)));
+        }
+
+        List<Map<String, Object>> resultados = new ArrayList<>(tareas.size());
+        double sumaMillis = 0;
+        double maxMillis = 0;
+        int conErrores = 0;
+        for (ForkJoinTask<Map<String, Object>> tarea : tareas) {
+            Map<String, Object> resultado = tarea.join();
+            double millis = (Double) resultado.get("millis");
+            sumaMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+            if (!((List<?>) resultado.get("errors")).isEmpty()) {
+                conErrores++;
+            }
+            resultados.add(resultado);
+        }
+        long totalNanos = System.nanoTime() - inicio;
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("files", archivos.size());
+        resumen.put("filesWithErrors", conErrores);
+        resumen.put("wallMillis", totalNanos / 1_000_000.0);
+        resumen.put("sumMillis", sumaMillis);
+        resumen.put("maxMillis", maxMillis);
+        resumen.put("parallelism", batchPool.getParallelism());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", resultados);
+        response.put("summary", resumen);
         return response;
     }
 
-    public static String generarImagen(String treeString) {
+    private Map<String, Object> compilarArchivo(Map<String, String> archivo, boolean conImagen) {
+        long inicio = System.nanoTime();
+        String code = archivo.getOrDefault("codigo", "");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("nombre", archivo.get("nombre"));
         try {
-            // Ejecuta un script Python que recibe el árbol y devuelve Base64
-            ProcessBuilder pb = new ProcessBuilder("python", "additions\\AstTreeGenerator.py");
-            Process p = pb.start();
-
-            // Mandar el árbol al script
-            p.getOutputStream().write(treeString.getBytes());
-            p.getOutputStream().close();
-
-            // Recibir errores
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-            String line;
-            while ((line = errorReader.readLine()) != null) {
-                System.err.println("[PYTHON ERROR] " + line);
+            String llave = CompilationCache.hash(code);
+            CompilationResult resultado = cache.get(llave);
+            if (resultado == null) {
+                resultado = compilador.compilar(code, conImagen, SIN_ESCUCHA, compilador.nuevoPresupuesto());
+                // Solo los resultados completos (con imagen) se pueden reutilizar en /compilar
+                if (conImagen) {
+                    cache.put(llave, resultado);
+                }
+            }
+            response.put("errors", resultado.getErrores());
+            response.put("symbols", resultado.getSimbolos());
+            if (conImagen) {
+                response.put("astImage", resultado.getAstImage());
             }
+        } catch (CompilationBudget.BudgetExceededException e) {
+            response.put("errors", List.of(e.toSemanticError()));
+            response.put("symbols", List.of());
+        } catch (RuntimeException e) {
+            response.put("errors", List.of(new SemanticError("Error interno al compilar: " + e.getMessage(), 0, 0)));
+            response.put("symbols", List.of());
+        }
+        response.put("millis", (System.nanoTime() - inicio) / 1_000_000.0);
+        return response;
+    }
 
-            // Esperar a que termine
-            p.waitFor();
+    /**
+     * Variante en streaming (SSE) de /compilar: emite un evento "error" por cada
+     * SemanticError en cuanto SemanticVisitor lo registra, luego "symbols",
+     * "astImage" y finalmente "done".
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analizarStream(@RequestBody Map<String, String> body) {
+        String code = body.get("codigo");
+        SseEmitter emitter = new SseEmitter(TIMEOUT_STREAM_MS);
+
+        streamExecutor.execute(() -> {
+            try {
+                String llave = CompilationCache.hash(code);
+                CompilationResult resultado = cache.get(llave);
+                if (resultado != null) {
+                    for (SemanticError error : resultado.getErrores()) {
+                        enviar(emitter, "error", error);
+                    }
+                    enviar(emitter, "symbols", resultado.getSimbolos());
+                } else {
+                    resultado = compilador.compilar(code, true, new EscuchaCompilacion() {
+                        @Override
+                        public void alEncontrarError(SemanticError error) {
+                            enviar(emitter, "error", error);
+                        }
+
+                        @Override
+                        public void alExportarSimbolos(List<Map<String, Object>> simbolos) {
+                            enviar(emitter, "symbols", simbolos);
+                        }
+                    }, compilador.nuevoPresupuesto());
+                    cache.put(llave, resultado);
+                }
+                enviar(emitter, "astImage", resultado.getAstImage() != null ? resultado.getAstImage() : "");
+                enviar(emitter, "done", Map.of("errors", resultado.getErrores().size()));
+                emitter.complete();
+            } catch (CompilationBudget.BudgetExceededException e) {
+                enviar(emitter, "error", e.toSemanticError());
+                enviar(emitter, "done", Map.of("errors", 1));
+                emitter.complete();
+            } catch (Exception e) {
+                // Incluye la desconexión del cliente: se aborta la compilación en curso
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    private static void enviar(SseEmitter emitter, String evento, Object datos) {
+        try {
+            emitter.send(SseEmitter.event().name(evento).data(datos, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            // Leer el archivo generado
-            byte[] bytes = Files.readAllBytes(Paths.get("ast_tree.png"));
-            return Base64.getEncoder().encodeToString(bytes);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Compilación incremental para el IDE. El cuerpo identifica el documento y
+     * trae el código completo ("codigo") o solo la edición sobre la versión
+     * anterior ("inicio", "fin", "texto", en posiciones UTF-16). Solo se vuelven
+     * a parsear las sentencias de primer nivel que tocó la edición.
+     */
+    @PostMapping("/incremental")
+    public Map<String, Object> analizarIncremental(@RequestBody Map<String, Object> body,
+                                                   @RequestParam(defaultValue = "true") boolean imagen) {
+        String id = String.valueOf(body.getOrDefault("documento", ""));
+        SesionIncremental sesion;
+        synchronized (documentos) {
+            sesion = documentos.computeIfAbsent(id, k -> new SesionIncremental());
         }
+
+        synchronized (sesion) {
+            String code;
+            if (body.containsKey("codigo")) {
+                code = String.valueOf(body.get("codigo"));
+            } else if (sesion.documento != null && body.get("inicio") instanceof Number inicio
+                    && body.get("fin") instanceof Number fin) {
+                String anterior = sesion.documento.getTexto();
+                if (inicio.intValue() < 0 || fin.intValue() < inicio.intValue() || fin.intValue() > anterior.length()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rango de edición inválido");
+                }
+                code = anterior.substring(0, inicio.intValue()) + body.getOrDefault("texto", "")
+                        + anterior.substring(fin.intValue());
+            } else {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Documento sin versión anterior: envíe el código completo en \"codigo\"");
+            }
+
+            // Un mismo presupuesto para el reparseo y el análisis. Si se agota al
+            // reparsear, la sesión conserva la versión anterior, que no se modificó.
+            CompilationBudget presupuesto = compilador.nuevoPresupuesto();
+            IncrementalParser.Resultado parseo = null;
+            CompilationResult resultado;
+            try {
+                parseo = compilador.reparsear(sesion.documento, code, SIN_ESCUCHA, presupuesto);
+                sesion.documento = parseo.getDocumento();
+                resultado = compilador.compilarIncremental(parseo, imagen, SIN_ESCUCHA, presupuesto);
+            } catch (CompilationBudget.BudgetExceededException e) {
+                resultado = new CompilationResult(List.of(e.toSemanticError()), List.of(), null);
+            }
+
+            Map<String, Object> reparseo = new LinkedHashMap<>();
+            if (parseo != null) {
+                reparseo.put("mode", parseo.isIncremental() ? "incremental" : "completo");
+                reparseo.put("reparsedStatements", parseo.getReparseadas());
+                reparseo.put("reusedStatements", parseo.getReutilizadas());
+                reparseo.put("tokens", parseo.getTokensLexeados());
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("errors", resultado.getErrores());
+            response.put("symbols", resultado.getSimbolos());
+            response.put("astImage", resultado.getAstImage());
+            response.put("parseStage", resultado.getEtapaParser());
+            response.put("reparse", reparseo);
+            return response;
+        }
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Object> estadisticasCache() {
+        return cache.getStats();
+    }
+
+    /** Estado del calentamiento del parser: tiempo invertido y estados DFA construidos. */
+    @GetMapping("/warmup")
+    public Map<String, Object> estadoWarmup() {
+        return warmup.getEstado();
     }
 }
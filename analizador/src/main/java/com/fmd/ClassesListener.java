@@ -1,6 +1,14 @@
 package com.fmd;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fmd.modules.ClassLayout;
 import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
 
 import com.fmd.CompiscriptParser;
 import com.fmd.CompiscriptBaseListener;
@@ -9,6 +17,10 @@ public class ClassesListener extends CompiscriptBaseListener {
 
     private final SemanticVisitor semanticVisitor;
     private Symbol currentClass; // clase actual
+    // Índice inverso: nombre de método -> clases que lo declaran, en orden de declaración
+    private final Map<String, List<Symbol>> clasesPorMetodo = new HashMap<>();
+    // Distribución final de cada clase ya declarada
+    private final Map<Symbol, ClassLayout> layouts = new IdentityHashMap<>();
 
     public ClassesListener(SemanticVisitor visitor) {
         this.semanticVisitor = visitor;
@@ -18,6 +30,19 @@ public class ClassesListener extends CompiscriptBaseListener {
         return currentClass;
     }
 
+    /** Clases que declaran un método con ese nombre (incluye las que no son visibles desde el scope actual). */
+    public List<Symbol> getClasesConMetodo(String nombre) {
+        return clasesPorMetodo.getOrDefault(nombre, List.of());
+    }
+
+    private void registrarMetodo(Symbol metodo) {
+        currentClass.addMember(metodo);
+        List<Symbol> clases = clasesPorMetodo.computeIfAbsent(metodo.getName(), k -> new ArrayList<>(1));
+        if (clases.isEmpty() || clases.get(clases.size() - 1) != currentClass) {
+            clases.add(currentClass);
+        }
+    }
+
     @Override
     public void enterClassDeclaration(CompiscriptParser.ClassDeclarationContext ctx) {
         String className = ctx.Identifier(0).getText();
@@ -38,7 +63,8 @@ public class ClassesListener extends CompiscriptBaseListener {
         }
 
         semanticVisitor.getEntornoActual().agregar(clase);
-        semanticVisitor.entrarScope(String.valueOf(ctx.start.getLine()));
+        semanticVisitor.getTipos().declararClase(clase);
+        semanticVisitor.entrarScope(ctx);
         currentClass = clase;
     }
 
@@ -49,9 +75,76 @@ public class ClassesListener extends CompiscriptBaseListener {
         }
         currentClass.setMembers(semanticVisitor.getEntornoActual().getSymbolsLocal());
         semanticVisitor.salirScope();
+
+        // La distribución se fija si la superclase ya está fijada; si no (se declara más
+        // adelante o no existe), las búsquedas recorren la cadena como antes
+        Symbol superclase = superclase(currentClass);
+        if (superclase == null || layouts.containsKey(superclase)) {
+            layouts.put(currentClass, new ClassLayout(currentClass, superclase == null ? null : layouts.get(superclase),
+                    semanticVisitor.getRaiz().getNombres()));
+        }
         currentClass = null;
     }
 
+    public ClassLayout getLayout(Symbol clase) {
+        return layouts.get(clase);
+    }
+
+    /** Método propio o heredado de la clase; null si ninguna clase de la jerarquía lo declara. */
+    public Symbol buscarMetodo(Symbol clase, String nombre) {
+        for (Symbol c = clase; c != null; c = superclase(c)) {
+            ClassLayout layout = layouts.get(c);
+            if (layout != null) {
+                return layout.getMetodo(nombre);
+            }
+            Symbol miembro = c.getMembers().get(nombre);
+            if (miembro != null && miembro.getKind() == Symbol.Kind.FUNCTION) {
+                return miembro;
+            }
+        }
+        return null;
+    }
+
+    /** Atributo o método propio o heredado de la clase; null si no existe. */
+    public Symbol buscarMiembro(Symbol clase, String nombre) {
+        for (Symbol c = clase; c != null; c = superclase(c)) {
+            ClassLayout layout = layouts.get(c);
+            if (layout != null) {
+                return layout.getMiembro(nombre);
+            }
+            Symbol miembro = c.getMembers().get(nombre);
+            if (miembro != null) {
+                return miembro;
+            }
+        }
+        return null;
+    }
+
+    /** Constructor de la clase o de la superclase más cercana que tenga uno. */
+    public Symbol buscarConstructor(Symbol clase) {
+        for (Symbol c = clase; c != null; c = superclase(c)) {
+            ClassLayout layout = layouts.get(c);
+            if (layout != null) {
+                return layout.getConstructor();
+            }
+            for (Symbol miembro : c.getMembers().values()) {
+                if (miembro.isConstructor()) {
+                    return miembro;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Superclase resuelta desde el scope actual (null si no tiene, no existe o es ella misma)
+    private Symbol superclase(Symbol clase) {
+        if (clase.getSuperClass() == null) {
+            return null;
+        }
+        Symbol superclase = semanticVisitor.getEntornoActual().obtener(clase.getSuperClass());
+        return superclase != clase ? superclase : null;
+    }
+
     @Override
     public void enterVariableDeclaration(CompiscriptParser.VariableDeclarationContext ctx) {
         String varName = ctx.Identifier().getText();
@@ -83,12 +176,13 @@ public class ClassesListener extends CompiscriptBaseListener {
 
         // Inferir tipo desde el inicializador si existe
         if (ctx.initializer() != null && ctx.initializer().expression() != null) {
-            String tipoInicializador = semanticVisitor.getExpressionType(ctx.initializer().expression());
+            Type tipoInicializador = semanticVisitor.getExpressionType(ctx.initializer().expression());
             initialized = true;
 
             if (type == null) {
-                type = tipoInicializador;
-            } else if (!type.equals(tipoInicializador) && !"desconocido".equals(tipoInicializador)) {
+                type = tipoInicializador != null ? tipoInicializador.getNombre() : null;
+            } else if (semanticVisitor.getTipos().of(type) != tipoInicializador
+                    && tipoInicializador != Type.DESCONOCIDO) {
                 semanticVisitor.agregarError(
                         "No se puede inicializar variable '" + varName + "' de tipo '" + type +
                                 "' con expresión de tipo '" + tipoInicializador + "'",
@@ -133,7 +227,7 @@ public class ClassesListener extends CompiscriptBaseListener {
 
         if (!isConstructor){
             Symbol function = semanticVisitor.getFunctionsVisitor().visitFunctionDeclaration(ctx);
-            currentClass.getMembers().put(function.getName(), function);
+            registrarMetodo(function);
 
             if (currentClass != null) function.setEnclosingClassName(currentClass.getName());
 
@@ -166,7 +260,7 @@ public class ClassesListener extends CompiscriptBaseListener {
 
         // 🔹 Paso 2: Recorrer cuerpo del constructor
         if (isConstructor && !hayError) {
-            semanticVisitor.entrarScope(String.valueOf(ctx.start.getLine()));
+            semanticVisitor.entrarScope(ctx);
             for (CompiscriptParser.StatementContext stmt : ctx.block().statement()) {
                 if (stmt.assignment() != null) {
                     CompiscriptParser.AssignmentContext assignCtx = stmt.assignment();
@@ -210,7 +304,8 @@ public class ClassesListener extends CompiscriptBaseListener {
                                 .findFirst()
                                 .orElse(null);
 
-                        String tipoDerecha = semanticVisitor.getVariableVisitor().visit(assignCtx.expression(1)); // obtener tipo de la expresión
+                        Type tipoDerecha = semanticVisitor.getVariableVisitor().visit(assignCtx.expression(1)); // obtener tipo de la expresión
+                        Type tipoMiembro = semanticVisitor.getTipos().of(memberSym.getType());
                         if (paramSym != null) {
                             // Caso original: asignación desde parámetro
                             if (!memberSym.getType().equals(paramSym.getType()) && !"desconocido".equals(paramSym.getType())) {
@@ -224,10 +319,10 @@ public class ClassesListener extends CompiscriptBaseListener {
                                 memberSym.setInitialized(true);
                             }
                         } else {// asignación desde literal / otra expresión
-                            if (memberSym.getType().contains("[") && memberSym.getType().contains("]") && tipoDerecha.equals("array[]")){
+                            if (tipoDerecha == Type.ARREGLO_VACIO && tipoMiembro.esArreglo()) {
                                 memberSym.setInitialized(true);
                             }
-                            else if (!memberSym.getType().equals(tipoDerecha) && !"desconocido".equals(tipoDerecha)) {
+                            else if (tipoMiembro != tipoDerecha && tipoDerecha != Type.DESCONOCIDO) {
                                 semanticVisitor.agregarError(
                                         "Tipo de la expresión '" + rightExprText + "' (" + tipoDerecha +
                                                 ") no coincide con tipo del miembro '" + memberName + "' (" + memberSym.getType() + ")",
@@ -262,7 +357,7 @@ public class ClassesListener extends CompiscriptBaseListener {
                 funcSym.setEnclosingClassName(currentClass.getName());
                 funcSym.setConstructor(true);
 
-                currentClass.getMembers().put(funcName, funcSym);
+                registrarMetodo(funcSym);
             }
             semanticVisitor.getEntornoActual().agregar(funcSym);
         }
@@ -306,12 +401,12 @@ public class ClassesListener extends CompiscriptBaseListener {
         }
 
         // Obtener tipo de la expresión
-        String tipoExpresion = semanticVisitor.getExpressionType(ctx.expression());
+        Type tipoExpresion = semanticVisitor.getExpressionType(ctx.expression());
 
         // Inferir tipo si no está declarado
         if (type == null) {
-            type = tipoExpresion;
-        } else if (!type.equals(tipoExpresion) && !"desconocido".equals(tipoExpresion)) {
+            type = tipoExpresion != null ? tipoExpresion.getNombre() : null;
+        } else if (semanticVisitor.getTipos().of(type) != tipoExpresion && tipoExpresion != Type.DESCONOCIDO) {
             semanticVisitor.agregarError(
                     "No se puede inicializar constante '" + constName + "' de tipo '" + type +
                             "' con expresión de tipo '" + tipoExpresion + "'",
@@ -383,10 +478,10 @@ public class ClassesListener extends CompiscriptBaseListener {
         }
 
         // Obtener tipo de la expresión usando tu visitor de tipos
-        String tipoExpr = semanticVisitor.getExpressionType(ctx.expression(0));
+        Type tipoExpr = semanticVisitor.getExpressionType(ctx.expression(0));
 
         // Chequeo de tipos
-        if (!sym.getType().equals(tipoExpr) && !"desconocido".equals(tipoExpr)) {
+        if (semanticVisitor.getTipos().of(sym.getType()) != tipoExpr && tipoExpr != Type.DESCONOCIDO) {
             semanticVisitor.agregarError(
                     "No se puede asignar valor de tipo '" + tipoExpr + "' a variable '" + nombreVar + "' de tipo '" + sym.getType() + "'",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine()
@@ -1,31 +1,41 @@
 package com.fmd;
+import com.fmd.modules.ExpressionMemo;
 import com.fmd.modules.SemanticError;
+import com.fmd.modules.Type;
+import org.antlr.v4.runtime.tree.ParseTree;
 
 import com.fmd.CompiscriptLexer;
 import com.fmd.CompiscriptParser;
 import com.fmd.CompiscriptBaseVisitor;
 
-public class ComparisonVisitor extends CompiscriptBaseVisitor<String> {
+public class ComparisonVisitor extends CompiscriptBaseVisitor<Type> {
     private final SemanticVisitor semanticVisitor;
 
     public ComparisonVisitor(SemanticVisitor semanticVisitor) {
         this.semanticVisitor = semanticVisitor;
     }
 
+    @Override
+    public Type visit(ParseTree tree) {
+        semanticVisitor.checkpoint();
+        // Las expresiones se tipan en la tabla de la compilación (SemanticVisitor.tipar)
+        return ExpressionMemo.esExpresion(tree) ? semanticVisitor.tipar(tree) : super.visit(tree);
+    }
+
     /**
      * Maneja operaciones de igualdad (==, !=)
      * Valida que ambos operandos sean del mismo tipo
      */
     @Override
-    public String visitEqualityExpr(CompiscriptParser.EqualityExprContext ctx) {
-        String tipoIzq = visit(ctx.relationalExpr(0));
+    public Type visitEqualityExpr(CompiscriptParser.EqualityExprContext ctx) {
+        Type tipoIzq = visit(ctx.relationalExpr(0));
 
         if (ctx.relationalExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.relationalExpr().size(); i++) {
-            String tipoDer = visit(ctx.relationalExpr(i));
+            Type tipoDer = visit(ctx.relationalExpr(i));
             String operador = ctx.getChild(2 * i - 1).getText(); // ==, !=
 
             // Validar compatibilidad de tipos para igualdad usando mensaje centralizado
@@ -38,7 +48,7 @@ public class ComparisonVisitor extends CompiscriptBaseVisitor<String> {
             }
 
             // Las operaciones de igualdad siempre retornan boolean
-            tipoIzq = "boolean";
+            tipoIzq = Type.BOOLEAN;
         }
 
         return tipoIzq;
@@ -49,15 +59,15 @@ public class ComparisonVisitor extends CompiscriptBaseVisitor<String> {
      * Valida que ambos operandos sean del mismo tipo y ordenables
      */
     @Override
-    public String visitRelationalExpr(CompiscriptParser.RelationalExprContext ctx) {
-        String tipoIzq = visit(ctx.additiveExpr(0));
+    public Type visitRelationalExpr(CompiscriptParser.RelationalExprContext ctx) {
+        Type tipoIzq = visit(ctx.additiveExpr(0));
 
         if (ctx.additiveExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.additiveExpr().size(); i++) {
-            String tipoDer = visit(ctx.additiveExpr(i));
+            Type tipoDer = visit(ctx.additiveExpr(i));
             String operador = ctx.getChild(2 * i - 1).getText(); // <, >, <=, >=
 
             // Validar que ambos operandos sean del mismo tipo y ordenables usando mensajes centralizados
@@ -76,81 +86,81 @@ public class ComparisonVisitor extends CompiscriptBaseVisitor<String> {
             }
 
             // Las operaciones relacionales siempre retornan boolean
-            tipoIzq = "boolean";
+            tipoIzq = Type.BOOLEAN;
         }
 
         return tipoIzq;
     }
 
     // Los métodos helper privados permanecen iguales
-    private boolean sonTiposCompatiblesParaIgualdad(String tipo1, String tipo2) {
+    private boolean sonTiposCompatiblesParaIgualdad(Type tipo1, Type tipo2) {
         // Ignorar errores previos
-        if ("desconocido".equals(tipo1) || "desconocido".equals(tipo2)) {
+        if (tipo1 == Type.DESCONOCIDO || tipo2 == Type.DESCONOCIDO) {
             return true;
         }
 
         // null puede compararse con cualquier tipo
-        if ("null".equals(tipo1) || "null".equals(tipo2)) {
+        if (tipo1 == Type.NULL || tipo2 == Type.NULL) {
             return true;
         }
 
         // Los tipos deben ser exactamente iguales
-        return tipo1.equals(tipo2);
+        return tipo1 == tipo2;
     }
 
-    private boolean sonTiposCompatiblesParaRelacional(String tipo1, String tipo2) {
+    private boolean sonTiposCompatiblesParaRelacional(Type tipo1, Type tipo2) {
         // Ignorar errores previos
-        if ("desconocido".equals(tipo1) || "desconocido".equals(tipo2)) {
+        if (tipo1 == Type.DESCONOCIDO || tipo2 == Type.DESCONOCIDO) {
             return true;
         }
 
         // Para operaciones relacionales, los tipos deben ser exactamente iguales
-        return tipo1.equals(tipo2);
+        return tipo1 == tipo2;
     }
 
-    private boolean esTipoOrdenable(String tipo) {
+    private boolean esTipoOrdenable(Type tipo) {
         // Solo integer y string son ordenables por ahora
-        return "integer".equals(tipo) || "string".equals(tipo);
+        return tipo == Type.INTEGER || tipo == Type.STRING;
     }
 
     // Delegación a VariableVisitor para operaciones aritméticas
     @Override
-    public String visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
+    public Type visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitAdditiveExpr(ctx);
     }
 
     @Override
-    public String visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
+    public Type visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitMultiplicativeExpr(ctx);
     }
 
     @Override
-    public String visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
+    public Type visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitUnaryExpr(ctx);
     }
 
     @Override
-    public String visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
+    public Type visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitPrimaryExpr(ctx);
     }
 
     @Override
-    public String visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
+    public Type visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitLiteralExpr(ctx);
     }
 
     @Override
-    public String visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
+    public Type visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitIdentifierExpr(ctx);
     }
 
     @Override
-    public String visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
+    public Type visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
         return semanticVisitor.getVariableVisitor().visitLeftHandSide(ctx);
     }
 
     @Override
-    public String visitAssignExpr(CompiscriptParser.AssignExprContext ctx) {
+    public Type visitAssignExpr(CompiscriptParser.AssignExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitAssignExpr(ctx);
     }
 
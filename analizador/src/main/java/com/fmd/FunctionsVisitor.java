@@ -7,6 +7,7 @@ import java.util.Set;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
 import com.fmd.CompiscriptLexer;
 import com.fmd.CompiscriptParser;
 import com.fmd.CompiscriptBaseVisitor;
@@ -19,6 +20,12 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
         this.semanticVisitor = semanticVisitor;
     }
 
+    @Override
+    public Object visit(ParseTree tree) {
+        semanticVisitor.checkpoint();
+        return super.visit(tree);
+    }
+
     // Funciones recursivas y Detección de múltiples declaraciones
     @Override
     public Symbol visitFunctionDeclaration(CompiscriptParser.FunctionDeclarationContext ctx) {
@@ -43,7 +50,7 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
 
         Symbol previousFunction = currentFunction;
         currentFunction = function;
-        semanticVisitor.entrarScope(String.valueOf(ctx.start.getLine()));
+        semanticVisitor.entrarScope(ctx);
 
         if (ctx.parameters() != null) {
             for (CompiscriptParser.ParameterContext param : ctx.parameters().parameter()) {
@@ -59,7 +66,7 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
 
         if (function.isNested()) {
             Set<String> capturedVars = findCapturedVariables(ctx.block());
-            function.setCapturedVariables(capturedVars);
+            function.setCapturedVariables(Set.copyOf(capturedVars)); // copia compacta e inmutable
 
             for (String varName : capturedVars) {
                 if (!semanticVisitor.getEntornoActual().getPadre().existeGlobal(varName)) {
@@ -80,28 +87,28 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
 
     // Validación de tipo de retorno
     @Override
-    public String visitReturnStatement(CompiscriptParser.ReturnStatementContext ctx) {
+    public Type visitReturnStatement(CompiscriptParser.ReturnStatementContext ctx) {
         if (currentFunction == null) {
             semanticVisitor.agregarError("return fuera de una función", ctx.start.getLine(),
                     ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
-        String expectedReturnType = currentFunction.getType();
-        String actualReturnType;
+        Type expectedReturnType = semanticVisitor.getTipos().of(currentFunction.getType());
+        Type actualReturnType;
 
         if (ctx.expression() != null) {
             actualReturnType = semanticVisitor.getVariableVisitor().visit(ctx.expression()); // Obtener tipo de la
                                                                                              // expresión
         } else {
-            actualReturnType = "void";
+            actualReturnType = Type.VOID;
         }
 
         if (actualReturnType == null) {
-            actualReturnType = "void";
+            actualReturnType = Type.VOID;
         }
 
-        if (!actualReturnType.equals(expectedReturnType)) {
+        if (actualReturnType != expectedReturnType) {
             semanticVisitor.agregarError("Tipo de retorno incorrecto: esperado " + expectedReturnType +
                     ", encontrado " + actualReturnType, ctx.start.getLine(), ctx.start.getCharPositionInLine());
         }
@@ -110,7 +117,7 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
     }
 
     @Override
-    public String visitCallExpr(CompiscriptParser.CallExprContext ctx) {
+    public Type visitCallExpr(CompiscriptParser.CallExprContext ctx) {
         // Obtener base y método
         String[] parts = getFunctionParts(ctx);
         String baseName = parts[0]; // null o "unknown" si no hay objeto
@@ -126,14 +133,14 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                 semanticVisitor.agregarError(
                         "Variable u objeto '" + baseName + "' no declarado",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
             if (baseSym.getKind() != Symbol.Kind.VARIABLE) {
                 semanticVisitor.agregarError(
                         "'" + baseName + "' no es un objeto para llamar métodos",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
             // El objeto existe, obtenemos su clase
@@ -144,29 +151,17 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                 semanticVisitor.agregarError(
                         "Clase '" + classType + "' no existe",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
-            // Buscar el método en la clase y superclases
-            Symbol methodSym = null;
-            Symbol currentClassSym = classSym;
-            while (currentClassSym != null && methodSym == null) {
-                methodSym = currentClassSym.getMembers().values().stream()
-                        .filter(m -> m.getName().equals(methodName) && m.getKind() == Symbol.Kind.FUNCTION)
-                        .findFirst().orElse(null);
-
-                if (methodSym == null && currentClassSym.getSuperClass() != null) {
-                    currentClassSym = semanticVisitor.getEntornoActual().obtener(currentClassSym.getSuperClass());
-                } else {
-                    currentClassSym = null;
-                }
-            }
+            // Buscar el método en la clase y superclases (tabla aplanada de la clase)
+            Symbol methodSym = semanticVisitor.getClassesListener().buscarMetodo(classSym, methodName);
 
             if (methodSym == null) {
                 semanticVisitor.agregarError(
                         "Método '" + methodName + "' no existe en la clase '" + classType + "' ni en sus superclases",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
             // Validar argumentos
@@ -178,10 +173,10 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                         "Método '" + methodName + "' espera " + expectedArgs +
                                 " argumentos, pero recibe " + actualArgs,
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
-            return methodSym.getType();
+            return semanticVisitor.getTipos().of(methodSym.getType());
         }
 
         // ============================
@@ -200,7 +195,7 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                             "Función '" + funcSym.getName() + "' espera " + expectedArgs +
                                     " argumentos, pero recibe " + actualArgs,
                             ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                    return "ERROR";
+                    return Type.ERROR;
                 }
 
                 // Validar tipos de argumentos
@@ -208,8 +203,8 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                     List<Symbol> functionParams = funcSym.getParams();
                     List<CompiscriptParser.ExpressionContext> args = ctx.arguments().expression();
                     for (int i = 0; i < actualArgs; i++) {
-                        String actualType = semanticVisitor.getVariableVisitor().visit(args.get(i));
-                        String expectedType = functionParams.get(i).getType();
+                        Type actualType = semanticVisitor.getVariableVisitor().visit(args.get(i));
+                        Type expectedType = semanticVisitor.getTipos().of(functionParams.get(i).getType());
 
                         if (!typesCompatible(actualType, expectedType)) {
                             semanticVisitor.agregarError("Argumento " + (i + 1) + " en función '" +
@@ -219,18 +214,15 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                     }
                 }
 
-                return funcSym.getType();
+                return semanticVisitor.getTipos().of(funcSym.getType());
             }
 
-            // 2. ¿Es método de alguna clase?
+            // 2. ¿Es método de alguna clase visible desde aquí?
             boolean metodoDeClase = false;
-            for (Symbol s : semanticVisitor.getEntornoActual().getAllSymbols().values()) {
-                if (s.getKind() == Symbol.Kind.CLASS) {
-                    for (Symbol m : s.getMembers().values()) {
-                        if (m.getKind() == Symbol.Kind.FUNCTION && m.getName().equals(methodName)) {
-                            metodoDeClase = true;
-                        }
-                    }
+            for (Symbol clase : semanticVisitor.getClassesListener().getClasesConMetodo(methodName)) {
+                if (semanticVisitor.getEntornoActual().obtener(clase.getName()) == clase) {
+                    metodoDeClase = true;
+                    break;
                 }
             }
 
@@ -238,7 +230,7 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                 semanticVisitor.agregarError(
                         "Método '" + methodName + "' no se puede llamar sin su clase",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
             // 3. ¿Es variable?
@@ -246,17 +238,17 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
                 semanticVisitor.agregarError(
                         "La variable '" + methodName + "' no es una función",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
             // 4. Si no existe en ningún lado
             semanticVisitor.agregarError(
                     "Función o método '" + methodName + "' no está definido",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
-        return "ERROR";
+        return Type.ERROR;
     }
 
     @Override
@@ -268,11 +260,11 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
     }
 
     // Método auxiliar para compatibilidad de tipos
-    private boolean typesCompatible(String actualType, String expectedType) {
+    private boolean typesCompatible(Type actualType, Type expectedType) {
         if (actualType == null) {
-            actualType = "void";
+            actualType = Type.VOID;
         }
-        return actualType.equals(expectedType) || "ERROR".equals(actualType);
+        return actualType == expectedType || actualType == Type.ERROR;
     }
 
     // Método auxiliar para obtener el nombre de la función
@@ -328,12 +320,12 @@ public class FunctionsVisitor extends CompiscriptBaseVisitor<Object> {
         // Contar dimensiones del array
         int arrayDimensions = (typeCtx.getChildCount() - 1) / 2; // -1 porque el primer hijo es baseType, /2 porque son dos []
 
-        StringBuilder result = new StringBuilder(baseType);
+        Type result = semanticVisitor.getTipos().of(baseType);
         for (int i = 0; i < arrayDimensions; i++) {
-            result.append("[]");
+            result = semanticVisitor.getTipos().arreglo(result);
         }
 
-        return result.toString();
+        return result.getNombre();
     }
 
     // Metodo para encontrar variables capturadas (closure)
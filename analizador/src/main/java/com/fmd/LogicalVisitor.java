@@ -1,13 +1,23 @@
 package com.fmd;
+import com.fmd.modules.ExpressionMemo;
 import com.fmd.modules.SemanticError;
+import com.fmd.modules.Type;
+import org.antlr.v4.runtime.tree.ParseTree;
 
-public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
+public class LogicalVisitor extends CompiscriptBaseVisitor<Type> {
     private final SemanticVisitor semanticVisitor;
 
     public LogicalVisitor(SemanticVisitor semanticVisitor) {
         this.semanticVisitor = semanticVisitor;
     }
 
+    @Override
+    public Type visit(ParseTree tree) {
+        semanticVisitor.checkpoint();
+        // Las expresiones se tipan en la tabla de la compilación (SemanticVisitor.tipar)
+        return ExpressionMemo.esExpresion(tree) ? semanticVisitor.tipar(tree) : super.visit(tree);
+    }
+
 // Solo mostrando los métodos que cambian para operaciones lógicas
 
     /**
@@ -15,18 +25,18 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
      * Valida que ambos operandos sean boolean
      */
     @Override
-    public String visitLogicalOrExpr(CompiscriptParser.LogicalOrExprContext ctx) {
-        String tipoIzq = visit(ctx.logicalAndExpr(0));
+    public Type visitLogicalOrExpr(CompiscriptParser.LogicalOrExprContext ctx) {
+        Type tipoIzq = visit(ctx.logicalAndExpr(0));
 
         if (ctx.logicalAndExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.logicalAndExpr().size(); i++) {
-            String tipoDer = visit(ctx.logicalAndExpr(i));
+            Type tipoDer = visit(ctx.logicalAndExpr(i));
 
             // Validar que ambos operandos sean boolean usando mensajes centralizados
-            if (!"boolean".equals(tipoIzq)) {
+            if (tipoIzq != Type.BOOLEAN) {
                 semanticVisitor.agregarError(
                         SemanticError.getLogicalErrorMessage("||", tipoIzq, true),
                         ctx.start.getLine(),
@@ -34,7 +44,7 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
                 );
             }
 
-            if (!"boolean".equals(tipoDer)) {
+            if (tipoDer != Type.BOOLEAN) {
                 semanticVisitor.agregarError(
                         SemanticError.getLogicalErrorMessage("||", tipoDer, false),
                         ctx.start.getLine(),
@@ -43,10 +53,10 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
             }
 
             // Si ambos son boolean, el resultado es boolean
-            if ("boolean".equals(tipoIzq) && "boolean".equals(tipoDer)) {
-                tipoIzq = "boolean";
+            if (tipoIzq == Type.BOOLEAN && tipoDer == Type.BOOLEAN) {
+                tipoIzq = Type.BOOLEAN;
             } else {
-                tipoIzq = "desconocido";
+                tipoIzq = Type.DESCONOCIDO;
             }
         }
 
@@ -58,18 +68,18 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
      * Valida que ambos operandos sean boolean
      */
     @Override
-    public String visitLogicalAndExpr(CompiscriptParser.LogicalAndExprContext ctx) {
-        String tipoIzq = visit(ctx.equalityExpr(0));
+    public Type visitLogicalAndExpr(CompiscriptParser.LogicalAndExprContext ctx) {
+        Type tipoIzq = visit(ctx.equalityExpr(0));
 
         if (ctx.equalityExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.equalityExpr().size(); i++) {
-            String tipoDer = visit(ctx.equalityExpr(i));
+            Type tipoDer = visit(ctx.equalityExpr(i));
 
             // Validar que ambos operandos sean boolean usando mensajes centralizados
-            if (!"boolean".equals(tipoIzq)) {
+            if (tipoIzq != Type.BOOLEAN) {
                 semanticVisitor.agregarError(
                         SemanticError.getLogicalErrorMessage("&&", tipoIzq, true),
                         ctx.start.getLine(),
@@ -77,7 +87,7 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
                 );
             }
 
-            if (!"boolean".equals(tipoDer)) {
+            if (tipoDer != Type.BOOLEAN) {
                 semanticVisitor.agregarError(
                         SemanticError.getLogicalErrorMessage("&&", tipoDer, false),
                         ctx.start.getLine(),
@@ -86,10 +96,10 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
             }
 
             // Si ambos son boolean, el resultado es boolean
-            if ("boolean".equals(tipoIzq) && "boolean".equals(tipoDer)) {
-                tipoIzq = "boolean";
+            if (tipoIzq == Type.BOOLEAN && tipoDer == Type.BOOLEAN) {
+                tipoIzq = Type.BOOLEAN;
             } else {
-                tipoIzq = "desconocido";
+                tipoIzq = Type.DESCONOCIDO;
             }
         }
 
@@ -98,48 +108,48 @@ public class LogicalVisitor extends CompiscriptBaseVisitor<String> {
 
     // Delegación a ComparisonVisitor para operaciones de comparación
     @Override
-    public String visitEqualityExpr(CompiscriptParser.EqualityExprContext ctx) {
+    public Type visitEqualityExpr(CompiscriptParser.EqualityExprContext ctx) {
         return semanticVisitor.getComparisonVisitor().visitEqualityExpr(ctx);
     }
 
     @Override
-    public String visitRelationalExpr(CompiscriptParser.RelationalExprContext ctx) {
+    public Type visitRelationalExpr(CompiscriptParser.RelationalExprContext ctx) {
         return semanticVisitor.getComparisonVisitor().visitRelationalExpr(ctx);
     }
 
     // Delegación a VariableVisitor para operaciones aritméticas
     @Override
-    public String visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
+    public Type visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitAdditiveExpr(ctx);
     }
 
     @Override
-    public String visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
+    public Type visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitMultiplicativeExpr(ctx);
     }
 
     @Override
-    public String visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
+    public Type visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitUnaryExpr(ctx);
     }
 
     @Override
-    public String visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
+    public Type visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitPrimaryExpr(ctx);
     }
 
     @Override
-    public String visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
+    public Type visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitLiteralExpr(ctx);
     }
 
     @Override
-    public String visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
+    public Type visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
         return semanticVisitor.getVariableVisitor().visitIdentifierExpr(ctx);
     }
 
     @Override
-    public String visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
+    public Type visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
         return semanticVisitor.getVariableVisitor().visitLeftHandSide(ctx);
     }
 }
\ No newline at end of file
@@ -1,39 +1,107 @@
 package com.fmd;
 
-import java.nio.file.Files;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import com.fmd.modules.Symbol;
-import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.misc.Utils;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import com.fmd.additions.MappedCharStream;
+import com.fmd.modules.IdentifierTokenFactory;
+import com.fmd.modules.Interner;
 import com.fmd.modules.SemanticError;
+import com.fmd.modules.SyntaxErrorListener;
+import com.fmd.modules.TwoStageParser;
+import com.fmd.tools.GrammarProfiler;
+import com.fmd.tools.ProgramGenerator;
+import com.fmd.tools.SymbolFootprint;
 import com.fmd.CompiscriptLexer;
 import com.fmd.CompiscriptParser;
 import com.fmd.CompiscriptBaseVisitor;
 
 public class Main {
     public static void main(String[] args) throws Exception {
-        // 1. Leer archivo de entrada
-        String inputFile = args.length > 0 ? args[0] : "src\\main\\java\\com\\fmd\\program.cps";
-        String code = Files.readString(Path.of(inputFile));
+        // 1. Leer argumentos: [--tokens] [archivo] | --perfil [directorio] [--top N]
+        //    | --generar forma tamaño [semilla] [salida.cps] | --memoria [n]
+        if (args.length > 0 && args[0].equals("--perfil")) {
+            GrammarProfiler.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--generar")) {
+            ProgramGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--memoria")) {
+            SymbolFootprint.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        boolean soloTokens = false;
+        String inputFile = "src\\main\\java\\com\\fmd\\program.cps";
+        for (String arg : args) {
+            if (arg.equals("--tokens")) {
+                soloTokens = true;
+            } else {
+                inputFile = arg;
+            }
+        }
+
+        // El archivo se mapea en memoria en lugar de copiarse al heap
+        CharStream input = MappedCharStream.fromPath(Path.of(inputFile));
+        if (soloTokens) {
+            imprimirTokens(input);
+            return;
+        }
 
         // 2. Crear lexer
-        CompiscriptLexer lexer = new CompiscriptLexer(CharStreams.fromString(code));
+        SyntaxErrorListener sintaxis = new SyntaxErrorListener(
+                Integer.getInteger("compilador.sintaxis.max-errores", 25), null);
+        Interner nombres = new Interner();
+        CompiscriptLexer lexer = new CompiscriptLexer(input);
+        lexer.setTokenFactory(new IdentifierTokenFactory(nombres));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(sintaxis);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
 
         // 3. Crear parser
         CompiscriptParser parser = new CompiscriptParser(tokens);
+        parser.removeErrorListeners();
+        parser.addErrorListener(sintaxis);
 
-        // 4. Invocar la regla inicial
-        ParseTree tree = parser.program();
+        // 4. Invocar la regla inicial (SLL primero, LL completo solo si SLL falla)
+        TwoStageParser.Resultado parseo = null;
+        try {
+            parseo = TwoStageParser.parsear(parser);
+        } catch (ParseCancellationException e) {
+            // Se alcanzó el máximo de errores de sintaxis
+        }
+
+        // Con errores de sintaxis no tiene sentido el análisis semántico del árbol recuperado
+        if (sintaxis.hayErrores()) {
+            System.out.println("Se encontraron errores de sintaxis:");
+            for (SemanticError err : sintaxis.getErrores()) {
+                System.out.println(err);
+            }
+            System.exit(1);
+        }
+        ParseTree tree = parseo.getArbol();
+        System.out.println("Parseo completado en etapa " + parseo.getEtapa());
 
         // 5. Opcional: ver árbol sintáctico
         System.out.println(tree.toStringTree(parser));
 
         // 6. Análisis semántico
-        SemanticVisitor visitor = new SemanticVisitor();
+        SemanticVisitor visitor = new SemanticVisitor(nombres);
         visitor.visit(tree);
 
         // 7. Mostrar errores
@@ -50,4 +118,27 @@ public class Main {
         System.out.println("\n Esta es la tabla de símbolos:");
         visitor.getRaiz().imprimirScopes("");
     }
+
+    /**
+     * Modo --tokens: imprime los tokens con un UnbufferedTokenStream, que solo
+     * retiene la ventana de lookahead. Junto con el CharStream mapeado, la memoria
+     * no crece con el tamaño del archivo.
+     */
+    private static void imprimirTokens(CharStream input) {
+        CompiscriptLexer lexer = new CompiscriptLexer(input);
+        UnbufferedTokenStream<Token> tokens = new UnbufferedTokenStream<>(lexer);
+        Vocabulary vocabulario = lexer.getVocabulary();
+        StringBuilder linea = new StringBuilder();
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)), false);
+        while (tokens.LA(1) != Token.EOF) {
+            Token token = tokens.LT(1);
+            linea.setLength(0);
+            linea.append(token.getLine()).append(':').append(token.getCharPositionInLine()).append('\t')
+                    .append(vocabulario.getDisplayName(token.getType())).append('\t')
+                    .append(Utils.escapeWhitespace(token.getText(), false));
+            out.println(linea);
+            tokens.consume();
+        }
+        out.flush();
+    }
 }
@@ -1,15 +1,32 @@
 package com.fmd;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.ExpressionMemo;
+import com.fmd.modules.IntMap;
+import com.fmd.modules.Interner;
+import com.fmd.modules.ScopeIndex;
 import com.fmd.modules.SemanticError;
 import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
+import com.fmd.modules.TypeTable;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
 
 import com.fmd.CompiscriptLexer;
 import com.fmd.CompiscriptParser;
@@ -17,12 +34,19 @@ import com.fmd.CompiscriptBaseVisitor;
 
 public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     private final List<SemanticError> errores = new ArrayList<>();
+    private Consumer<SemanticError> escuchaErrores; // recibe cada error en cuanto se detecta
+    private CompilationBudget presupuesto = CompilationBudget.ILIMITADO;
 
     private Entorno entornoActual;
     private final Entorno raiz;
     private final Map<String, Entorno> existingScopes = new HashMap<>();
+    private ScopeIndex indiceScopes;
+    private final TypeTable tipos = new TypeTable();
 
     private Symbol lastSymbol;
+    // Resultados por nodo: se calculan una vez y las pasadas siguientes los leen
+    private final ExpressionMemo tiposPorNodo = new ExpressionMemo(); // compartida por todos los visitors
+    private final ParseTreeProperty<Symbol> simbolosPorNodo = new ParseTreeProperty<>();
     private boolean dentroDeContextoPrint = false;
     private int loopDepth = 0;
     private int switchDepth = 0;
@@ -34,11 +58,31 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     private final ComparisonVisitor comparisonVisitor = new ComparisonVisitor(this);
 
     public SemanticVisitor() {
-        this.entornoActual = new Entorno(null, "0");
+        this(new Interner());
+    }
+
+    /** Comparte la tabla de nombres con el lexer (ver IdentifierTokenFactory). */
+    public SemanticVisitor(Interner nombres) {
+        this.entornoActual = Entorno.raiz(nombres, "0");
         this.raiz = this.entornoActual; // root/global
         existingScopes.put("0", entornoActual);
     }
 
+    // Punto de cancelación cooperativa en cada nodo visitado
+    @Override
+    public Object visit(ParseTree tree) {
+        presupuesto.checkpoint();
+        return super.visit(tree);
+    }
+
+    public void checkpoint() {
+        presupuesto.checkpoint();
+    }
+
+    public void setPresupuesto(CompilationBudget presupuesto) {
+        this.presupuesto = presupuesto;
+    }
+
     public boolean isDentroDeContextoPrint() {
         return dentroDeContextoPrint;
     }
@@ -47,15 +91,63 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
         this.dentroDeContextoPrint = value;
     }
 
+    /**
+     * Un scope de la tabla de símbolos. Cada entorno guarda sus propios símbolos
+     * (lo que se exporta), y además todos los entornos de un mismo árbol
+     * comparten una pila de enlaces por nombre: declarar un símbolo lo apila y
+     * cerrar el scope lo desapila. Resolver un identificador desde un scope
+     * abierto es entonces una búsqueda en un mapa, sin importar la
+     * profundidad del anidamiento. Los scopes ya cerrados se consultan
+     * recorriendo la cadena de padres como antes.
+     *
+     * Las tablas están indexadas por el id entero que el Interner (compartido
+     * por el árbol y por el lexer) asigna a cada nombre.
+     */
     public static class Entorno {
         private String id;
-        private final Map<String, Symbol> symbols = new HashMap<>();
+        private final IntMap<Symbol> symbols = new IntMap<>();
         private final Entorno padre;
         private final List<Entorno> hijos = new ArrayList<>(); // <- hijos para scopes anidados
+        private final int profundidad;
+        private final Interner nombres;         // compartido por todo el árbol
+        private final IntMap<Enlace> enlaces;   // compartido por todo el árbol
+        private Map<String, Symbol> vistaLocal;
+        private boolean abierto = true;
+        // Rango en el código fuente: [inicio, fin) en líneas (desde 1) y columnas (desde 0)
+        private int lineaInicio;
+        private int columnaInicio;
+        private int lineaFin;
+        private int columnaFin;
+        private boolean conRango;
+
+        /** Declaración visible de un nombre; anterior es la que queda oculta por ella. */
+        private static final class Enlace {
+            private final Symbol simbolo;
+            private final Entorno entorno;
+            private Enlace anterior;
+
+            Enlace(Symbol simbolo, Entorno entorno, Enlace anterior) {
+                this.simbolo = simbolo;
+                this.entorno = entorno;
+                this.anterior = anterior;
+            }
+        }
 
         public Entorno(Entorno padre, String id) {
+            this(padre, id, padre == null ? new Interner() : padre.nombres);
+        }
+
+        /** Raíz de un árbol de scopes que comparte la tabla de nombres del lexer. */
+        public static Entorno raiz(Interner nombres, String id) {
+            return new Entorno(null, id, nombres);
+        }
+
+        private Entorno(Entorno padre, String id, Interner nombres) {
             this.id = id;
             this.padre = padre;
+            this.profundidad = padre == null ? 0 : padre.profundidad + 1;
+            this.nombres = nombres;
+            this.enlaces = padre == null ? new IntMap<>() : padre.enlaces;
             if (padre != null) {
                 padre.agregarHijo(this); // agregar este entorno al padre
             }
@@ -76,31 +168,198 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
             hijos.add(hijo);
         }
 
+        public boolean isAbierto() {
+            return abierto;
+        }
+
+        public int getProfundidad() {
+            return profundidad;
+        }
+
+        public Interner getNombres() {
+            return nombres;
+        }
+
+        /** Toma el rango del nodo que abre el scope: desde su primer token hasta el final del último. */
+        public void setRango(ParserRuleContext ctx) {
+            Token inicio = ctx.getStart();
+            Token fin = ctx.getStop() != null ? ctx.getStop() : inicio;
+            if (inicio == null) {
+                return;
+            }
+            lineaInicio = inicio.getLine();
+            columnaInicio = inicio.getCharPositionInLine();
+            lineaFin = fin.getLine();
+            // El EOF no ocupa columnas; los demás tokens de cierre no cruzan líneas
+            columnaFin = fin.getCharPositionInLine() + (fin.getType() == Token.EOF ? 0 : fin.getText().length());
+            conRango = true;
+        }
+
+        public boolean tieneRango() {
+            return conRango;
+        }
+
+        public int getLineaInicio() {
+            return lineaInicio;
+        }
+
+        public int getColumnaInicio() {
+            return columnaInicio;
+        }
+
+        public int getLineaFin() {
+            return lineaFin;
+        }
+
+        public int getColumnaFin() {
+            return columnaFin;
+        }
+
+        /** Cierra el scope: sus declaraciones dejan de ocultar a las de los ancestros. */
+        public void cerrar() {
+            if (!abierto) {
+                return;
+            }
+            abierto = false;
+            for (int i = 0; i < symbols.entradas(); i++) {
+                int nombre = symbols.claveEn(i);
+                Enlace tope = enlaces.get(nombre);
+                if (tope != null && tope.entorno == this) {
+                    enlaces.put(nombre, tope.anterior); // null deja el nombre sin enlace
+                }
+            }
+        }
+
         public boolean existeLocal(String nombre) {
-            return symbols.containsKey(nombre);
+            return symbols.containsKey(nombres.id(nombre));
         }
 
         public boolean existeGlobal(String nombre) {
+            return existeGlobal(nombres.id(nombre));
+        }
+
+        private boolean existeGlobal(int nombre) {
+            if (abierto) {
+                return visible(nombre) != null;
+            }
             if (symbols.containsKey(nombre))
                 return true;
             return padre != null && padre.existeGlobal(nombre);
         }
 
         public void agregar(Symbol sym) {
-            symbols.put(sym.getName(), sym);
+            int nombre = nombres.intern(sym.getName());
+            symbols.put(nombre, sym);
+            if (!abierto) {
+                return;
+            }
+            // Los enlaces de un nombre quedan ordenados del scope más profundo al más externo
+            Enlace tope = enlaces.get(nombre);
+            Enlace siguiente = null;
+            Enlace actual = tope;
+            while (actual != null && actual.entorno.profundidad > profundidad) {
+                siguiente = actual;
+                actual = actual.anterior;
+            }
+            Enlace nuevo = actual != null && actual.entorno == this
+                    ? new Enlace(sym, this, actual.anterior) // redeclaración en el mismo scope
+                    : new Enlace(sym, this, actual);
+            if (siguiente == null) {
+                enlaces.put(nombre, nuevo);
+            } else {
+                siguiente.anterior = nuevo;
+            }
         }
 
         public Symbol obtener(String nombre) {
-            if (symbols.containsKey(nombre))
-                return symbols.get(nombre);
+            return obtener(nombres.id(nombre));
+        }
+
+        private Symbol obtener(int nombre) {
+            if (abierto) {
+                Enlace enlace = visible(nombre);
+                return enlace == null ? null : enlace.simbolo;
+            }
+            Symbol local = symbols.get(nombre);
+            if (local != null)
+                return local;
             if (padre != null)
                 return padre.obtener(nombre);
             return null;
         }
 
-        /** devuelve solo los símbolos del entorno actual (no incluye padres) */
+        // Los scopes abiertos forman una sola cadena, así que un enlace de profundidad
+        // menor o igual siempre pertenece a este scope o a un ancestro
+        private Enlace visible(int nombre) {
+            Enlace enlace = enlaces.get(nombre);
+            while (enlace != null && enlace.entorno.profundidad > profundidad) {
+                enlace = enlace.anterior;
+            }
+            return enlace;
+        }
+
+        /** devuelve solo los símbolos del entorno actual (no incluye padres), como vista de solo lectura */
         public Map<String, Symbol> getSymbolsLocal() {
-            return Collections.unmodifiableMap(symbols);
+            if (vistaLocal == null) {
+                vistaLocal = new VistaSimbolos();
+            }
+            return vistaLocal;
+        }
+
+        /** Símbolos locales en orden de declaración. */
+        public List<Symbol> getSymbolsLocalEnOrden() {
+            List<Symbol> lista = new ArrayList<>(symbols.size());
+            for (int i = 0; i < symbols.entradas(); i++) {
+                if (symbols.valorEn(i) != null) {
+                    lista.add(symbols.valorEn(i));
+                }
+            }
+            return lista;
+        }
+
+        // Map<String, Symbol> sobre la tabla por id, sin copiarla
+        private final class VistaSimbolos extends AbstractMap<String, Symbol> {
+            @Override
+            public Symbol get(Object clave) {
+                return clave instanceof String nombre ? symbols.get(nombres.id(nombre)) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object clave) {
+                return get(clave) != null;
+            }
+
+            @Override
+            public int size() {
+                return symbols.size();
+            }
+
+            @Override
+            public Set<Entry<String, Symbol>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Symbol>> iterator() {
+                        Iterator<Symbol> valores = getSymbolsLocalEnOrden().iterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return valores.hasNext();
+                            }
+
+                            @Override
+                            public Entry<String, Symbol> next() {
+                                Symbol sym = valores.next();
+                                return new SimpleImmutableEntry<>(sym.getName(), sym);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return symbols.size();
+                    }
+                };
+            }
         }
 
         /** devuelve un mapa con la vista combinada de root->...->this (root primero) */
@@ -108,38 +367,60 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
             LinkedHashMap<String, Symbol> result = new LinkedHashMap<>();
             if (padre != null)
                 result.putAll(padre.getAllSymbols());
-            result.putAll(this.symbols);
+            for (Symbol sym : getSymbolsLocalEnOrden()) {
+                result.put(sym.getName(), sym);
+            }
             return result;
         }
 
         /** imprime recursivamente los símbolos por scope */
         public void imprimirScopes(String prefijo) {
             System.out.println(prefijo + "Scope (symbols: " + symbols.size() + ")");
-            symbols.values().forEach(sym -> System.out.println(prefijo + "  " + sym));
+            getSymbolsLocalEnOrden().forEach(sym -> System.out.println(prefijo + "  " + sym));
             for (Entorno hijo : hijos) {
                 hijo.imprimirScopes(prefijo + "    "); // recursión con sangría
             }
         }
 
+        /**
+         * Recorre en preorden (este scope, luego sus hijos en orden de
+         * declaración) cada símbolo junto con el scope que lo declara. Es una
+         * sola pasada iterativa: cada símbolo se visita una vez y los
+         * símbolos ocultos por otro del mismo nombre también se visitan.
+         * Devuelve cuántos scopes recorrió.
+         */
+        public int recorrerSimbolos(BiConsumer<Entorno, Symbol> accion) {
+            int scopes = 0;
+            Deque<Entorno> pendientes = new ArrayDeque<>();
+            pendientes.push(this);
+            while (!pendientes.isEmpty()) {
+                Entorno entorno = pendientes.pop();
+                scopes++;
+                IntMap<Symbol> tabla = entorno.symbols;
+                for (int i = 0; i < tabla.entradas(); i++) {
+                    if (tabla.valorEn(i) != null) {
+                        accion.accept(entorno, tabla.valorEn(i));
+                    }
+                }
+                for (int i = entorno.hijos.size() - 1; i >= 0; i--) {
+                    pendientes.push(entorno.hijos.get(i));
+                }
+            }
+            return scopes;
+        }
+
         /**
          * Devuelve un mapa con todos los símbolos accesibles desde este scope:
          * incluye los símbolos de los ancestros (root -> ... -> this) y
-         * además los de todos los hijos de forma recursiva.
+         * además los de todos los hijos. Si un nombre se repite queda el último
+         * en preorden; para no perder los símbolos ocultos usar recorrerSimbolos.
          */
         public Map<String, Symbol> getAllScopesSymbols() {
             LinkedHashMap<String, Symbol> result = new LinkedHashMap<>();
-
-            // 1. Ancestros: root → ... → this
             if (padre != null) {
                 result.putAll(padre.getAllSymbols());
             }
-            result.putAll(this.symbols);
-
-            // 2. Hijos: recursivamente
-            for (Entorno hijo : hijos) {
-                result.putAll(hijo.getAllScopesSymbols());
-            }
-
+            recorrerSimbolos((entorno, sym) -> result.put(sym.getName(), sym));
             return result;
         }
 
@@ -148,6 +429,7 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
 
     @Override
     public Void visitProgram(CompiscriptParser.ProgramContext ctx) {
+        raiz.setRango(ctx);
         for (CompiscriptParser.StatementContext stmt : ctx.statement()) {
             visit(stmt);
         }
@@ -157,7 +439,7 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     // General Statements
     @Override
     public Void visitBlock(CompiscriptParser.BlockContext ctx) {
-        entrarScope(String.valueOf(ctx.start.getLine()));
+        entrarScope(ctx);
         for (CompiscriptParser.StatementContext stmt : ctx.statement()) {
             visit(stmt);
         }
@@ -168,8 +450,8 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     @Override
     public Void visitIfStatement(CompiscriptParser.IfStatementContext ctx) {
         if (ctx.expression() != null) {
-            String tipoCond = comparisonVisitor.visit(ctx.expression());
-            if (!"boolean".equals(tipoCond)) {
+            Type tipoCond = comparisonVisitor.visit(ctx.expression());
+            if (tipoCond != Type.BOOLEAN) {
                 agregarError(
                         "Condición del if debe ser boolean, encontrada: " + tipoCond,
                         ctx.start.getLine(),
@@ -187,8 +469,8 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     public Void visitWhileStatement(CompiscriptParser.WhileStatementContext ctx) {
         loopDepth++;
         if (ctx.expression() != null) {
-            String tipoCond = comparisonVisitor.visit(ctx.expression());
-            if (!"boolean".equals(tipoCond)) {
+            Type tipoCond = comparisonVisitor.visit(ctx.expression());
+            if (tipoCond != Type.BOOLEAN) {
                 agregarError(
                         "Condición del while debe ser boolean, encontrada: " + tipoCond,
                         ctx.start.getLine(),
@@ -248,13 +530,13 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     @Override
     public Void visitTryCatchStatement(CompiscriptParser.TryCatchStatementContext ctx) {
         // Abrir scope para el bloque try
-        entrarScope(String.valueOf(ctx.start.getLine()));
+        entrarScope(ctx.block(0));
         visit(ctx.block(0)); // Bloque try
         salirScope();
 
         // Si hay catch
         if (ctx.block().size() > 1) {
-            entrarScope(String.valueOf(ctx.block(1).start.getLine()));
+            entrarScope(ctx.block(1));
             // Declarar la variable de excepción en el scope del catch
             if (ctx.Identifier() != null) {
                 String exName = ctx.Identifier().getText();
@@ -279,7 +561,7 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     @Override
     public Void visitForStatement(CompiscriptParser.ForStatementContext ctx) {
         loopDepth++;
-        entrarScope(String.valueOf(ctx.start.getLine()));
+        entrarScope(ctx);
 
         // Inicialización: puede ser declaración o asignación
         if (ctx.variableDeclaration() != null) {
@@ -290,8 +572,8 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
 
         // Condición
         if (ctx.expression(0) != null) {
-            String tipoCond = comparisonVisitor.visit(ctx.expression(0));
-            if (!"boolean".equals(tipoCond)) {
+            Type tipoCond = comparisonVisitor.visit(ctx.expression(0));
+            if (tipoCond != Type.BOOLEAN) {
                 agregarError(
                         "Condición del for debe ser boolean, encontrada: " + tipoCond,
                         ctx.start.getLine(),
@@ -316,21 +598,21 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     @Override
     public Void visitForeachStatement(CompiscriptParser.ForeachStatementContext ctx) {
         loopDepth++;
-        entrarScope(String.valueOf(ctx.start.getLine()));
+        entrarScope(ctx);
 
         String iterName = ctx.Identifier().getText();
-        String iterableType = variableVisitor.visit(ctx.expression()); // tipo del iterable
+        Type iterable = variableVisitor.visit(ctx.expression()); // tipo del iterable
 
         // Verificar que sea tipo arreglo
-        if (!iterableType.endsWith("[]")) {
+        if (!iterable.esArreglo()) {
             agregarError(
-                    "No se puede iterar sobre '" + iterName + "' de tipo '" + iterableType + "'",
+                    "No se puede iterar sobre '" + iterName + "' de tipo '" + iterable + "'",
                     ctx.start.getLine(),
                     ctx.start.getCharPositionInLine()
             );
         } else {
             // Declarar la variable iteradora solo si es válido
-            String elementType = iterableType.substring(0, iterableType.length() - 2); // quitar []
+            String elementType = iterable.getElemento().getNombre();
             Symbol iterSym = new Symbol(
                     iterName,
                     Symbol.Kind.VARIABLE,
@@ -353,7 +635,7 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
 
     @Override
     public Void visitSwitchStatement(CompiscriptParser.SwitchStatementContext ctx) {
-        String switchType = variableVisitor.visit(ctx.expression());
+        Type switchType = variableVisitor.visit(ctx.expression());
 
         for (CompiscriptParser.SwitchCaseContext caseCtx : ctx.switchCase()) {
             visitSwitchCase(caseCtx, switchType);
@@ -366,10 +648,10 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
         return null;
     }
 
-    public Void visitSwitchCase(CompiscriptParser.SwitchCaseContext ctx, String switchType) {
+    public Void visitSwitchCase(CompiscriptParser.SwitchCaseContext ctx, Type switchType) {
 
-        String caseType = variableVisitor.visit(ctx.expression());
-        if (!switchType.equals(caseType)) {
+        Type caseType = variableVisitor.visit(ctx.expression());
+        if (switchType != caseType) {
             agregarError(
                     "Tipo del case '" + caseType + "' no coincide con tipo del switch '" + switchType + "'",
                     ctx.start.getLine(),
@@ -401,8 +683,8 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
 
         // Evaluar condición
         if (ctx.expression() != null) {
-            String tipoCond = comparisonVisitor.visit(ctx.expression());
-            if (!"boolean".equals(tipoCond)) {
+            Type tipoCond = comparisonVisitor.visit(ctx.expression());
+            if (tipoCond != Type.BOOLEAN) {
                 agregarError(
                         "Condición del do-while debe ser boolean, encontrada: " + tipoCond,
                         ctx.start.getLine(),
@@ -440,13 +722,20 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
     }
 
     // Manejo tabla de simbolos
-    public void entrarScope(String id) {
+    /** Abre un scope hijo del actual con un id único y el rango del nodo que lo abre (puede ser null). */
+    public void entrarScope(ParserRuleContext ctx) {
+        String id = String.valueOf(existingScopes.size());
         entornoActual = new Entorno(entornoActual, id);
+        if (ctx != null) {
+            entornoActual.setRango(ctx);
+        }
         existingScopes.put(id, entornoActual);
+        indiceScopes = null;
     }
 
     public void salirScope() {
         if (entornoActual.getPadre() != null) {
+            entornoActual.cerrar();
             entornoActual = entornoActual.getPadre();
         }
     }
@@ -459,10 +748,23 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
         return raiz;
     }
 
+    /** Tipos canónicos de esta compilación. */
+    public TypeTable getTipos() {
+        return tipos;
+    }
+
     public Map<String, Entorno> getExistingScopes() {
         return existingScopes;
     }
 
+    /** Índice de scopes por posición; se construye en la primera consulta después del análisis. */
+    public ScopeIndex getIndiceScopes() {
+        if (indiceScopes == null) {
+            indiceScopes = new ScopeIndex(raiz);
+        }
+        return indiceScopes;
+    }
+
     // Exportar tabla como Map<String, Symbol>
     public Map<String, Symbol> getAllSymbols() {
         return raiz.getAllSymbols();
@@ -470,7 +772,15 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
 
     // Manejo de errores
     public void agregarError(String mensaje, int linea, int columna) {
-        errores.add(new SemanticError(mensaje, linea, columna));
+        SemanticError error = new SemanticError(mensaje, linea, columna);
+        errores.add(error);
+        if (escuchaErrores != null) {
+            escuchaErrores.accept(error);
+        }
+    }
+
+    public void setEscuchaErrores(Consumer<SemanticError> escuchaErrores) {
+        this.escuchaErrores = escuchaErrores;
     }
 
     public List<SemanticError> getErrores() {
@@ -573,6 +883,59 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
         this.lastSymbol = sym;
     }
 
+    /**
+     * Símbolo al que se refiere el identificador, resuelto en el scope actual
+     * la primera vez que se pide para ese nodo; null si no está declarado.
+     */
+    public Symbol resolver(CompiscriptParser.IdentifierExprContext ctx) {
+        Symbol sym = simbolosPorNodo.get(ctx);
+        if (sym == null) {
+            sym = entornoActual.obtener(ctx.Identifier().getText());
+            if (sym != null) {
+                simbolosPorNodo.put(ctx, sym);
+            }
+        }
+        return sym;
+    }
+
+    /** Símbolo ya resuelto para el nodo (identificador), o null si no se resolvió. */
+    public Symbol getSimbolo(ParseTree nodo) {
+        return simbolosPorNodo.get(nodo);
+    }
+
+    /**
+     * Tipo de la expresión en la tabla de la compilación. La primera vez lo
+     * calcula el visitor dueño de la regla (las lógicas LogicalVisitor, las
+     * comparaciones ComparisonVisitor y el resto VariableVisitor), así el tipo
+     * guardado no depende de qué visitor lo pidió primero.
+     */
+    public Type tipar(ParseTree nodo) {
+        return tiposPorNodo.tipar(nodo, this::calcularTipo);
+    }
+
+    private Type calcularTipo(ParseTree nodo) {
+        if (nodo instanceof CompiscriptParser.LogicalOrExprContext
+                || nodo instanceof CompiscriptParser.LogicalAndExprContext) {
+            return nodo.accept(logicalVisitor);
+        }
+        if (nodo instanceof CompiscriptParser.EqualityExprContext
+                || nodo instanceof CompiscriptParser.RelationalExprContext) {
+            return nodo.accept(comparisonVisitor);
+        }
+        if (nodo instanceof CompiscriptParser.PrimaryAtomContext atomo) {
+            return variableVisitor.tiparAtomo(atomo);
+        }
+        return nodo.accept(variableVisitor);
+    }
+
+    public ExpressionMemo getTiposPorNodo() {
+        return tiposPorNodo;
+    }
+
+    public ExpressionMemo.Contadores getContadoresTipado() {
+        return tiposPorNodo.getContadores();
+    }
+
     public Symbol getLastSymbol() {
         return this.lastSymbol;
     }
@@ -581,10 +944,14 @@ public class SemanticVisitor extends CompiscriptBaseVisitor<Object> {
         return classesListener.getCurrentClass();
     }
 
-    public String getExpressionType(CompiscriptParser.ExpressionContext ctx) {
-        if (ctx == null) return "desconocido";
+    public ClassesListener getClassesListener() {
+        return classesListener;
+    }
+
+    public Type getExpressionType(CompiscriptParser.ExpressionContext ctx) {
+        if (ctx == null) return Type.DESCONOCIDO;
 
-        // Aquí puedes delegar al VariableVisitor y que retorne String
+        // Aquí puedes delegar al VariableVisitor y que retorne el tipo
         return variableVisitor.visit(ctx);
     }
 
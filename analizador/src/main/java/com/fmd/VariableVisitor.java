@@ -1,7 +1,9 @@
 package com.fmd;
 
+import com.fmd.modules.ExpressionMemo;
 import com.fmd.modules.SemanticError;
 import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import java.util.List;
@@ -12,7 +14,7 @@ import java.util.Set;
 import com.fmd.CompiscriptParser;
 import com.fmd.CompiscriptBaseVisitor;
 
-public class VariableVisitor extends CompiscriptBaseVisitor<String> {
+public class VariableVisitor extends CompiscriptBaseVisitor<Type> {
     private final SemanticVisitor semanticVisitor;
 
     public VariableVisitor(SemanticVisitor semanticVisitor) {
@@ -20,9 +22,18 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
     }
 
     @Override
-    public String visitConstantDeclaration(CompiscriptParser.ConstantDeclarationContext ctx) {
+    public Type visit(ParseTree tree) {
+        semanticVisitor.checkpoint();
+        // Las expresiones se tipan en la tabla de la compilación (SemanticVisitor.tipar)
+        return ExpressionMemo.esExpresion(tree) ? semanticVisitor.tipar(tree) : super.visit(tree);
+    }
+
+    @Override
+    public Type visitConstantDeclaration(CompiscriptParser.ConstantDeclarationContext ctx) {
         String nombre = ctx.Identifier().getText();
-        String tipo = ctx.typeAnnotation() != null ? ctx.typeAnnotation().type().getText() : "desconocido";
+        Type tipo = ctx.typeAnnotation() != null
+                ? semanticVisitor.getTipos().of(ctx.typeAnnotation().type().getText())
+                : Type.DESCONOCIDO;
 
         if (ctx.expression() == null) {
             semanticVisitor.agregarError(
@@ -40,14 +51,14 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         }
 
         if (ctx.expression() != null) {
-            String tipoExpresion = semanticVisitor.getLogicalVisitor().visit(ctx.expression());
+            Type tipoExpresion = semanticVisitor.getLogicalVisitor().visit(ctx.expression());
 
             // Inferir tipo si no hay anotación
-            if (tipo == null || "desconocido".equals(tipo)) {
+            if (tipo == null || tipo == Type.DESCONOCIDO) {
                 tipo = tipoExpresion;
             } else {
                 // Validar compatibilidad de tipos si hay anotación explícita
-                if (!tipo.equals(tipoExpresion) && !"desconocido".equals(tipoExpresion)) {
+                if (tipo != tipoExpresion && tipoExpresion != Type.DESCONOCIDO) {
                     semanticVisitor.agregarError(
                             "No se puede inicializar constante '" + nombre + "' de tipo '" + tipo +
                                     "' con expresión de tipo '" + tipoExpresion + "'",
@@ -58,19 +69,21 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         }
 
         if (tipo == null) {
-            tipo = "desconocido";
+            tipo = Type.DESCONOCIDO;
         }
 
-        Symbol sym = new Symbol(nombre, Symbol.Kind.CONSTANT, tipo, ctx, ctx.start.getLine(),
+        Symbol sym = new Symbol(nombre, Symbol.Kind.CONSTANT, tipo.getNombre(), ctx, ctx.start.getLine(),
                 ctx.start.getCharPositionInLine(), false);
         semanticVisitor.getEntornoActual().agregar(sym);
         return tipo;
     }
 
     @Override
-    public String visitVariableDeclaration(CompiscriptParser.VariableDeclarationContext ctx) {
+    public Type visitVariableDeclaration(CompiscriptParser.VariableDeclarationContext ctx) {
         String nombre = ctx.Identifier().getText();
-        String tipo = ctx.typeAnnotation() != null ? ctx.typeAnnotation().type().getText() : null;
+        Type tipo = ctx.typeAnnotation() != null
+                ? semanticVisitor.getTipos().of(ctx.typeAnnotation().type().getText())
+                : null;
 
         Symbol currentClass = semanticVisitor.getCurrentClass();
 
@@ -82,14 +95,14 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                 semanticVisitor.agregarError(
                         "Miembro '" + nombre + "' ya declarado en la clase '" + currentClass.getName() + "'",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return tipo != null ? tipo : "desconocido";
+                return tipo != null ? tipo : Type.DESCONOCIDO;
             }
         } else {
             if (semanticVisitor.getEntornoActual().existeLocal(nombre)) {
                 semanticVisitor.agregarError(
                         "Variable '" + nombre + "' ya declarada en este scope",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return tipo != null ? tipo : "desconocido";
+                return tipo != null ? tipo : Type.DESCONOCIDO;
             }
         }
 
@@ -97,14 +110,11 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         // Inferir tipo desde inicializador
         // -------------------
         if (ctx.initializer() != null && ctx.initializer().expression() != null) {
-            CompiscriptParser.ExpressionContext exprCtx = ctx.initializer().expression();
-            String tipoInicializador = semanticVisitor.getLogicalVisitor().visit(ctx.initializer().expression());
-            // Recorrer el árbol recursivamente para detectar 'new Clase(...)'
-            detectNewExpr(exprCtx);
+            Type tipoInicializador = semanticVisitor.getLogicalVisitor().visit(ctx.initializer().expression());
             if (tipo == null) {
                 tipo = tipoInicializador;
-            } else if (!tipo.equals(tipoInicializador) && !"desconocido".equals(tipoInicializador)) {
-                if (!(tipo.contains("[") && tipo.contains("]") && tipoInicializador.equals("array[]"))) {
+            } else if (tipo != tipoInicializador && tipoInicializador != Type.DESCONOCIDO) {
+                if (!esArregloVacioCompatible(tipo, tipoInicializador)) {
                     semanticVisitor.agregarError(
                             "No se puede inicializar variable '" + nombre + "' de tipo '" + tipo +
                                     "' con expresión de tipo '" + tipoInicializador + "'",
@@ -114,9 +124,9 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         }
 
         if (tipo == null)
-            tipo = "desconocido";
+            tipo = Type.DESCONOCIDO;
 
-        Symbol sym = new Symbol(nombre, Symbol.Kind.VARIABLE, tipo, ctx,
+        Symbol sym = new Symbol(nombre, Symbol.Kind.VARIABLE, tipo.getNombre(), ctx,
                 ctx.start.getLine(), ctx.start.getCharPositionInLine(), true);
 
         // Agregar al entorno o como miembro de clase
@@ -128,92 +138,15 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         return tipo;
     }
 
-    // -------------------
-    // Verifica 'new Clase(...)' y tipos de parámetros usando getParams()
-    // -------------------
-    private void detectNewExpr(ParseTree node) {
-        if (node instanceof CompiscriptParser.NewExprContext newCtx) {
-            String claseNueva = newCtx.Identifier().getText();
-            Symbol claseSym = semanticVisitor.getEntornoActual().obtener(claseNueva);
-
-            if (claseSym == null || claseSym.getKind() != Symbol.Kind.CLASS) {
-                semanticVisitor.agregarError(
-                        "Clase '" + claseNueva + "' no existe",
-                        newCtx.start.getLine(), newCtx.start.getCharPositionInLine());
-            } else {
-                // Buscar constructor
-                Symbol constructorSym = buscarConstructor(claseSym);
-                int actualArgs = newCtx.arguments() != null ? newCtx.arguments().expression().size() : 0;
-
-                if (constructorSym == null) {
-                    if (actualArgs > 0) {
-                        semanticVisitor.agregarError(
-                                "Clase '" + claseNueva + "' no tiene constructor definido, no puede recibir argumentos",
-                                newCtx.start.getLine(), newCtx.start.getCharPositionInLine());
-                    }
-                } else {
-                    int expectedArgs = constructorSym.getParameterCount();
-
-                    if (expectedArgs != actualArgs) {
-                        semanticVisitor.agregarError(
-                                "Constructor de '" + claseNueva + "' espera " + expectedArgs +
-                                        " argumentos, pero recibe " + actualArgs,
-                                newCtx.start.getLine(), newCtx.start.getCharPositionInLine());
-                    } else {
-                        // Validar tipos de argumentos usando getParams()
-                        List<Symbol> params = constructorSym.getParams();
-                        for (int i = 0; i < expectedArgs; i++) {
-                            Symbol paramSym = params.get(i);
-                            CompiscriptParser.ExpressionContext argExpr = newCtx.arguments().expression(i);
-                            String tipoArg = semanticVisitor.getExpressionType(argExpr);
-
-                            if (!tipoArg.equals(paramSym.getType()) && !"desconocido".equals(tipoArg)) {
-                                semanticVisitor.agregarError(
-                                        "Tipo del argumento " + (i + 1) + " de '" + claseNueva +
-                                                "' esperado: '" + paramSym.getType() +
-                                                "', recibido: '" + tipoArg + "'",
-                                        argExpr.start.getLine(),
-                                        argExpr.start.getCharPositionInLine());
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        // Recorrer hijos
-        for (int i = 0; i < node.getChildCount(); i++) {
-            detectNewExpr(node.getChild(i));
-        }
-    }
-
     /**
      * Busca un constructor en la clase o en su cadena de herencia.
      */
     private Symbol buscarConstructor(Symbol claseSym) {
-        Symbol constructorSym = null;
-        while (claseSym != null) {
-            for (Symbol miembro : claseSym.getMembers().values()) {
-                if (miembro.isConstructor()) {
-                    constructorSym = miembro;
-                    return constructorSym;
-                }
-            }
-
-            // Subir a la superclase
-            String superClassName = claseSym.getSuperClass();
-            if (superClassName != null) {
-                claseSym = semanticVisitor.getEntornoActual().obtener(superClassName);
-            } else {
-                claseSym = null;
-            }
-        }
-
-        return constructorSym;
+        return semanticVisitor.getClassesListener().buscarConstructor(claseSym);
     }
 
     @Override
-    public String visitAssignment(CompiscriptParser.AssignmentContext ctx) {
+    public Type visitAssignment(CompiscriptParser.AssignmentContext ctx) {
         Symbol sym;
         String nombreVar;
         if (ctx.getChild(0).getText().equals("this")) {
@@ -230,7 +163,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                 semanticVisitor.agregarError(
                         "Uso de 'this' fuera de una clase",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
             String memberName = nombreVar.substring(5);
             sym = currentClass.getMembers().get(memberName);
@@ -238,7 +171,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                 semanticVisitor.agregarError(
                         "Miembro '" + memberName + "' no existe en la clase '" + currentClass.getName() + "'",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
         } else {
             sym = semanticVisitor.getEntornoActual().obtener(nombreVar);
@@ -246,7 +179,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                 semanticVisitor.agregarError(
                         "Variable '" + nombreVar + "' no declarada",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
         }
 
@@ -258,10 +191,11 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         }
 
         // Obtener tipo de la expresión
-        String tipoExpr = semanticVisitor.getLogicalVisitor().visit(ctx.expression(0));
+        Type tipoExpr = semanticVisitor.getLogicalVisitor().visit(ctx.expression(0));
+        Type tipoVar = semanticVisitor.getTipos().of(sym.getType());
 
         // Chequeo de tipos
-        if (!sym.getType().equals(tipoExpr) && !"desconocido".equals(tipoExpr) && !"null".equals(tipoExpr)) {
+        if (tipoVar != tipoExpr && tipoExpr != Type.DESCONOCIDO && tipoExpr != Type.NULL) {
 
             semanticVisitor.agregarError(
                     "No se puede asignar valor de tipo '" + tipoExpr + "' a variable '" + nombreVar + "' de tipo '"
@@ -274,25 +208,25 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             sym.setInitialized(true);
         }
 
-        return sym.getType();
+        return tipoVar;
     }
 
     @Override
-    public String visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
+    public Type visitIdentifierExpr(CompiscriptParser.IdentifierExprContext ctx) {
         if (ctx.Identifier() == null) {
             // Por ejemplo, puede ser un literal, u otra expresión
             return visitChildren(ctx); // o manejarlo según corresponda
         }
 
         String nombre = ctx.Identifier().getText();
-        Symbol sym = semanticVisitor.getEntornoActual().obtener(nombre);
+        Symbol sym = semanticVisitor.resolver(ctx);
 
         if (sym == null) {
             semanticVisitor.agregarError(
                     "Variable '" + nombre + "' no declarada en este scope",
                     ctx.start.getLine(),
                     ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
         if (sym.getEnclosingClassName() != null) {
@@ -301,10 +235,10 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                             + sym.getEnclosingClassName() + "'",
                     ctx.start.getLine(),
                     ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
-        return sym.getType();
+        return semanticVisitor.getTipos().of(sym.getType());
     }
 
     // Solo mostrando los métodos que cambian para operaciones aritméticas
@@ -314,37 +248,37 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
      * Valida que ambos operandos sean integer
      */
     @Override
-    public String visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
-        String tipoIzq = visit(ctx.multiplicativeExpr(0));
+    public Type visitAdditiveExpr(CompiscriptParser.AdditiveExprContext ctx) {
+        Type tipoIzq = visit(ctx.multiplicativeExpr(0));
 
         if (ctx.multiplicativeExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.multiplicativeExpr().size(); i++) {
-            String tipoDer = visit(ctx.multiplicativeExpr(i));
+            Type tipoDer = visit(ctx.multiplicativeExpr(i));
             String operador = ctx.getChild(2 * i - 1).getText(); // +, -
 
             if ("+".equals(operador)) {
                 // Verificar si ambos son integers (suma aritmética válida siempre)
-                if ("integer".equals(tipoIzq) && "integer".equals(tipoDer)) {
-                    tipoIzq = "integer";
+                if (tipoIzq == Type.INTEGER && tipoDer == Type.INTEGER) {
+                    tipoIzq = Type.INTEGER;
                 }
                 // Verificar si ambos son strings (concatenación válida siempre)
-                else if ("string".equals(tipoIzq) && "string".equals(tipoDer)) {
-                    tipoIzq = "string";
+                else if (tipoIzq == Type.STRING && tipoDer == Type.STRING) {
+                    tipoIzq = Type.STRING;
                 }
                 // Concatenación string + integer: solo válida en contexto de print
                 else if (esConcatenacionValidaEnPrint(tipoIzq, tipoDer)) {
                     if (semanticVisitor.isDentroDeContextoPrint()) {
-                        tipoIzq = "string"; // El resultado siempre es string
+                        tipoIzq = Type.STRING; // El resultado siempre es string
                     } else {
                         // Error: concatenación fuera de print
                         semanticVisitor.agregarError(
                                 "Concatenación de string e integer solo permitida dentro de print()",
                                 ctx.start.getLine(),
                                 ctx.start.getCharPositionInLine());
-                        tipoIzq = "desconocido";
+                        tipoIzq = Type.DESCONOCIDO;
                     }
                 } else {
                     // Otros casos inválidos
@@ -352,19 +286,19 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                             SemanticError.getArithmeticErrorMessage(operador, tipoIzq, tipoDer),
                             ctx.start.getLine(),
                             ctx.start.getCharPositionInLine());
-                    tipoIzq = "desconocido";
+                    tipoIzq = Type.DESCONOCIDO;
                 }
 
             } else if ("-".equals(operador)) {
                 // Para el operador '-': solo resta aritmética entre integers
-                if (!"integer".equals(tipoIzq) || !"integer".equals(tipoDer)) {
+                if (tipoIzq != Type.INTEGER || tipoDer != Type.INTEGER) {
                     semanticVisitor.agregarError(
                             SemanticError.getArithmeticErrorMessage(operador, tipoIzq, tipoDer),
                             ctx.start.getLine(),
                             ctx.start.getCharPositionInLine());
-                    tipoIzq = "desconocido";
+                    tipoIzq = Type.DESCONOCIDO;
                 } else {
-                    tipoIzq = "integer";
+                    tipoIzq = Type.INTEGER;
                 }
             }
         }
@@ -376,38 +310,38 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
      * Verifica si una operación es válida DENTRO de contextos de print
      * Permite concatenación más flexible
      */
-    private boolean esConcatenacionValidaEnPrint(String tipo1, String tipo2) {
+    private boolean esConcatenacionValidaEnPrint(Type tipo1, Type tipo2) {
         // Ignorar errores previos
-        if ("desconocido".equals(tipo1) || "desconocido".equals(tipo2)) {
+        if (tipo1 == Type.DESCONOCIDO || tipo2 == Type.DESCONOCIDO) {
             return true;
         }
 
         // En contextos de print, permite:
         // string + integer, integer + string
-        return (("string".equals(tipo1) && "integer".equals(tipo2)) ||
-                ("integer".equals(tipo1) && "string".equals(tipo2)));
+        return ((tipo1 == Type.STRING && tipo2 == Type.INTEGER) ||
+                (tipo1 == Type.INTEGER && tipo2 == Type.STRING));
     }
 
     /**
      * Verifica si un tipo es string o integer
      */
-    private boolean esStringOInteger(String tipo) {
-        return "string".equals(tipo) || "integer".equals(tipo);
+    private boolean esStringOInteger(Type tipo) {
+        return tipo == Type.STRING || tipo == Type.INTEGER;
     }
 
     /**
      * Maneja operaciones multiplicativas: *, / y %
      */
     @Override
-    public String visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
-        String tipoIzq = visit(ctx.unaryExpr(0));
+    public Type visitMultiplicativeExpr(CompiscriptParser.MultiplicativeExprContext ctx) {
+        Type tipoIzq = visit(ctx.unaryExpr(0));
 
         if (ctx.unaryExpr().size() == 1) {
             return tipoIzq;
         }
 
         for (int i = 1; i < ctx.unaryExpr().size(); i++) {
-            String tipoDer = visit(ctx.unaryExpr(i));
+            Type tipoDer = visit(ctx.unaryExpr(i));
             String operador = ctx.getChild(2 * i - 1).getText(); // *, /, %
 
             // Validación especial para división por cero usando mensaje centralizado
@@ -419,14 +353,14 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             }
 
             // Validar que ambos operandos sean integer usando mensaje centralizado
-            if (!"integer".equals(tipoIzq) || !"integer".equals(tipoDer)) {
+            if (tipoIzq != Type.INTEGER || tipoDer != Type.INTEGER) {
                 semanticVisitor.agregarError(
                         SemanticError.getArithmeticErrorMessage(operador, tipoIzq, tipoDer),
                         ctx.start.getLine(),
                         ctx.start.getCharPositionInLine());
-                tipoIzq = "desconocido";
+                tipoIzq = Type.DESCONOCIDO;
             } else {
-                tipoIzq = "integer";
+                tipoIzq = Type.INTEGER;
             }
         }
 
@@ -437,46 +371,46 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
      * Maneja expresiones unarias: -expr y !expr
      */
     @Override
-    public String visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
+    public Type visitUnaryExpr(CompiscriptParser.UnaryExprContext ctx) {
         if (ctx.getChildCount() == 1) {
             return visit(ctx.primaryExpr());
         }
 
         String operador = ctx.getChild(0).getText(); // - o !
-        String tipoOperando = visit(ctx.unaryExpr());
+        Type tipoOperando = visit(ctx.unaryExpr());
 
         if ("-".equals(operador)) {
             // Operador negación numérica: debe ser integer
-            if (!"integer".equals(tipoOperando)) {
+            if (tipoOperando != Type.INTEGER) {
                 semanticVisitor.agregarError(
                         SemanticError.getUnaryArithmeticErrorMessage("-", tipoOperando),
                         ctx.start.getLine(),
                         ctx.start.getCharPositionInLine());
             }
-            return "integer";
+            return Type.INTEGER;
         } else if ("!".equals(operador)) {
             // Operador negación lógica: debe ser boolean
-            if (!"boolean".equals(tipoOperando)) {
+            if (tipoOperando != Type.BOOLEAN) {
                 semanticVisitor.agregarError(
                         SemanticError.getUnaryLogicalErrorMessage("!", tipoOperando),
                         ctx.start.getLine(),
                         ctx.start.getCharPositionInLine());
             }
-            return "boolean";
+            return Type.BOOLEAN;
         }
 
         return tipoOperando;
     }
 
     @Override
-    public String visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
+    public Type visitLiteralExpr(CompiscriptParser.LiteralExprContext ctx) {
         if (ctx.Literal() != null) {
             String lit = ctx.Literal().getText();
             if (lit.matches("[0-9]+")) {
-                return "integer";
+                return Type.INTEGER;
             }
             if (lit.startsWith("\"") && lit.endsWith("\"")) {
-                return "string";
+                return Type.STRING;
             }
         }
         // --- Caso: array literal ---
@@ -485,36 +419,36 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
 
             // Si el array está vacío: tipo indefinido pero lo marcamos como array
             if (arr.expression().isEmpty()) {
-                return "array[]";
+                return Type.ARREGLO_VACIO;
             }
 
             // Tomamos el tipo del primer elemento
-            String firstType = visit(arr.expression(0));
+            Type firstType = visit(arr.expression(0));
 
             // Verificamos consistencia de tipos
             for (int i = 1; i < arr.expression().size(); i++) {
-                String elemType = visit(arr.expression(i));
-                if (!firstType.equals(elemType)) {
-                    return "mixed[]";
+                Type elemType = visit(arr.expression(i));
+                if (firstType != elemType) {
+                    return Type.ARREGLO_MIXTO;
                 }
             }
 
-            return firstType + "[]";
+            return semanticVisitor.getTipos().arreglo(firstType);
         }
         String texto = ctx.getText();
         if ("true".equals(texto) || "false".equals(texto)) {
-            return "boolean";
+            return Type.BOOLEAN;
         }
         if ("null".equals(texto)) {
-            return "null";
+            return Type.NULL;
         }
-        return "desconocido";
+        return Type.DESCONOCIDO;
     }
 
     @Override
-    public String visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
+    public Type visitLeftHandSide(CompiscriptParser.LeftHandSideContext ctx) {
         // Procesar cada suffixOp en orden
-        String currentType = visitPrimaryAtom(ctx.primaryAtom());
+        Type currentType = visitPrimaryAtom(ctx.primaryAtom());
         if (ctx.suffixOp() != null) {
             for (int i = 0; i < ctx.suffixOp().size(); i++) {
                 CompiscriptParser.SuffixOpContext suffixOp = ctx.suffixOp().get(i);
@@ -524,42 +458,33 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                     currentType = semanticVisitor.getFunctionsVisitor().visitCallExpr(callCtx);
 
                 } else if (suffixOp instanceof CompiscriptParser.IndexExprContext) {
-                    if (currentType.contains("[") && currentType.endsWith("]")) {
-                        String type_expr = visit(((CompiscriptParser.IndexExprContext) suffixOp).expression());
-                        if (!type_expr.matches("integer")) {
-                            semanticVisitor.agregarError("No se puede accesar a arreglo con tipo: " + type_expr,
-                                    suffixOp.start.getLine(), suffixOp.start.getCharPositionInLine());
-                        } else {
-                            String[] partes_original = currentType.split("\\[");
-
-                            String posible_indice = ((CompiscriptParser.IndexExprContext) suffixOp).expression()
-                                    .getText();
-                            try {
-                                int indice = Integer.parseInt(posible_indice);
-
-                                if (partes_original[1].split("]").length > 0) { // si el array tiene tamaño establecido
-                                    int array_size = Integer.parseInt(partes_original[1].split("]")[0]);
-
-                                    if (!(indice < array_size - 1)) {
-                                        semanticVisitor.agregarError(
-                                                "Indice incorrecto" + indice + "para el array de tamaño " + array_size,
-                                                suffixOp.start.getLine(), suffixOp.start.getCharPositionInLine());
-                                    }
-                                }
-                            } catch (NumberFormatException ignored) {
-                            }
-
-                            currentType = partes_original[0];
-                        }
-
-                        return currentType;
-                    }
-                    // Es acceso a array - ejemplo: arr[0]
-                    if (!currentType.endsWith("[]")) {
+                    // Es acceso a array - ejemplo: arr[0] o matriz[i][j]
+                    Type arreglo = currentType;
+                    if (!arreglo.esArreglo()) {
                         semanticVisitor.agregarError("Intento de indexar tipo no-array: " + currentType,
                                 suffixOp.start.getLine(), suffixOp.start.getCharPositionInLine());
-                        currentType = "ERROR";
+                        currentType = Type.ERROR;
+                        continue;
                     }
+                    // Cada índice consecutivo quita una dimensión (matriz[i] es una fila, matriz[i][j] un elemento)
+                    for (; i < ctx.suffixOp().size()
+                            && ctx.suffixOp().get(i) instanceof CompiscriptParser.IndexExprContext; i++) {
+                        CompiscriptParser.IndexExprContext indexCtx =
+                                (CompiscriptParser.IndexExprContext) ctx.suffixOp().get(i);
+                        if (!arreglo.esArreglo()) {
+                            semanticVisitor.agregarError("Intento de indexar tipo no-array: " + arreglo.getNombre(),
+                                    indexCtx.start.getLine(), indexCtx.start.getCharPositionInLine());
+                            return Type.ERROR;
+                        }
+                        Type type_expr = visit(indexCtx.expression());
+                        if (type_expr != Type.INTEGER) {
+                            semanticVisitor.agregarError("No se puede accesar a arreglo con tipo: " + type_expr,
+                                    indexCtx.start.getLine(), indexCtx.start.getCharPositionInLine());
+                            return currentType;
+                        }
+                        arreglo = arreglo.getElemento();
+                    }
+                    return arreglo;
 
                 } else if (suffixOp instanceof CompiscriptParser.PropertyAccessExprContext) {
                     if (i + 1 < ctx.suffixOp().size()) { // Verificar si se accede a un metodo
@@ -579,24 +504,28 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         return currentType;
     }
 
-    public String visitPrimaryAtom(CompiscriptParser.PrimaryAtomContext ctx) {
+    public Type visitPrimaryAtom(CompiscriptParser.PrimaryAtomContext ctx) {
+        return visit(ctx);
+    }
+
+    /** Tipo del átomo al inicio de un leftHandSide; SemanticVisitor.tipar lo usa para todo primaryAtom. */
+    Type tiparAtomo(CompiscriptParser.PrimaryAtomContext ctx) {
         if (ctx instanceof CompiscriptParser.IdentifierExprContext) {
             // Es un identificador simple
             String identifier = ((CompiscriptParser.IdentifierExprContext) ctx).Identifier().getText();
-            Symbol symbol = semanticVisitor.getEntornoActual().obtener(identifier);
+            Symbol symbol = semanticVisitor.resolver((CompiscriptParser.IdentifierExprContext) ctx);
 
             if (symbol == null) {
                 semanticVisitor.agregarError("Variable '" + identifier + "' no declarada",
                         ctx.start.getLine(), ctx.start.getCharPositionInLine());
-                return "ERROR";
+                return Type.ERROR;
             }
 
-            return symbol.getType();
+            return semanticVisitor.getTipos().of(symbol.getType());
 
-        } else if (ctx instanceof CompiscriptParser.NewExprContext) {
+        } else if (ctx instanceof CompiscriptParser.NewExprContext newCtx) {
             // Es una construcción de objeto - ejemplo: new MiClase()
-            String className = ((CompiscriptParser.NewExprContext) ctx).Identifier().getText();
-            return className; // Retorna el tipo de la clase
+            return visitNewExpr(newCtx);
 
         } else if (ctx instanceof CompiscriptParser.ThisExprContext) {
             // Es 'this' - depende del contexto de clase actual
@@ -604,40 +533,85 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             // Retorna 'this' como marcador de un error
             Symbol currentClass = semanticVisitor.getCurrentClass();
             if (currentClass != null){
-                return currentClass.getName();
+                return semanticVisitor.getTipos().of(currentClass.getName());
             }
 
-            return "this";
+            return semanticVisitor.getTipos().of("this");
         }
 
-        return "String"; // Fallback
+        return semanticVisitor.getTipos().of("String"); // Fallback
     }
 
-    // Maneja la creación de nuevas instancias
+    // Maneja la creación de nuevas instancias: verifica la clase, el constructor y
+    // los tipos de los argumentos (se tipa una vez, desde tiparAtomo)
     @Override
-    public String visitNewExpr(CompiscriptParser.NewExprContext ctx) {
-        String className = ctx.Identifier().getText();
-        Symbol classSym = semanticVisitor.getEntornoActual().obtener(className);
-        if (classSym == null || classSym.getKind() != Symbol.Kind.CLASS) {
+    public Type visitNewExpr(CompiscriptParser.NewExprContext ctx) {
+        String claseNueva = ctx.Identifier().getText();
+        Symbol claseSym = semanticVisitor.getEntornoActual().obtener(claseNueva);
+
+        if (claseSym == null || claseSym.getKind() != Symbol.Kind.CLASS) {
             semanticVisitor.agregarError(
-                    "Clase '" + className + "' no existe",
-                    ctx.start.getLine(),
-                    ctx.start.getCharPositionInLine());
-            return "desconocido";
+                    "Clase '" + claseNueva + "' no existe",
+                    ctx.start.getLine(), ctx.start.getCharPositionInLine());
+            return semanticVisitor.getTipos().of(claseNueva);
         }
-        return className;
+
+        // Buscar constructor
+        Symbol constructorSym = buscarConstructor(claseSym);
+        int actualArgs = ctx.arguments() != null ? ctx.arguments().expression().size() : 0;
+
+        if (constructorSym == null) {
+            if (actualArgs > 0) {
+                semanticVisitor.agregarError(
+                        "Clase '" + claseNueva + "' no tiene constructor definido, no puede recibir argumentos",
+                        ctx.start.getLine(), ctx.start.getCharPositionInLine());
+            }
+        } else {
+            int expectedArgs = constructorSym.getParameterCount();
+
+            if (expectedArgs != actualArgs) {
+                semanticVisitor.agregarError(
+                        "Constructor de '" + claseNueva + "' espera " + expectedArgs +
+                                " argumentos, pero recibe " + actualArgs,
+                        ctx.start.getLine(), ctx.start.getCharPositionInLine());
+            } else {
+                // Validar tipos de argumentos usando getParams()
+                List<Symbol> params = constructorSym.getParams();
+                for (int i = 0; i < expectedArgs; i++) {
+                    Symbol paramSym = params.get(i);
+                    CompiscriptParser.ExpressionContext argExpr = ctx.arguments().expression(i);
+                    Type tipoArg = semanticVisitor.getExpressionType(argExpr);
+
+                    if (tipoArg != semanticVisitor.getTipos().of(paramSym.getType())
+                            && tipoArg != Type.DESCONOCIDO) {
+                        semanticVisitor.agregarError(
+                                "Tipo del argumento " + (i + 1) + " de '" + claseNueva +
+                                        "' esperado: '" + paramSym.getType() +
+                                        "', recibido: '" + tipoArg + "'",
+                                argExpr.start.getLine(),
+                                argExpr.start.getCharPositionInLine());
+                    }
+                }
+            }
+        }
+        return semanticVisitor.getTipos().of(claseNueva); // Retorna el tipo de la clase
     }
 
     // Maneja llamadas a métodos y acceso a propiedades
     @Override
-    public String visitPropertyAccessExpr(CompiscriptParser.PropertyAccessExprContext ctx) {
+    public Type visitPropertyAccessExpr(CompiscriptParser.PropertyAccessExprContext ctx) {
         // Evaluamos la izquierda: el objeto
         ParserRuleContext parent = ctx.getParent();
         Symbol classSym = null;
 
         if (parent instanceof CompiscriptParser.LeftHandSideContext leftCtx) {
-            String leftTipo = visitPrimaryAtom(leftCtx.primaryAtom());
-            classSym = semanticVisitor.getEntornoActual().obtener(leftTipo);
+            Type leftTipo = visitPrimaryAtom(leftCtx.primaryAtom());
+            // El tipo de clase ya está enlazado a su declaración; si no, se busca el nombre en el scope
+            if (leftTipo != null) {
+                classSym = leftTipo.getClase() != null
+                        ? leftTipo.getClase()
+                        : semanticVisitor.getEntornoActual().obtener(leftTipo.getNombre());
+            }
 
             if (classSym == null || classSym.getKind() != Symbol.Kind.CLASS) {
                 semanticVisitor.agregarError(
@@ -657,21 +631,8 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         }
 
         String propName = ctx.Identifier().getText();
-        Symbol propSym = null;
-
-        // Buscar la propiedad en la clase y superclases
-        Symbol currentClass = classSym;
-        while (propSym == null && currentClass != null) {
-            if (currentClass.getMembers().containsKey(propName)) {
-                propSym = currentClass.getMembers().get(propName);
-                break;
-            }
-            if (currentClass.getSuperClass() != null) {
-                currentClass = semanticVisitor.getEntornoActual().obtener(currentClass.getSuperClass());
-            } else {
-                currentClass = null;
-            }
-        }
+        // Buscar la propiedad en la clase y superclases (tabla aplanada de la clase)
+        Symbol propSym = semanticVisitor.getClassesListener().buscarMiembro(classSym, propName);
 
         if (propSym == null) {
             semanticVisitor.agregarError(
@@ -679,27 +640,27 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
                             + "' ni en sus superclases",
                     ctx.start.getLine(),
                     ctx.start.getCharPositionInLine());
-            return "desconocido";
+            return Type.DESCONOCIDO;
         }
 
         semanticVisitor.setLastSymbol(propSym);
 
-        return propSym.getType();
+        return semanticVisitor.getTipos().of(propSym.getType());
     }
 
     // Métodos para manejar la jerarquía de expresiones
     @Override
-    public String visitExprNoAssign(CompiscriptParser.ExprNoAssignContext ctx) {
+    public Type visitExprNoAssign(CompiscriptParser.ExprNoAssignContext ctx) {
         return semanticVisitor.getLogicalVisitor().visit(ctx.conditionalExpr());
     }
 
     @Override
-    public String visitTernaryExpr(CompiscriptParser.TernaryExprContext ctx) {
+    public Type visitTernaryExpr(CompiscriptParser.TernaryExprContext ctx) {
         return semanticVisitor.getLogicalVisitor().visit(ctx.logicalOrExpr());
     }
 
     @Override
-    public String visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
+    public Type visitPrimaryExpr(CompiscriptParser.PrimaryExprContext ctx) {
         if (ctx.literalExpr() != null) {
             return visit(ctx.literalExpr());
         }
@@ -709,15 +670,20 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
         if (ctx.expression() != null) {
             return semanticVisitor.getLogicalVisitor().visit(ctx.expression());
         }
-        return "desconocido";
+        return Type.DESCONOCIDO;
+    }
+
+    // Un arreglo literal vacío se puede asignar a cualquier tipo arreglo
+    private boolean esArregloVacioCompatible(Type destino, Type origen) {
+        return origen == Type.ARREGLO_VACIO && destino != null && destino.esArreglo();
     }
 
-    public String visitAssignExpr(CompiscriptParser.AssignExprContext ctx) {
-        String lhs_type = visit(ctx.lhs);
-        String rhs_type = visit(ctx.assignmentExpr());
+    public Type visitAssignExpr(CompiscriptParser.AssignExprContext ctx) {
+        Type lhs_type = visit(ctx.lhs);
+        Type rhs_type = visit(ctx.assignmentExpr());
 
-        if (!lhs_type.equals(rhs_type)) {
-            if (!(ctx.lhs.getText().contains("[") && rhs_type.equals("array[]"))) {
+        if (lhs_type != rhs_type) {
+            if (!esArregloVacioCompatible(lhs_type, rhs_type)) {
                 semanticVisitor.agregarError(
                         "No se puede inicializar variable '" + ctx.lhs.getText() + "' de tipo '" + lhs_type +
                                 "' con expresión de tipo '" + rhs_type + "'",
@@ -728,7 +694,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
     }
 
     @Override
-    public String visitPropertyAssignExpr(CompiscriptParser.PropertyAssignExprContext ctx) {
+    public Type visitPropertyAssignExpr(CompiscriptParser.PropertyAssignExprContext ctx) {
         // Izquierda: base y miembro
         String baseName = ctx.leftHandSide().getText();
         String memberName = ctx.Identifier().getText();
@@ -739,14 +705,14 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             semanticVisitor.agregarError(
                     "Objeto '" + baseName + "' no declarado",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
         if (baseSym.getKind() != Symbol.Kind.VARIABLE) {
             semanticVisitor.agregarError(
                     "'" + baseName + "' no es un objeto",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
         // Verificar que la clase tiene ese miembro
@@ -756,7 +722,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             semanticVisitor.agregarError(
                     "Clase '" + classType + "' no existe",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
         Symbol memberSym = classSym.getMembers().get(memberName);
@@ -764,16 +730,17 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             semanticVisitor.agregarError(
                     "Miembro '" + memberName + "' no existe en la clase '" + classType + "'",
                     ctx.start.getLine(), ctx.start.getCharPositionInLine());
-            return "ERROR";
+            return Type.ERROR;
         }
 
         // Derecha: evaluar expresión sin llamar a visitPropertyAssignExpr
         // recursivamente
-        String rightType = visit(ctx.assignmentExpr()); // esto está bien mientras ctx.assignmentExpr() no sea otro
+        Type rightType = visit(ctx.assignmentExpr()); // esto está bien mientras ctx.assignmentExpr() no sea otro
                                                         // PropertyAssignExpr anidado directamente
 
         // Validar tipos
-        if (!memberSym.getType().equals(rightType) && !"desconocido".equals(rightType)) {
+        Type tipoMiembro = semanticVisitor.getTipos().of(memberSym.getType());
+        if (tipoMiembro != rightType && rightType != Type.DESCONOCIDO) {
             semanticVisitor.agregarError(
                     "Tipo de '" + memberName + "' (" + memberSym.getType() + ") no coincide con expresión (" + rightType
                             + ")",
@@ -782,7 +749,7 @@ public class VariableVisitor extends CompiscriptBaseVisitor<String> {
             memberSym.setInitialized(true);
         }
 
-        return memberSym.getType();
+        return tipoMiembro;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package com.fmd.additions;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.misc.Utils;
+import org.antlr.v4.runtime.tree.Tree;
+import org.antlr.v4.runtime.tree.Trees;
+
+/**
+ * Versión en Java de additions/AstTreeGenerator.py.
+ * Recibe el árbol directamente (un ParseTree de ANTLR o un AstNode compacto,
+ * sin pasar por toStringTree),
+ * calcula el layout del árbol de arriba hacia abajo con líneas ortogonales
+ * y lo dibuja como SVG o PNG en memoria, sin procesos externos ni archivos.
+ * No guarda estado entre llamadas, así que peticiones concurrentes pueden
+ * compartir una instancia sin mezclar sus imágenes.
+ */
+public class AstTreeGenerator {
+
+    // Medidas del dibujo (en píxeles)
+    private static final int CHAR_WIDTH = 8;      // ancho aproximado de un carácter monoespaciado
+    private static final int NODE_HEIGHT = 28;
+    private static final int NODE_PADDING = 12;   // relleno horizontal dentro del nodo
+    private static final int NODE_SEP = 18;       // separación horizontal entre subárboles (nodesep)
+    private static final int RANK_SEP = 56;       // separación vertical entre niveles (ranksep)
+    private static final int MARGIN = 20;
+    private static final int FONT_SIZE = 13;
+
+    // Límite de píxeles del PNG; árboles más grandes se escalan para no agotar el heap
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private final List<String> ruleNames;
+
+    public AstTreeGenerator(Parser parser) {
+        this(Arrays.asList(parser.getRuleNames()));
+    }
+
+    public AstTreeGenerator(List<String> ruleNames) {
+        this.ruleNames = ruleNames;
+    }
+
+    // ---------------------------
+    // 1. Nodo con posición
+    // ---------------------------
+    public static class Node {
+        private final String label;
+        private final List<Node> children = new ArrayList<>();
+        private final int width;
+        private int subtreeWidth;
+        private int x;      // centro horizontal
+        private int depth;
+
+        Node(String label) {
+            this.label = label;
+            this.width = label.length() * CHAR_WIDTH + 2 * NODE_PADDING;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return MARGIN + depth * (NODE_HEIGHT + RANK_SEP);
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    /** Resultado del layout: raíz posicionada y dimensiones totales del dibujo. */
+    public static class Layout {
+        private final Node root;
+        private final int width;
+        private final int height;
+        private final int nodeCount;
+
+        Layout(Node root, int width, int height, int nodeCount) {
+            this.root = root;
+            this.width = width;
+            this.height = height;
+            this.nodeCount = nodeCount;
+        }
+
+        public Node getRoot() {
+            return root;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getNodeCount() {
+            return nodeCount;
+        }
+    }
+
+    // ---------------------------
+    // 2. Construir y posicionar el árbol
+    // ---------------------------
+    public Layout layout(Tree tree) {
+        int[] stats = new int[2]; // [0] = cantidad de nodos, [1] = profundidad máxima
+        Node root = build(tree, 0, stats);
+        measure(root);
+        place(root, MARGIN);
+
+        int width = root.subtreeWidth + 2 * MARGIN;
+        int height = (stats[1] + 1) * (NODE_HEIGHT + RANK_SEP) - RANK_SEP + 2 * MARGIN;
+        return new Layout(root, width, height, stats[0]);
+    }
+
+    private Node build(Tree tree, int depth, int[] stats) {
+        Node node = new Node(Utils.escapeWhitespace(Trees.getNodeText(tree, ruleNames), false));
+        node.depth = depth;
+        stats[0]++;
+        stats[1] = Math.max(stats[1], depth);
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            node.children.add(build(tree.getChild(i), depth + 1, stats));
+        }
+        return node;
+    }
+
+    // Ancho del subárbol: el mayor entre la etiqueta propia y la suma de los hijos
+    private void measure(Node node) {
+        int childrenWidth = 0;
+        for (Node child : node.children) {
+            measure(child);
+            childrenWidth += child.subtreeWidth;
+        }
+        if (!node.children.isEmpty()) {
+            childrenWidth += NODE_SEP * (node.children.size() - 1);
+        }
+        node.subtreeWidth = Math.max(node.width, childrenWidth);
+    }
+
+    // Reparte el bloque [left, left + subtreeWidth) entre los hijos y centra al padre
+    private void place(Node node, int left) {
+        node.x = left + node.subtreeWidth / 2;
+        if (node.children.isEmpty()) {
+            return;
+        }
+        int childrenWidth = NODE_SEP * (node.children.size() - 1);
+        for (Node child : node.children) {
+            childrenWidth += child.subtreeWidth;
+        }
+        int cursor = left + (node.subtreeWidth - childrenWidth) / 2;
+        for (Node child : node.children) {
+            place(child, cursor);
+            cursor += child.subtreeWidth + NODE_SEP;
+        }
+    }
+
+    // ---------------------------
+    // 3. Dibujar como SVG
+    // ---------------------------
+    public String toSvg(Tree tree) {
+        Layout layout = layout(tree);
+        StringBuilder sb = new StringBuilder();
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(layout.width)
+                .append("\" height=\"").append(layout.height).append("\" font-family=\"monospace\" font-size=\"")
+                .append(FONT_SIZE).append("\">\n");
+        sb.append("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+        appendSvg(layout.root, sb);
+        sb.append("</svg>\n");
+        return sb.toString();
+    }
+
+    private void appendSvg(Node node, StringBuilder sb) {
+        int top = node.getY();
+        for (Node child : node.children) {
+            int midY = top + NODE_HEIGHT + RANK_SEP / 2;
+            sb.append("<polyline fill=\"none\" stroke=\"black\" points=\"")
+                    .append(node.x).append(',').append(top + NODE_HEIGHT).append(' ')
+                    .append(node.x).append(',').append(midY).append(' ')
+                    .append(child.x).append(',').append(midY).append(' ')
+                    .append(child.x).append(',').append(child.getY()).append("\"/>\n");
+        }
+        sb.append("<ellipse cx=\"").append(node.x).append("\" cy=\"").append(top + NODE_HEIGHT / 2)
+                .append("\" rx=\"").append(node.width / 2).append("\" ry=\"").append(NODE_HEIGHT / 2)
+                .append("\" fill=\"white\" stroke=\"black\"/>\n");
+        sb.append("<text x=\"").append(node.x).append("\" y=\"").append(top + NODE_HEIGHT / 2 + FONT_SIZE / 3)
+                .append("\" text-anchor=\"middle\">").append(escapeXml(node.label)).append("</text>\n");
+        for (Node child : node.children) {
+            appendSvg(child, sb);
+        }
+    }
+
+    private static String escapeXml(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------
+    // 4. Dibujar como PNG
+    // ---------------------------
+    /**
+     * Escribe el PNG directamente en el flujo de la petición. Usa una caché en
+     * memoria para ImageIO: con la caché por defecto ImageIO puede crear archivos
+     * temporales compartidos en java.io.tmpdir.
+     */
+    public void writePng(Tree tree, OutputStream out) throws IOException {
+        BufferedImage image = render(layout(tree));
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(image);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    public byte[] toPng(Tree tree) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writePng(tree, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public String toBase64Png(Tree tree) {
+        // El PNG se codifica mientras se escribe, sin copiar el arreglo de bytes intermedio
+        ByteArrayOutputStream base64 = new ByteArrayOutputStream();
+        try (OutputStream out = Base64.getEncoder().wrap(base64)) {
+            writePng(tree, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return base64.toString(StandardCharsets.US_ASCII);
+    }
+
+    private BufferedImage render(Layout layout) {
+        double scale = 1.0;
+        long pixels = (long) layout.width * layout.height;
+        if (pixels > MAX_PIXELS) {
+            scale = Math.sqrt((double) MAX_PIXELS / pixels);
+        }
+        int width = Math.max(1, (int) Math.ceil(layout.width * scale));
+        int height = Math.max(1, (int) Math.ceil(layout.height * scale));
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.scale(scale, scale);
+            g.setStroke(new BasicStroke(1f));
+            g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, FONT_SIZE));
+            draw(layout.root, g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private void draw(Node node, Graphics2D g) {
+        int top = node.getY();
+        g.setColor(Color.BLACK);
+        for (Node child : node.children) {
+            int midY = top + NODE_HEIGHT + RANK_SEP / 2;
+            g.drawLine(node.x, top + NODE_HEIGHT, node.x, midY);
+            g.drawLine(node.x, midY, child.x, midY);
+            g.drawLine(child.x, midY, child.x, child.getY());
+        }
+
+        int left = node.x - node.width / 2;
+        g.setColor(Color.WHITE);
+        g.fillOval(left, top, node.width, NODE_HEIGHT);
+        g.setColor(Color.BLACK);
+        g.drawOval(left, top, node.width, NODE_HEIGHT);
+        int textWidth = g.getFontMetrics().stringWidth(node.label);
+        g.drawString(node.label, node.x - textWidth / 2, top + NODE_HEIGHT / 2 + FONT_SIZE / 3);
+
+        for (Node child : node.children) {
+            draw(child, g);
+        }
+    }
+}
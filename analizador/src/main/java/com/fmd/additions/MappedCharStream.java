@@ -0,0 +1,188 @@
+package com.fmd.additions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * CharStream de ANTLR sobre un archivo UTF-8 mapeado en memoria. A diferencia
+ * de Files.readString + CharStreams.fromString, el contenido no se copia al
+ * heap: el lexer lee los bytes del mapeo y decodifica cada carácter al vuelo.
+ *
+ * Los índices del stream son posiciones en bytes. Cada consume() avanza lo que
+ * ocupa el carácter actual, así que un token siempre empieza y termina en un
+ * límite de carácter y getText() solo tiene que decodificar ese rango.
+ */
+public class MappedCharStream implements CharStream {
+
+    private static final int REEMPLAZO = 0xFFFD;
+
+    private final ByteBuffer bytes;
+    private final int size;
+    private final String sourceName;
+    private int p;
+
+    public MappedCharStream(ByteBuffer bytes, String sourceName) {
+        this.bytes = bytes;
+        this.size = bytes.limit();
+        this.sourceName = sourceName;
+    }
+
+    public static MappedCharStream fromPath(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long largo = canal.size();
+            if (largo > Integer.MAX_VALUE) {
+                throw new IOException("El archivo excede 2 GB y no se puede mapear: " + archivo);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, largo);
+            return new MappedCharStream(mapeo, archivo.toString());
+        }
+    }
+
+    // ---------------------------
+    // Decodificación UTF-8
+    // ---------------------------
+    private int byte0(int i) {
+        return bytes.get(i) & 0xFF;
+    }
+
+    // Bytes que ocupa el carácter que empieza en i (1 si la secuencia es inválida)
+    private int largo(int i) {
+        int b = byte0(i);
+        // 0x80-0xC1 y 0xF5-0xFF nunca empiezan una secuencia válida
+        int n = b < 0xC2 || b > 0xF4 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+        if (n > 1) {
+            if (i + n > size) {
+                return 1;
+            }
+            for (int k = 1; k < n; k++) {
+                if ((byte0(i + k) & 0xC0) != 0x80) {
+                    return 1;
+                }
+            }
+        }
+        return n;
+    }
+
+    private int decodificar(int i) {
+        int b = byte0(i);
+        if (b < 0x80) {
+            return b;
+        }
+        switch (largo(i)) {
+            case 2:
+                return (b & 0x1F) << 6 | (byte0(i + 1) & 0x3F);
+            case 3:
+                return (b & 0x0F) << 12 | (byte0(i + 1) & 0x3F) << 6 | (byte0(i + 2) & 0x3F);
+            case 4:
+                return (b & 0x07) << 18 | (byte0(i + 1) & 0x3F) << 12 | (byte0(i + 2) & 0x3F) << 6
+                        | (byte0(i + 3) & 0x3F);
+            default:
+                return REEMPLAZO;
+        }
+    }
+
+    // Inicio del carácter anterior a i, saltando bytes de continuación
+    private int anterior(int i) {
+        int j = i - 1;
+        int limite = Math.max(0, i - 4);
+        while (j > limite && (byte0(j) & 0xC0) == 0x80) {
+            j--;
+        }
+        return j + largo(j) == i ? j : i - 1;
+    }
+
+    // ---------------------------
+    // IntStream / CharStream
+    // ---------------------------
+    @Override
+    public void consume() {
+        if (p >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        p += largo(p);
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int pos = p;
+        if (i > 0) {
+            for (int k = 1; k < i; k++) {
+                if (pos >= size) {
+                    return IntStream.EOF;
+                }
+                pos += largo(pos);
+            }
+            return pos >= size ? IntStream.EOF : decodificar(pos);
+        }
+        for (int k = 0; k > i; k--) {
+            if (pos <= 0) {
+                return IntStream.EOF;
+            }
+            pos = anterior(pos);
+        }
+        return decodificar(pos);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return p;
+    }
+
+    @Override
+    public void seek(int index) {
+        p = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName != null && !sourceName.isEmpty() ? sourceName : IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int inicio = Math.max(0, interval.a);
+        if (inicio >= size) {
+            return "";
+        }
+        // b es el último byte del token: el rango termina donde empieza el siguiente carácter
+        int fin = Math.min(size, interval.b + 1);
+        if (fin <= inicio) {
+            return "";
+        }
+        byte[] texto = new byte[fin - inicio];
+        bytes.get(inicio, texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+}
@@ -0,0 +1,178 @@
+package com.fmd.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fmd.modules.CompilationResult;
+
+/**
+ * Caché de resultados de compilación direccionada por contenido: la llave es
+ * el SHA-256 del código fuente. Tiene un presupuesto en bytes, desaloja en
+ * orden LRU y usa un filtro de admisión estilo TinyLFU para que programas
+ * enviados una sola vez no saquen de la caché a los que se repiten.
+ */
+@Component
+public class CompilationCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true); // orden de acceso
+    private final FrequencySketch frecuencias = new FrequencySketch(1024);
+
+    private long bytesUsados;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rechazos;
+
+    private static class Entrada {
+        private final CompilationResult resultado;
+        private final long bytes;
+
+        Entrada(CompilationResult resultado, long bytes) {
+            this.resultado = resultado;
+            this.bytes = bytes;
+        }
+    }
+
+    public CompilationCache(@Value("${compilador.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Llave de la caché: SHA-256 en hexadecimal del código fuente. */
+    public static String hash(String codigo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(codigo.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public synchronized CompilationResult get(String llave) {
+        frecuencias.incrementar(llave);
+        Entrada entrada = entradas.get(llave);
+        if (entrada == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entrada.resultado;
+    }
+
+    public synchronized void put(String llave, CompilationResult resultado) {
+        long bytes = resultado.estimarBytes() + llave.length();
+        if (bytes > maxBytes) {
+            rechazos++;
+            return;
+        }
+
+        Entrada anterior = entradas.remove(llave);
+        if (anterior != null) {
+            bytesUsados -= anterior.bytes;
+        }
+
+        // Admisión TinyLFU: un candidato nuevo solo entra si es al menos tan frecuente como las víctimas
+        int frecuenciaCandidato = frecuencias.estimar(llave);
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        long liberables = 0;
+        while (anterior == null && bytesUsados - liberables + bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entrada> victima = it.next();
+            if (frecuencias.estimar(victima.getKey()) > frecuenciaCandidato) {
+                rechazos++;
+                return;
+            }
+            liberables += victima.getValue().bytes;
+        }
+
+        Iterator<Entrada> lru = entradas.values().iterator();
+        while (bytesUsados + bytes > maxBytes && lru.hasNext()) {
+            bytesUsados -= lru.next().bytes;
+            lru.remove();
+            evictions++;
+        }
+
+        entradas.put(llave, new Entrada(resultado, bytes));
+        bytesUsados += bytes;
+    }
+
+    public synchronized void clear() {
+        entradas.clear();
+        bytesUsados = 0;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entradas.size());
+        stats.put("bytes", bytesUsados);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("rejections", rechazos);
+        return stats;
+    }
+
+    /**
+     * Sketch Count-Min de 4 filas con envejecimiento: cada cierto número de
+     * incrementos todos los contadores se dividen entre dos, así la frecuencia
+     * refleja el uso reciente y no todo el historial.
+     */
+    static class FrequencySketch {
+        private static final int FILAS = 4;
+        private static final int[] SEMILLAS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+        private final int[][] tabla;
+        private final int mascara;
+        private final int tamanoMuestra;
+        private int incrementos;
+
+        FrequencySketch(int ancho) {
+            int potencia = Integer.highestOneBit(Math.max(16, ancho - 1) << 1);
+            this.tabla = new int[FILAS][potencia];
+            this.mascara = potencia - 1;
+            this.tamanoMuestra = potencia * 10;
+        }
+
+        void incrementar(String llave) {
+            int h = llave.hashCode();
+            for (int fila = 0; fila < FILAS; fila++) {
+                tabla[fila][indice(h, fila)]++;
+            }
+            if (++incrementos >= tamanoMuestra) {
+                envejecer();
+            }
+        }
+
+        int estimar(String llave) {
+            int h = llave.hashCode();
+            int minimo = Integer.MAX_VALUE;
+            for (int fila = 0; fila < FILAS; fila++) {
+                minimo = Math.min(minimo, tabla[fila][indice(h, fila)]);
+            }
+            return minimo;
+        }
+
+        private int indice(int h, int fila) {
+            int mezcla = (h ^ SEMILLAS[fila]) * SEMILLAS[(fila + 1) % FILAS];
+            return (mezcla ^ (mezcla >>> 16)) & mascara;
+        }
+
+        private void envejecer() {
+            for (int[] fila : tabla) {
+                for (int i = 0; i < fila.length; i++) {
+                    fila[i] >>>= 1;
+                }
+            }
+            incrementos /= 2;
+        }
+    }
+}
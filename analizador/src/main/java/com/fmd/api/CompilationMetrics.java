@@ -0,0 +1,107 @@
+package com.fmd.api;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fmd.modules.TwoStageParser;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas del pipeline de compilación, publicadas en Micrometer
+ * (/actuator/metrics). Los medidores se registran una sola vez en el
+ * constructor para que registrar una compilación no haga búsquedas en el
+ * registro.
+ *
+ * - compilador.fase{fase=...}: latencia por fase, con percentiles e histograma.
+ * - compilador.compilacion{resultado=...}: latencia total; su conteo es el throughput.
+ * - compilador.parser.etapa{etapa=sll|ll}: cuántos parseos resolvió SLL y cuántos requirieron LL.
+ * - compilador.tokens / nodos / scopes / simbolos / errores: tamaño de cada petición.
+ */
+public class CompilationMetrics {
+
+    public enum Fase {
+        LEXER, PARSER, SEMANTICO, SIMBOLOS, IMAGEN
+    }
+
+    public enum Resultado {
+        OK, CON_ERRORES, SINTAXIS, PRESUPUESTO, FALLO
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Map<Fase, Timer> fases = new EnumMap<>(Fase.class);
+    private final Map<Resultado, Timer> compilaciones = new EnumMap<>(Resultado.class);
+    private final DistributionSummary tokens;
+    private final DistributionSummary nodos;
+    private final DistributionSummary scopes;
+    private final DistributionSummary simbolos;
+    private final DistributionSummary errores;
+    private final Counter erroresTotales;
+    private final Map<TwoStageParser.Etapa, Counter> etapas = new EnumMap<>(TwoStageParser.Etapa.class);
+
+    public CompilationMetrics(MeterRegistry registro) {
+        for (Fase fase : Fase.values()) {
+            fases.put(fase, Timer.builder("compilador.fase")
+                    .description("Tiempo de cada fase del pipeline de compilación")
+                    .tag("fase", fase.name().toLowerCase())
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registro));
+        }
+        for (Resultado resultado : Resultado.values()) {
+            compilaciones.put(resultado, Timer.builder("compilador.compilacion")
+                    .description("Tiempo total de una compilación")
+                    .tag("resultado", resultado.name().toLowerCase())
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registro));
+        }
+        tokens = resumen(registro, "compilador.tokens", "Tokens por compilación");
+        nodos = resumen(registro, "compilador.nodos", "Nodos del árbol sintáctico por compilación");
+        scopes = resumen(registro, "compilador.scopes", "Scopes creados por compilación");
+        simbolos = resumen(registro, "compilador.simbolos", "Símbolos exportados por compilación");
+        errores = resumen(registro, "compilador.errores", "Errores semánticos por compilación");
+        erroresTotales = Counter.builder("compilador.errores.total")
+                .description("Errores semánticos reportados")
+                .register(registro);
+        for (TwoStageParser.Etapa etapa : TwoStageParser.Etapa.values()) {
+            etapas.put(etapa, Counter.builder("compilador.parser.etapa")
+                    .description("Etapa del parser (SLL o LL completo) que produjo el árbol")
+                    .tag("etapa", etapa.name().toLowerCase())
+                    .register(registro));
+        }
+    }
+
+    private static DistributionSummary resumen(MeterRegistry registro, String nombre, String descripcion) {
+        return DistributionSummary.builder(nombre)
+                .description(descripcion)
+                .publishPercentiles(PERCENTILES)
+                .register(registro);
+    }
+
+    public void fase(Fase fase, long nanos) {
+        fases.get(fase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void compilacion(Resultado resultado, long nanos) {
+        compilaciones.get(resultado).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void etapaParser(TwoStageParser.Etapa etapa) {
+        etapas.get(etapa).increment();
+    }
+
+    public void tamanio(int numTokens, long numNodos, int numScopes, int numSimbolos, int numErrores) {
+        tokens.record(numTokens);
+        nodos.record(numNodos);
+        scopes.record(numScopes);
+        simbolos.record(numSimbolos);
+        errores.record(numErrores);
+        erroresTotales.increment(numErrores);
+    }
+}
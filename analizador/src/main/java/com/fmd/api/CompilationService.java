@@ -0,0 +1,316 @@
+package com.fmd.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.Tree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fmd.CompiscriptParser;
+import com.fmd.SemanticVisitor;
+import com.fmd.additions.AstTreeGenerator;
+import com.fmd.modules.BudgetLexer;
+import com.fmd.modules.BudgetParseListener;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.IdentifierTokenFactory;
+import com.fmd.modules.IncrementalParser;
+import com.fmd.modules.Interner;
+import com.fmd.modules.SemanticError;
+import com.fmd.modules.SimboloExportado;
+import com.fmd.modules.SyntaxErrorListener;
+import com.fmd.modules.TwoStageParser;
+
+/**
+ * Pipeline de compilación compartido por los controladores REST:
+ * lexer → parser → SemanticVisitor → símbolos → imagen.
+ * Si hay errores de sintaxis el pipeline se detiene después del parser.
+ *
+ * Los CompiscriptLexer/CompiscriptParser no se crean por petición: se toman
+ * de un pool de instancias ya construidas y se reinician con setInputStream /
+ * setTokenStream. El ATN y la caché DFA del parser son estáticos en las clases
+ * generadas por ANTLR, así que todas las instancias comparten lo ya aprendido.
+ *
+ * Cada compilación registra el tiempo de sus fases y su tamaño en
+ * CompilationMetrics.
+ */
+@Service
+public class CompilationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompilationService.class);
+
+    /** Recibe los resultados parciales de una compilación conforme se producen. */
+    public interface EscuchaCompilacion {
+        default void alEncontrarError(SemanticError error) {
+        }
+
+        default void alExportarSimbolos(List<Map<String, Object>> simbolos) {
+        }
+    }
+
+    public static final EscuchaCompilacion SIN_ESCUCHA = new EscuchaCompilacion() {
+    };
+
+    private static final CharStream ENTRADA_VACIA = CharStreams.fromString("");
+    private static final AstTreeGenerator GENERADOR_AST =
+            new AstTreeGenerator(Arrays.asList(CompiscriptParser.ruleNames));
+
+    private final long limiteMillis;
+    private final long limiteNodos;
+    private final int maxPool;
+    private final ConcurrentLinkedDeque<Infraestructura> pool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger enPool = new AtomicInteger();
+    private final CompilationMetrics metricas;
+
+    @Value("${compilador.parser.dos-etapas:true}")
+    private boolean dosEtapas = true;
+
+    @Value("${compilador.sintaxis.max-errores:25}")
+    private int maxErroresSintaxis = 25;
+
+    @Value("${compilador.debug.imprimir-scopes:false}")
+    private boolean imprimirScopes;
+
+    @Autowired
+    public CompilationService(@Value("${compilador.limite.tiempo-ms:5000}") long limiteMillis,
+                              @Value("${compilador.limite.nodos:2000000}") long limiteNodos,
+                              MeterRegistry registro) {
+        this.limiteMillis = limiteMillis;
+        this.limiteNodos = limiteNodos;
+        this.maxPool = Runtime.getRuntime().availableProcessors() * 2;
+        this.metricas = new CompilationMetrics(registro);
+    }
+
+    // Sin Spring (CLI, pruebas): las métricas quedan en un registro local
+    public CompilationService(long limiteMillis, long limiteNodos) {
+        this(limiteMillis, limiteNodos, new SimpleMeterRegistry());
+    }
+
+    // ---------------------------
+    // Infraestructura ANTLR reutilizable
+    // ---------------------------
+    private static class Infraestructura {
+        private final BudgetLexer lexer = new BudgetLexer(ENTRADA_VACIA);
+        private final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        private final CompiscriptParser parser = new CompiscriptParser(tokens);
+        private final BudgetParseListener listener = new BudgetParseListener();
+
+        Infraestructura() {
+            parser.addParseListener(listener);
+        }
+
+        void preparar(String code, CompilationBudget presupuesto, SyntaxErrorListener sintaxis, Interner nombres) {
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(sintaxis);
+            parser.removeErrorListeners();
+            parser.addErrorListener(sintaxis);
+            lexer.setPresupuesto(presupuesto);
+            listener.setPresupuesto(presupuesto);
+            lexer.setTokenFactory(new IdentifierTokenFactory(nombres));
+            lexer.setInputStream(CharStreams.fromString(code));
+            tokens.setTokenSource(lexer);
+            parser.setTokenStream(tokens);
+        }
+
+        // Suelta las referencias al programa anterior para no retenerlo en el pool
+        void limpiar() {
+            lexer.removeErrorListeners();
+            parser.removeErrorListeners();
+            lexer.setPresupuesto(CompilationBudget.ILIMITADO);
+            listener.setPresupuesto(CompilationBudget.ILIMITADO);
+            lexer.setTokenFactory(CommonTokenFactory.DEFAULT);
+            lexer.setInputStream(ENTRADA_VACIA);
+            tokens.setTokenSource(lexer);
+            parser.setTokenStream(tokens);
+        }
+    }
+
+    private Infraestructura tomar() {
+        Infraestructura infra = pool.pollFirst();
+        if (infra == null) {
+            infra = new Infraestructura();
+        } else {
+            enPool.decrementAndGet();
+        }
+        return infra;
+    }
+
+    private void devolver(Infraestructura infra) {
+        infra.limpiar();
+        if (enPool.incrementAndGet() <= maxPool) {
+            pool.offerFirst(infra);
+        } else {
+            enPool.decrementAndGet();
+        }
+    }
+
+    // ---------------------------
+    // Pipeline
+    // ---------------------------
+    public CompilationBudget nuevoPresupuesto() {
+        return new CompilationBudget(limiteMillis, limiteNodos);
+    }
+
+    public CompilationResult compilar(String code) {
+        return compilar(code, true, SIN_ESCUCHA, nuevoPresupuesto());
+    }
+
+    public CompilationResult compilar(String code, boolean conImagen, EscuchaCompilacion escucha,
+                                      CompilationBudget presupuesto) {
+        long inicio = System.nanoTime();
+        CompilationMetrics.Resultado desenlace = CompilationMetrics.Resultado.FALLO;
+        Infraestructura infra = tomar();
+        try {
+            // 1. Reiniciar lexer y parser con el nuevo código
+            SyntaxErrorListener sintaxis = new SyntaxErrorListener(maxErroresSintaxis, escucha::alEncontrarError);
+            Interner nombres = new Interner(); // compartido por el lexer y las tablas de símbolos
+            infra.preparar(code, presupuesto, sintaxis, nombres);
+
+            // 2. Tokenizar todo antes de parsear, para medir cada fase por separado
+            long marca = System.nanoTime();
+            TwoStageParser.Resultado parseo = null;
+            try {
+                infra.tokens.fill();
+                marca = medir(CompilationMetrics.Fase.LEXER, marca);
+
+                // 3. Parsear (SLL y, solo si falla, LL completo)
+                parseo = dosEtapas
+                        ? TwoStageParser.parsear(infra.parser, infra.listener::descartarConteo)
+                        : TwoStageParser.parsearLL(infra.parser);
+                marca = medir(CompilationMetrics.Fase.PARSER, marca);
+                metricas.etapaParser(parseo.getEtapa());
+            } catch (ParseCancellationException e) {
+                // SyntaxErrorListener alcanzó el máximo de errores y canceló el parseo
+            }
+
+            // Con errores de sintaxis el árbol está incompleto: no se hace análisis semántico ni imagen
+            if (sintaxis.hayErrores()) {
+                escucha.alExportarSimbolos(List.of());
+                desenlace = CompilationMetrics.Resultado.SINTAXIS;
+                return new CompilationResult(sintaxis.getErrores(), List.of(), null,
+                        parseo != null ? parseo.getEtapa().name() : null);
+            }
+            CompilationResult resultado = analizarArbol(parseo.getArbol(), parseo.getEtapa().name(),
+                    infra.tokens.size(), infra.listener.getNodos(), nombres, conImagen, escucha, presupuesto, marca);
+            desenlace = resultado.getErrores().isEmpty()
+                    ? CompilationMetrics.Resultado.OK : CompilationMetrics.Resultado.CON_ERRORES;
+            return resultado;
+        } catch (CompilationBudget.BudgetExceededException e) {
+            desenlace = CompilationMetrics.Resultado.PRESUPUESTO;
+            throw e;
+        } finally {
+            metricas.compilacion(desenlace, System.nanoTime() - inicio);
+            devolver(infra);
+        }
+    }
+
+    /**
+     * Reparseo incremental para el IDE: solo se vuelven a parsear las sentencias
+     * de primer nivel que tocó la edición (ver IncrementalParser). El presupuesto
+     * es el mismo que luego recibe compilarIncremental().
+     */
+    public IncrementalParser.Resultado reparsear(IncrementalParser.Documento previo, String code,
+                                                 EscuchaCompilacion escucha, CompilationBudget presupuesto) {
+        long marca = System.nanoTime();
+        IncrementalParser.Resultado parseo = new IncrementalParser(maxErroresSintaxis)
+                .parsear(previo, code, escucha::alEncontrarError, presupuesto);
+        medir(CompilationMetrics.Fase.PARSER, marca);
+        return parseo;
+    }
+
+    /** Análisis semántico, símbolos e imagen sobre el resultado de reparsear(). */
+    public CompilationResult compilarIncremental(IncrementalParser.Resultado parseo, boolean conImagen,
+                                                 EscuchaCompilacion escucha, CompilationBudget presupuesto) {
+        long inicio = System.nanoTime();
+        CompilationMetrics.Resultado desenlace = CompilationMetrics.Resultado.FALLO;
+        String etapa = parseo.getEtapa() != null ? parseo.getEtapa().name() : null;
+        try {
+            if (parseo.getArbol() == null) {
+                escucha.alExportarSimbolos(List.of());
+                desenlace = CompilationMetrics.Resultado.SINTAXIS;
+                return new CompilationResult(parseo.getErroresSintaxis(), List.of(), null, etapa);
+            }
+            CompilationResult resultado = analizarArbol(parseo.getArbol(), etapa, parseo.getTokensLexeados(),
+                    parseo.getNodos(),
+                    parseo.getNombres(), conImagen, escucha, presupuesto, System.nanoTime());
+            desenlace = resultado.getErrores().isEmpty()
+                    ? CompilationMetrics.Resultado.OK : CompilationMetrics.Resultado.CON_ERRORES;
+            return resultado;
+        } catch (CompilationBudget.BudgetExceededException e) {
+            desenlace = CompilationMetrics.Resultado.PRESUPUESTO;
+            throw e;
+        } finally {
+            metricas.compilacion(desenlace, System.nanoTime() - inicio);
+        }
+    }
+
+    // Fases posteriores al parser, comunes a la compilación completa y a la incremental
+    private CompilationResult analizarArbol(ParseTree tree, String etapa, int numTokens, long numNodos,
+                                            Interner nombres, boolean conImagen, EscuchaCompilacion escucha,
+                                            CompilationBudget presupuesto, long marca) {
+        // 4. Semántico
+        SemanticVisitor visitor = new SemanticVisitor(nombres);
+        visitor.setEscuchaErrores(escucha::alEncontrarError);
+        visitor.setPresupuesto(presupuesto);
+        visitor.visit(tree);
+        marca = medir(CompilationMetrics.Fase.SEMANTICO, marca);
+
+        if (imprimirScopes) {
+            System.out.println("===== TABLAS DE SÍMBOLOS POR SCOPE =====");
+            visitor.getRaiz().imprimirScopes("");
+            System.out.println("========================================");
+        }
+
+        // 5. Guardar errores y símbolos
+        List<SemanticError> errores = visitor.getErrores();
+        // Una pasada por el árbol de scopes; los símbolos ocultos se conservan con su scope
+        List<Map<String, Object>> simbolos = new ArrayList<>();
+        int numScopes = visitor.getRaiz().recorrerSimbolos(
+                (entorno, sym) -> simbolos.add(new SimboloExportado(sym, entorno.getId())));
+        escucha.alExportarSimbolos(simbolos);
+        marca = medir(CompilationMetrics.Fase.SIMBOLOS, marca);
+
+        metricas.tamanio(numTokens, numNodos, numScopes, simbolos.size(), errores.size());
+        presupuesto.revisarReloj();
+
+        // 6. Generar imagen del AST en memoria
+        String base64Img = null;
+        if (conImagen) {
+            base64Img = generarImagen(tree);
+            medir(CompilationMetrics.Fase.IMAGEN, marca);
+        }
+
+        return new CompilationResult(errores, simbolos, base64Img, etapa);
+    }
+
+    private long medir(CompilationMetrics.Fase fase, long desde) {
+        long ahora = System.nanoTime();
+        metricas.fase(fase, ahora - desde);
+        return ahora;
+    }
+
+    public static String generarImagen(Tree tree) {
+        try {
+            return GENERADOR_AST.toBase64Png(tree);
+        } catch (Exception e) {
+            log.error("No se pudo generar la imagen del AST", e);
+            return null;
+        }
+    }
+}
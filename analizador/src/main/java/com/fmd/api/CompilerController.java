@@ -3,12 +3,22 @@ package com.fmd.api;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.SemanticError;
+
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/compiler")
 public class CompilerController {
 
+    private final CompilationService compilador;
+
+    public CompilerController(CompilationService compilador) {
+        this.compilador = compilador;
+    }
+
     @PostMapping("/compile")
     public ResponseEntity<Map<String, Object>> compile(@RequestBody Map<String, String> request) {
         String code = request.get("code");
@@ -16,8 +26,16 @@ public class CompilerController {
         List<String> errors = new ArrayList<>();
         if (code == null || code.trim().isEmpty()) {
             errors.add("El código está vacío");
-        } else if (code.contains("error")) {
-            errors.add("Se encontró la palabra 'error' en el código.");
+        } else {
+            try {
+                CompilationResult resultado = compilador.compilar(code, false, CompilationService.SIN_ESCUCHA,
+                        compilador.nuevoPresupuesto());
+                for (SemanticError error : resultado.getErrores()) {
+                    errors.add(error.toString());
+                }
+            } catch (CompilationBudget.BudgetExceededException e) {
+                errors.add(e.toSemanticError().toString());
+            }
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,45 @@
+package com.fmd.api;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CompilerExecutors {
+
+    /**
+     * Pool work-stealing para compilaciones por lotes. El paralelismo queda
+     * acotado para que un lote grande no acapare todos los núcleos del servidor.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool batchPool(@Value("${compilador.batch.parallelism:0}") int parallelism) {
+        int hilos = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(hilos);
+    }
+
+    /**
+     * Hilos para las compilaciones que responden en streaming: el hilo de la
+     * petición se libera en cuanto se abre el stream y el análisis corre aquí.
+     * En JVMs con hilos virtuales (Java 21+) se usa un hilo virtual por tarea;
+     * en Java 17 se usa un pool fijo.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService streamExecutor(@Value("${compilador.stream.threads:0}") int threads) {
+        int hilos = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return hilosVirtualesOFijos(hilos);
+    }
+
+    static ExecutorService hilosVirtualesOFijos(int hilos) {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(hilos);
+        }
+    }
+}
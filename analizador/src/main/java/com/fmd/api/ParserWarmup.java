@@ -0,0 +1,154 @@
+package com.fmd.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.fmd.CompiscriptLexer;
+import com.fmd.CompiscriptParser;
+import com.fmd.modules.CompilationBudget;
+
+/**
+ * Calentamiento del parser al arrancar. La caché DFA de CompiscriptParser y
+ * CompiscriptLexer es estática y empieza vacía en cada despliegue, así que las
+ * primeras peticiones pagan la predicción completa sobre el ATN. Antes de que el
+ * servidor se declare listo se compila un corpus de programas .cps de ejemplo
+ * con el mismo CompilationService que usan los controladores.
+ *
+ * Se ejecuta como ApplicationRunner: Spring Boot solo publica
+ * ReadinessState.ACCEPTING_TRAFFIC después de que terminan los runners.
+ */
+@Component
+public class ParserWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ParserWarmup.class);
+
+    private final CompilationService compilador;
+    private final ApplicationEventPublisher eventos;
+    private final List<String> corpus;
+    private final int iteraciones;
+    private final boolean habilitado;
+
+    private volatile boolean listo;
+    private volatile int programas;
+    private volatile long millis;
+    private volatile int estadosParserAntes;
+    private volatile int estadosParser;
+    private volatile int estadosLexer;
+
+    public ParserWarmup(CompilationService compilador, ApplicationEventPublisher eventos,
+                        @Value("${compilador.warmup.corpus:com/fmd/program.cps,com/fmd/logic_tests.cps,"
+                                + "com/fmd/comparison_test.cps,com/fmd/pruebas_variables_artimeticas.cps}")
+                        List<String> corpus,
+                        @Value("${compilador.warmup.iteraciones:2}") int iteraciones,
+                        @Value("${compilador.warmup.habilitado:true}") boolean habilitado) {
+        this.compilador = compilador;
+        this.eventos = eventos;
+        this.corpus = corpus;
+        this.iteraciones = iteraciones;
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        calentar();
+    }
+
+    public void calentar() {
+        if (eventos != null) {
+            AvailabilityChangeEvent.publish(eventos, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+        estadosParserAntes = contarEstados(parserDfa());
+
+        long inicio = System.nanoTime();
+        int compilados = 0;
+        if (habilitado) {
+            List<String> programasCorpus = cargarCorpus();
+            for (int i = 0; i < iteraciones; i++) {
+                for (String codigo : programasCorpus) {
+                    try {
+                        compilador.compilar(codigo, false, CompilationService.SIN_ESCUCHA, CompilationBudget.ILIMITADO);
+                    } catch (RuntimeException e) {
+                        // Un programa del corpus con errores no debe impedir el arranque
+                        log.warn("Calentamiento: un programa del corpus falló: {}", e.getMessage());
+                    }
+                    compilados++;
+                }
+            }
+        }
+        millis = (System.nanoTime() - inicio) / 1_000_000L;
+        programas = compilados;
+        estadosParser = contarEstados(parserDfa());
+        estadosLexer = contarEstados(lexerDfa());
+        listo = true;
+
+        log.info("Calentamiento: {} programas en {} ms, {} estados DFA nuevos en el parser",
+                compilados, millis, estadosParser - estadosParserAntes);
+    }
+
+    private List<String> cargarCorpus() {
+        List<String> codigos = new ArrayList<>(corpus.size());
+        ClassLoader loader = ParserWarmup.class.getClassLoader();
+        for (String recurso : corpus) {
+            try (InputStream in = loader.getResourceAsStream(recurso.trim())) {
+                if (in == null) {
+                    log.warn("Calentamiento: no se encontró el recurso {}", recurso);
+                    continue;
+                }
+                codigos.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return codigos;
+    }
+
+    // Las tablas DFA son estáticas: una instancia sin entrada basta para leerlas
+    private static DFA[] parserDfa() {
+        return new CompiscriptParser(null).getInterpreter().decisionToDFA;
+    }
+
+    private static DFA[] lexerDfa() {
+        return new CompiscriptLexer(CharStreams.fromString("")).getInterpreter().decisionToDFA;
+    }
+
+    static int contarEstados(DFA[] tablas) {
+        int estados = 0;
+        for (DFA dfa : tablas) {
+            estados += dfa.states.size();
+        }
+        return estados;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    public Map<String, Object> getEstado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("ready", listo);
+        estado.put("programs", programas);
+        estado.put("millis", millis);
+        estado.put("parserDfaStates", estadosParser);
+        estado.put("parserDfaStatesBuilt", estadosParser - estadosParserAntes);
+        estado.put("lexerDfaStates", estadosLexer);
+        return estado;
+    }
+}
@@ -0,0 +1,102 @@
+package com.fmd.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Baja el ParseTree de ANTLR a un AST compacto de AstNode:
+ *
+ * - Las cadenas de reglas con un solo hijo se colapsan. Un literal deja de
+ *   estar envuelto en assignmentExpr → conditionalExpr → logicalOrExpr → … →
+ *   primaryExpr y queda como una hoja.
+ * - Se omiten los delimitadores y las palabras clave que ya indica el tipo del
+ *   nodo, por ejemplo ';', '(' o 'while' dentro de whileStatement.
+ * - El AST guarda solo texto y posiciones, sin tokens ni contextos.
+ *
+ * Todavía no forma parte del pipeline de /compilar: el análisis semántico y
+ * astImage siguen trabajando sobre el parse tree.
+ */
+public final class AstLowering {
+
+    private static final Set<String> OMITIDOS = Set.of(
+            ";", ",", "(", ")", "{", "}", ":",
+            "print", "if", "else", "while", "do", "for", "foreach", "in", "return",
+            "try", "catch", "switch", "case", "default", "function", "class", "const", "new");
+
+    private final List<String> ruleNames;
+    private final Vocabulary vocabulario;
+
+    public AstLowering(String[] ruleNames, Vocabulary vocabulario) {
+        this.ruleNames = List.of(ruleNames);
+        this.vocabulario = vocabulario;
+    }
+
+    public AstNode lower(ParseTree tree) {
+        AstNode nodo = bajar(tree);
+        return nodo != null ? nodo : new AstNode("program", null, 1, 0, List.of());
+    }
+
+    // Devuelve null para los tokens omitidos
+    private AstNode bajar(ParseTree tree) {
+        if (tree instanceof TerminalNode terminal) {
+            Token token = terminal.getSymbol();
+            if (token.getType() == Token.EOF || (!(tree instanceof ErrorNode) && OMITIDOS.contains(token.getText()))) {
+                return null;
+            }
+            String kind = tree instanceof ErrorNode ? "error" : vocabulario.getSymbolicName(token.getType());
+            if (kind == null) {
+                kind = "token";
+            }
+            return AstNode.hoja(kind, token.getText(), token.getLine(), token.getCharPositionInLine());
+        }
+
+        ParserRuleContext ctx = (ParserRuleContext) tree;
+        // Cadena de un solo hijo: el contexto no aporta nada, se reemplaza por el hijo
+        if (ctx.getChildCount() == 1) {
+            AstNode unico = bajar(ctx.getChild(0));
+            if (unico != null) {
+                return unico;
+            }
+        }
+
+        List<AstNode> hijos = new ArrayList<>(ctx.getChildCount());
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            AstNode hijo = bajar(ctx.getChild(i));
+            if (hijo != null) {
+                hijos.add(hijo);
+            }
+        }
+        // Reglas que solo agregaban delimitadores, p. ej. ( expr ). Las sentencias y las
+        // alternativas etiquetadas se conservan: print(x); no es x; y f(x) no es x
+        String tipo = tipo(ctx);
+        if (hijos.size() == 1 && !esSentencia(ctx) && tipo.equals(ruleNames.get(ctx.getRuleIndex()))) {
+            return hijos.get(0);
+        }
+        Token inicio = ctx.getStart();
+        return new AstNode(tipo, null, inicio.getLine(), inicio.getCharPositionInLine(), hijos);
+    }
+
+    private boolean esSentencia(ParserRuleContext ctx) {
+        String regla = ruleNames.get(ctx.getRuleIndex());
+        return regla.endsWith("Statement") || regla.endsWith("Declaration") || regla.equals("block")
+                || regla.equals("program") || regla.equals("initializer") || regla.equals("typeAnnotation");
+    }
+
+    // Nombre de la alternativa etiquetada (AssignExpr, CallExpr, ...) o de la regla
+    private String tipo(ParserRuleContext ctx) {
+        String regla = ruleNames.get(ctx.getRuleIndex());
+        String clase = ctx.getClass().getSimpleName();
+        if (clase.endsWith("Context")) {
+            clase = clase.substring(0, clase.length() - "Context".length());
+        }
+        return clase.equalsIgnoreCase(regla) ? regla : clase;
+    }
+}
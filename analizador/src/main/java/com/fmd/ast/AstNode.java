@@ -0,0 +1,110 @@
+package com.fmd.ast;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.tree.Tree;
+
+/**
+ * Nodo inmutable del AST compacto que produce AstLowering. Los nodos internos
+ * llevan el tipo de construcción (nombre de la regla o de la alternativa
+ * etiquetada, p. ej. "AssignExpr"); las hojas llevan además el texto del token.
+ *
+ * Implementa Tree de ANTLR para poder dibujarse con AstTreeGenerator. Los nodos
+ * no guardan referencia al padre (el AST se recorre de arriba hacia abajo), así
+ * que getParent() devuelve null.
+ */
+public final class AstNode implements Tree {
+
+    private final String kind;
+    private final String text;
+    private final int line;
+    private final int column;
+    private final List<AstNode> children;
+
+    public AstNode(String kind, String text, int line, int column, List<AstNode> children) {
+        this.kind = kind;
+        this.text = text;
+        this.line = line;
+        this.column = column;
+        this.children = List.copyOf(children);
+    }
+
+    public static AstNode hoja(String kind, String text, int line, int column) {
+        return new AstNode(kind, text, line, column, List.of());
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    /** Texto del token para las hojas; null en nodos internos. */
+    public String getText() {
+        return text;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public List<AstNode> getChildren() {
+        return children;
+    }
+
+    public boolean isHoja() {
+        return text != null;
+    }
+
+    /** Cantidad de nodos del subárbol, incluyendo este. */
+    public int contarNodos() {
+        int total = 1;
+        for (AstNode hijo : children) {
+            total += hijo.contarNodos();
+        }
+        return total;
+    }
+
+    // ---------------------------
+    // Tree de ANTLR
+    // ---------------------------
+    @Override
+    public Tree getParent() {
+        return null;
+    }
+
+    /** Etiqueta del nodo: el texto en las hojas y el tipo en los nodos internos. */
+    @Override
+    public Object getPayload() {
+        return text != null ? text : kind;
+    }
+
+    @Override
+    public AstNode getChild(int i) {
+        return children.get(i);
+    }
+
+    @Override
+    public int getChildCount() {
+        return children.size();
+    }
+
+    @Override
+    public String toStringTree() {
+        if (children.isEmpty()) {
+            return String.valueOf(getPayload());
+        }
+        StringBuilder sb = new StringBuilder("(").append(kind);
+        for (AstNode hijo : children) {
+            sb.append(' ').append(hijo.toStringTree());
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toStringTree();
+    }
+}
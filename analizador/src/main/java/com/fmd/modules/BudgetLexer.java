@@ -0,0 +1,26 @@
+package com.fmd.modules;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+
+import com.fmd.CompiscriptLexer;
+
+/** CompiscriptLexer con un punto de cancelación del presupuesto por token. */
+public class BudgetLexer extends CompiscriptLexer {
+
+    private CompilationBudget presupuesto = CompilationBudget.ILIMITADO;
+
+    public BudgetLexer(CharStream input) {
+        super(input);
+    }
+
+    public void setPresupuesto(CompilationBudget presupuesto) {
+        this.presupuesto = presupuesto;
+    }
+
+    @Override
+    public Token nextToken() {
+        presupuesto.checkpoint();
+        return super.nextToken();
+    }
+}
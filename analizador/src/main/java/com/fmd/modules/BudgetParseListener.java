@@ -0,0 +1,43 @@
+package com.fmd.modules;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import com.fmd.CompiscriptBaseListener;
+
+/**
+ * Parse listener que cuenta cada regla contra el presupuesto (punto de
+ * cancelación y máximo de nodos) y lleva el total de nodos del árbol.
+ */
+public class BudgetParseListener extends CompiscriptBaseListener {
+
+    private CompilationBudget presupuesto = CompilationBudget.ILIMITADO;
+    private long nodos;
+
+    public BudgetParseListener() {
+    }
+
+    public BudgetParseListener(CompilationBudget presupuesto) {
+        this.presupuesto = presupuesto;
+    }
+
+    public void setPresupuesto(CompilationBudget presupuesto) {
+        this.presupuesto = presupuesto;
+        this.nodos = 0;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+        nodos++;
+        presupuesto.nodo();
+    }
+
+    /** Solo cuentan los nodos del árbol que se conserva (ver TwoStageParser.parsear). */
+    public void descartarConteo() {
+        presupuesto.descontarNodos(nodos);
+        nodos = 0;
+    }
+
+    public long getNodos() {
+        return nodos;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fmd.modules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Distribución final de una clase, construida una sola vez cuando termina su
+ * declaración. Aplana la jerarquía: cada tabla ya incluye lo heredado, así que
+ * buscar un miembro, un método o el constructor es una sola consulta a una
+ * tabla indexada por el id del nombre en el Interner, sin importar la
+ * profundidad de la herencia.
+ *
+ * - miembros: nombre -> miembro (atributo o método) de la clase más cercana que lo declara.
+ * - metodos: nombre -> método de la clase más cercana que declara un método con ese nombre
+ *   (un atributo de la subclase no oculta un método de la superclase al llamarlo).
+ * - constructor: el propio o el de la superclase más cercana que tenga uno.
+ * - índices: los heredados conservan el índice de la superclase (también al
+ *   sobrescribirlos) y los nuevos se agregan al final en orden de declaración.
+ */
+public final class ClassLayout {
+
+    private final Symbol clase;
+    private final ClassLayout superclase;
+    private final Interner ids;
+    private final IntMap<Symbol> miembros;
+    private final IntMap<Symbol> metodos;
+    private final IntMap<Integer> indices;
+    private final List<String> nombres;
+    private final Symbol constructor;
+
+    public ClassLayout(Symbol clase, ClassLayout superclase, Interner ids) {
+        this.clase = clase;
+        this.superclase = superclase;
+        this.ids = ids;
+        this.miembros = superclase == null ? new IntMap<>() : new IntMap<>(superclase.miembros);
+        this.metodos = superclase == null ? new IntMap<>() : new IntMap<>(superclase.metodos);
+        this.indices = superclase == null ? new IntMap<>() : new IntMap<>(superclase.indices);
+        List<String> orden = superclase == null ? new ArrayList<>() : new ArrayList<>(superclase.nombres);
+
+        List<Symbol> propios = new ArrayList<>(clase.getMembers().values());
+        propios.sort(Comparator.comparingInt(Symbol::getLine).thenComparingInt(Symbol::getColumn));
+        Symbol propio = null;
+        for (Symbol miembro : propios) {
+            int id = ids.intern(miembro.getName());
+            miembros.put(id, miembro);
+            if (miembro.getKind() == Symbol.Kind.FUNCTION) {
+                metodos.put(id, miembro);
+            }
+            if (!indices.containsKey(id)) {
+                indices.put(id, orden.size());
+                orden.add(miembro.getName());
+            }
+            if (propio == null && miembro.isConstructor()) {
+                propio = miembro;
+            }
+        }
+        this.nombres = Collections.unmodifiableList(orden);
+        this.constructor = propio != null ? propio : superclase == null ? null : superclase.constructor;
+    }
+
+    public Symbol getClase() {
+        return clase;
+    }
+
+    public ClassLayout getSuperclase() {
+        return superclase;
+    }
+
+    /** Atributo o método visible en la clase, propio o heredado; null si no existe. */
+    public Symbol getMiembro(String nombre) {
+        return miembros.get(ids.id(nombre));
+    }
+
+    /** Método visible en la clase, propio o heredado; null si no existe. */
+    public Symbol getMetodo(String nombre) {
+        return metodos.get(ids.id(nombre));
+    }
+
+    public Symbol getConstructor() {
+        return constructor;
+    }
+
+    /** Índice estable del miembro en la clase (-1 si no existe). */
+    public int getIndice(String nombre) {
+        Integer indice = indices.get(ids.id(nombre));
+        return indice == null ? -1 : indice;
+    }
+
+    /** Nombres de los miembros ordenados por índice. */
+    public List<String> getNombres() {
+        return nombres;
+    }
+
+    public int size() {
+        return nombres.size();
+    }
+}
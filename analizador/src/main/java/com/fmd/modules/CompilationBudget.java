@@ -0,0 +1,93 @@
+package com.fmd.modules;
+
+/**
+ * Presupuesto de cómputo de una compilación: una fecha límite y un máximo de
+ * nodos del árbol sintáctico. El lexer, el parser y los visitors llaman a
+ * checkpoint() de forma cooperativa; cuando el presupuesto se agota (o el hilo
+ * fue interrumpido) se lanza BudgetExceededException y la compilación se aborta.
+ */
+public class CompilationBudget {
+    // Leer el reloj en cada nodo es caro; se revisa cada cierto número de checkpoints
+    private static final int INTERVALO_RELOJ = 256;
+
+    public static final CompilationBudget ILIMITADO = new CompilationBudget(0, 0);
+
+    private final long limiteMillis;
+    private final long deadlineNanos;
+    private final long maxNodos;
+    private long nodos;
+    private int hastaRevisarReloj = INTERVALO_RELOJ;
+
+    /**
+     * @param limiteMillis tiempo máximo en milisegundos (0 = sin límite)
+     * @param maxNodos     nodos máximos del árbol sintáctico (0 = sin límite)
+     */
+    public CompilationBudget(long limiteMillis, long maxNodos) {
+        this.limiteMillis = limiteMillis;
+        this.deadlineNanos = limiteMillis > 0 ? System.nanoTime() + limiteMillis * 1_000_000L : 0;
+        this.maxNodos = maxNodos;
+    }
+
+    /** Punto de cancelación para recorridos: solo revisa tiempo e interrupción. */
+    public void checkpoint() {
+        if (this == ILIMITADO) {
+            return;
+        }
+        if (--hastaRevisarReloj <= 0) {
+            hastaRevisarReloj = INTERVALO_RELOJ;
+            revisarReloj();
+        }
+    }
+
+    /** Punto de cancelación del parser: además cuenta el nodo contra el máximo. */
+    public void nodo() {
+        if (this == ILIMITADO) {
+            return;
+        }
+        nodos++;
+        if (maxNodos > 0 && nodos > maxNodos) {
+            throw new BudgetExceededException(
+                    "El programa excede el máximo de " + maxNodos + " nodos sintácticos");
+        }
+        checkpoint();
+    }
+
+    /** Devuelve nodos contados de un árbol que se descartó (el intento SLL del parser). */
+    public void descontarNodos(long descartados) {
+        if (this == ILIMITADO) {
+            return;
+        }
+        nodos -= descartados;
+    }
+
+    /** Revisión inmediata, para usar entre fases. */
+    public void revisarReloj() {
+        if (this == ILIMITADO) {
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new BudgetExceededException("Compilación cancelada");
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new BudgetExceededException(
+                    "Compilación cancelada: se excedió el tiempo máximo de " + limiteMillis + " ms");
+        }
+    }
+
+    public long getNodos() {
+        return nodos;
+    }
+
+    public static class BudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BudgetExceededException(String mensaje) {
+            super(mensaje);
+        }
+
+        /** Diagnóstico que se devuelve al cliente en lugar del resultado. */
+        public SemanticError toSemanticError() {
+            return new SemanticError(getMessage(), 0, 0);
+        }
+    }
+}
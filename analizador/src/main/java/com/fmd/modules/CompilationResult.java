@@ -0,0 +1,68 @@
+package com.fmd.modules;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado completo de compilar un programa: errores, proyección de la
+ * tabla de símbolos e imagen del AST en Base64. Es inmutable para poder
+ * compartirse entre peticiones desde la caché.
+ */
+public class CompilationResult {
+    // Costo fijo aproximado por objeto/entrada (cabeceras, referencias, mapas)
+    private static final int OVERHEAD_OBJETO = 64;
+
+    private final List<SemanticError> errores;
+    private final List<Map<String, Object>> simbolos;
+    private final String astImage;
+    private final String etapaParser;
+
+    public CompilationResult(List<SemanticError> errores, List<Map<String, Object>> simbolos, String astImage) {
+        this(errores, simbolos, astImage, null);
+    }
+
+    public CompilationResult(List<SemanticError> errores, List<Map<String, Object>> simbolos, String astImage,
+                             String etapaParser) {
+        this.errores = List.copyOf(errores);
+        this.simbolos = List.copyOf(simbolos);
+        this.astImage = astImage;
+        this.etapaParser = etapaParser;
+    }
+
+    public List<SemanticError> getErrores() {
+        return errores;
+    }
+
+    public List<Map<String, Object>> getSimbolos() {
+        return simbolos;
+    }
+
+    public String getAstImage() {
+        return astImage;
+    }
+
+    /** Etapa del parser que produjo el árbol ("SLL" o "LL"); null si no se llegó a parsear. */
+    public String getEtapaParser() {
+        return etapaParser;
+    }
+
+    /** Estimación del tamaño retenido en bytes, usada por el presupuesto de la caché. */
+    public long estimarBytes() {
+        long total = OVERHEAD_OBJETO;
+        if (astImage != null) {
+            total += astImage.length() + OVERHEAD_OBJETO;
+        }
+        for (SemanticError error : errores) {
+            total += error.getMensaje().length() + OVERHEAD_OBJETO;
+        }
+        for (Map<String, Object> simbolo : simbolos) {
+            total += OVERHEAD_OBJETO * 4L;
+            for (Object valor : simbolo.values()) {
+                if (valor instanceof String texto) {
+                    total += texto.length();
+                }
+            }
+        }
+        return total;
+    }
+}
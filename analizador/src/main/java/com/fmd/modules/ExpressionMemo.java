@@ -0,0 +1,109 @@
+package com.fmd.modules;
+
+import java.util.BitSet;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
+
+import com.fmd.CompiscriptParser;
+
+/**
+ * Tipo ya calculado de cada nodo de expresión. LogicalVisitor,
+ * ComparisonVisitor y VariableVisitor se delegan entre sí; con la memoria, si
+ * un nodo se vuelve a pedir se devuelve el tipo guardado sin recorrer otra vez
+ * su subárbol (ni repetir sus errores).
+ *
+ * Hay una sola por compilación, de SemanticVisitor, y la comparten todos los
+ * visitors (ver SemanticVisitor.tipar). Contadores: calculados cuenta los
+ * nodos con tipo guardado, reutilizados las consultas respondidas desde la
+ * memoria y recalculados las veces que un nodo que ya tenía tipo se volvió a
+ * tipar (debe quedar en 0).
+ */
+public final class ExpressionMemo {
+
+    /** Contadores de la memoria de una compilación. */
+    public static final class Contadores {
+        private int calculados;
+        private int reutilizados;
+        private int recalculados;
+
+        public int getCalculados() {
+            return calculados;
+        }
+
+        public int getReutilizados() {
+            return reutilizados;
+        }
+
+        public int getRecalculados() {
+            return recalculados;
+        }
+    }
+
+    // Reglas cuyo resultado es el tipo de una expresión
+    private static final BitSet EXPRESIONES = new BitSet();
+
+    static {
+        for (int regla : new int[] {
+                CompiscriptParser.RULE_expression, CompiscriptParser.RULE_assignmentExpr,
+                CompiscriptParser.RULE_conditionalExpr, CompiscriptParser.RULE_logicalOrExpr,
+                CompiscriptParser.RULE_logicalAndExpr, CompiscriptParser.RULE_equalityExpr,
+                CompiscriptParser.RULE_relationalExpr, CompiscriptParser.RULE_additiveExpr,
+                CompiscriptParser.RULE_multiplicativeExpr, CompiscriptParser.RULE_unaryExpr,
+                CompiscriptParser.RULE_primaryExpr, CompiscriptParser.RULE_literalExpr,
+                CompiscriptParser.RULE_leftHandSide, CompiscriptParser.RULE_primaryAtom,
+                CompiscriptParser.RULE_arrayLiteral}) {
+            EXPRESIONES.set(regla);
+        }
+    }
+
+    private static final Type SIN_TIPO = new Type("<sin tipo>", Type.Categoria.DESCONOCIDO, null); // el cálculo devolvió null
+
+    private final ParseTreeProperty<Type> tipos = new ParseTreeProperty<>();
+    private final Contadores contadores = new Contadores();
+
+    public static boolean esExpresion(ParseTree nodo) {
+        return nodo instanceof ParserRuleContext ctx && EXPRESIONES.get(ctx.getRuleIndex());
+    }
+
+    /**
+     * Tipo del nodo: el guardado si ya se calculó; si no, el que devuelve
+     * calcular, que se guarda. Los nodos que no son expresiones (sentencias,
+     * declaraciones) siempre se calculan.
+     */
+    public <T extends ParseTree> Type tipar(T nodo, Function<T, Type> calcular) {
+        if (!esExpresion(nodo)) {
+            return calcular.apply(nodo);
+        }
+        Type guardado = tipos.get(nodo);
+        if (guardado != null) {
+            contadores.reutilizados++;
+            return guardado == SIN_TIPO ? null : guardado;
+        }
+        Type tipo = calcular.apply(nodo);
+        if (tipos.get(nodo) != null) {
+            contadores.recalculados++; // el propio cálculo ya tipó el nodo: queda el primer tipo
+            return get(nodo);
+        }
+        contadores.calculados++;
+        tipos.put(nodo, tipo == null ? SIN_TIPO : tipo);
+        return tipo;
+    }
+
+    /** Si el nodo tiene tipo guardado (aunque sea null). */
+    public boolean tipado(ParseTree nodo) {
+        return tipos.get(nodo) != null;
+    }
+
+    public Contadores getContadores() {
+        return contadores;
+    }
+
+    /** Tipo guardado del nodo, o null si no se ha tipado. */
+    public Type get(ParseTree nodo) {
+        Type tipo = tipos.get(nodo);
+        return tipo == SIN_TIPO ? null : tipo;
+    }
+}
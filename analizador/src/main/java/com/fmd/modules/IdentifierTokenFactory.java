@@ -0,0 +1,69 @@
+package com.fmd.modules;
+
+import java.util.Arrays;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+import com.fmd.CompiscriptLexer;
+
+/**
+ * Fábrica de tokens que pasa cada Identifier por el Interner de la
+ * compilación. El token queda con el String compartido del nombre, así que
+ * getText() no copia el texto en cada llamada y todas las apariciones de un
+ * mismo nombre son la misma instancia (con su hash ya calculado).
+ *
+ * El texto se lee del CharStream sin crear un String intermedio: solo la
+ * primera aparición de cada nombre lo materializa.
+ */
+public class IdentifierTokenFactory extends CommonTokenFactory {
+
+    private final Interner nombres;
+    private char[] buffer = new char[32];
+
+    public IdentifierTokenFactory(Interner nombres) {
+        this(nombres, false);
+    }
+
+    /**
+     * @param copyText como en CommonTokenFactory: los demás tokens copian su
+     *                 texto y no dependen del CharStream (el reparseo incremental
+     *                 los reutiliza sobre otra versión del texto)
+     */
+    public IdentifierTokenFactory(Interner nombres, boolean copyText) {
+        super(copyText);
+        this.nombres = nombres;
+    }
+
+    public Interner getNombres() {
+        return nombres;
+    }
+
+    @Override
+    public CommonToken create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                              int start, int stop, int line, int charPositionInLine) {
+        if (type == CompiscriptLexer.Identifier && text == null && source.b != null) {
+            text = nombres.nombre(nombres.intern(buffer, leer(source.b, start, stop)));
+        }
+        return super.create(source, type, text, channel, start, stop, line, charPositionInLine);
+    }
+
+    // Copia al buffer los caracteres del token (los identificadores son ASCII por la gramática)
+    private int leer(CharStream input, int start, int stop) {
+        int posicion = input.index();
+        int largo = 0;
+        input.seek(start);
+        while (input.index() <= stop) {
+            if (largo == buffer.length) {
+                buffer = Arrays.copyOf(buffer, largo * 2);
+            }
+            buffer[largo++] = (char) input.LA(1);
+            input.consume();
+        }
+        input.seek(posicion);
+        return largo;
+    }
+}
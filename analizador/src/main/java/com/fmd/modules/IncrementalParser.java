@@ -0,0 +1,479 @@
+package com.fmd.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.fmd.CompiscriptLexer;
+import com.fmd.CompiscriptParser;
+import com.fmd.CompiscriptParser.ProgramContext;
+import com.fmd.CompiscriptParser.StatementContext;
+
+/**
+ * Reparseo incremental para el IDE. Guarda el árbol del último parseo válido de
+ * cada documento. Ante una edición solo se vuelven a lexear y parsear las
+ * sentencias de primer nivel que toca el cambio; las anteriores y posteriores
+ * se reutilizan sin volver a parsearlas.
+ *
+ * Las sentencias reutilizadas se cuelgan del nuevo árbol sin copiarlas; a las
+ * posteriores solo se les corren los tokens (índices, líneas y posición en el
+ * token stream). Eso modifica el árbol anterior, así que se hace únicamente
+ * después de lexear y parsear la región sin errores ni cancelación: si la
+ * edición falla, el documento previo sigue intacto; si sale bien, el previo se
+ * descarta. El costo de una edición depende del tamaño de la región más el de
+ * correr los tokens posteriores, y el presupuesto solo cuenta la región.
+ *
+ * La región reparseada va del final de la última sentencia intacta anterior al
+ * inicio de la primera sentencia intacta posterior. Solo se acepta si:
+ * - al lexearla, el lexer vuelve a producir el primer token de la sentencia
+ *   posterior en la posición esperada (así un comentario o cadena abierta no
+ *   cambia el significado del resto del archivo), y
+ * - se parsea como statement* sin errores.
+ * En cualquier otro caso se parsea el documento completo, que también es lo que
+ * reporta los errores de sintaxis.
+ */
+public class IncrementalParser {
+
+    /**
+     * Texto y árbol del último parseo de un documento (arbol == null si tuvo
+     * errores). El Interner se conserva entre ediciones: los identificadores de
+     * las sentencias reutilizadas ya están en él. Como nunca olvida un nombre,
+     * cuando crece demasiado respecto del último parseo completo se vuelve a
+     * parsear todo con uno nuevo (ver MAX_NOMBRES_NUEVOS).
+     */
+    public static class Documento {
+        private final String texto;
+        private final int largoCp;
+        private final ProgramContext arbol;
+        private final Interner nombres;
+        private final int nombresBase; // nombres tras el último parseo completo
+        private final long nodos;
+
+        Documento(String texto, int largoCp, ProgramContext arbol, Interner nombres, int nombresBase, long nodos) {
+            this.texto = texto;
+            this.largoCp = largoCp;
+            this.arbol = arbol;
+            this.nombres = nombres;
+            this.nombresBase = nombresBase;
+            this.nodos = nodos;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public ProgramContext getArbol() {
+            return arbol;
+        }
+
+        public Interner getNombres() {
+            return nombres;
+        }
+    }
+
+    public static class Resultado {
+        private final Documento documento;
+        private final List<SemanticError> erroresSintaxis;
+        private final boolean incremental;
+        private final int reparseadas;
+        private final int reutilizadas;
+        private final int tokensLexeados;
+        private final TwoStageParser.Etapa etapa;
+
+        Resultado(Documento documento, List<SemanticError> erroresSintaxis, boolean incremental, int reparseadas,
+                  int reutilizadas, int tokensLexeados, TwoStageParser.Etapa etapa) {
+            this.documento = documento;
+            this.erroresSintaxis = erroresSintaxis;
+            this.incremental = incremental;
+            this.reparseadas = reparseadas;
+            this.reutilizadas = reutilizadas;
+            this.tokensLexeados = tokensLexeados;
+            this.etapa = etapa;
+        }
+
+        /** Estado a guardar para la siguiente edición. */
+        public Documento getDocumento() {
+            return documento;
+        }
+
+        /** Árbol del programa completo; null si hubo errores de sintaxis. */
+        public ProgramContext getArbol() {
+            return documento.arbol;
+        }
+
+        /** Interner con el que se lexeó el árbol, para las tablas de símbolos. */
+        public Interner getNombres() {
+            return documento.nombres;
+        }
+
+        public List<SemanticError> getErroresSintaxis() {
+            return erroresSintaxis;
+        }
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public int getReparseadas() {
+            return reparseadas;
+        }
+
+        public int getReutilizadas() {
+            return reutilizadas;
+        }
+
+        public int getTokensLexeados() {
+            return tokensLexeados;
+        }
+
+        /** Nodos del árbol completo, reparseados y reutilizados. */
+        public long getNodos() {
+            return documento.nodos;
+        }
+
+        /** Etapa del parser en la región reparseada (o en el documento completo); null si se canceló. */
+        public TwoStageParser.Etapa getEtapa() {
+            return etapa;
+        }
+    }
+
+    /** Nombres que el Interner de un documento puede acumular sobre el doble de los del último parseo completo. */
+    public static final int MAX_NOMBRES_NUEVOS = 256;
+
+    private final int maxErroresSintaxis;
+
+    public IncrementalParser(int maxErroresSintaxis) {
+        this.maxErroresSintaxis = maxErroresSintaxis;
+    }
+
+    /**
+     * Parsea la nueva versión del documento reutilizando lo posible de la anterior.
+     *
+     * @param previo  estado devuelto por la llamada anterior (null la primera vez)
+     * @param texto   texto completo de la nueva versión
+     * @param escucha recibe los errores de sintaxis conforme se detectan (puede ser null)
+     * @param presupuesto límite de tiempo y de nodos; solo cuentan los nodos que se vuelven a parsear
+     */
+    public Resultado parsear(Documento previo, String texto, Consumer<SemanticError> escucha,
+                             CompilationBudget presupuesto) {
+        if (previo != null && previo.arbol != null) {
+            Resultado resultado = reparsearRegion(previo, texto, presupuesto);
+            if (resultado != null) {
+                return resultado;
+            }
+        }
+        return parsearCompleto(texto, escucha, presupuesto);
+    }
+
+    public Resultado parsear(Documento previo, String texto, Consumer<SemanticError> escucha) {
+        return parsear(previo, texto, escucha, CompilationBudget.ILIMITADO);
+    }
+
+    // ---------------------------
+    // Parseo completo
+    // ---------------------------
+    private Resultado parsearCompleto(String texto, Consumer<SemanticError> escucha, CompilationBudget presupuesto) {
+        SyntaxErrorListener sintaxis = new SyntaxErrorListener(maxErroresSintaxis, escucha);
+        Interner nombres = new Interner();
+        CompiscriptLexer lexer = nuevoLexer(texto, sintaxis, nombres, presupuesto);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        CompiscriptParser parser = nuevoParser(tokens, sintaxis);
+        BudgetParseListener nodos = new BudgetParseListener(presupuesto);
+        parser.addParseListener(nodos);
+
+        TwoStageParser.Resultado parseo = null;
+        try {
+            tokens.fill();
+            parseo = TwoStageParser.parsear(parser, nodos::descartarConteo);
+        } catch (ParseCancellationException e) {
+            // Se alcanzó el máximo de errores de sintaxis
+        }
+        int largoCp = texto.codePointCount(0, texto.length());
+        TwoStageParser.Etapa etapa = parseo != null ? parseo.getEtapa() : null;
+        if (sintaxis.hayErrores()) {
+            return new Resultado(new Documento(texto, largoCp, null, nombres, nombres.size(), nodos.getNodos()),
+                    sintaxis.getErrores(), false, 0, 0, tokens.size(), etapa);
+        }
+        ProgramContext arbol = parseo.getArbol();
+        return new Resultado(new Documento(texto, largoCp, arbol, nombres, nombres.size(), nodos.getNodos()),
+                List.of(), false,
+                arbol.statement().size(), 0, tokens.size(), etapa);
+    }
+
+    // Los tokens copian su texto: así siguen siendo válidos al reutilizarlos sobre otra versión del texto
+    private static CompiscriptLexer nuevoLexer(String texto, SyntaxErrorListener sintaxis, Interner nombres,
+                                               CompilationBudget presupuesto) {
+        BudgetLexer lexer = new BudgetLexer(CharStreams.fromString(texto));
+        lexer.setPresupuesto(presupuesto);
+        lexer.setTokenFactory(new IdentifierTokenFactory(nombres, true));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(sintaxis);
+        return lexer;
+    }
+
+    private static CompiscriptParser nuevoParser(CommonTokenStream tokens, SyntaxErrorListener sintaxis) {
+        CompiscriptParser parser = new CompiscriptParser(tokens);
+        parser.removeErrorListeners();
+        parser.addErrorListener(sintaxis);
+        return parser;
+    }
+
+    // ---------------------------
+    // Reparseo de la región editada
+    // ---------------------------
+    private Resultado reparsearRegion(Documento previo, String texto, CompilationBudget presupuesto) {
+        if (previo.nombres.size() > 2 * previo.nombresBase + MAX_NOMBRES_NUEVOS) {
+            return null; // el parseo completo empieza con un Interner nuevo
+        }
+        String viejo = previo.texto;
+        List<StatementContext> sentencias = previo.arbol.statement();
+        int n = sentencias.size();
+
+        // 1. Rango editado por prefijo y sufijo común (en UTF-16, sin partir pares sustitutos)
+        int limite = Math.min(viejo.length(), texto.length());
+        int inicio = 0;
+        while (inicio < limite && viejo.charAt(inicio) == texto.charAt(inicio)) {
+            inicio++;
+        }
+        if (inicio > 0 && Character.isHighSurrogate(viejo.charAt(inicio - 1))) {
+            inicio--;
+        }
+        int sufijo = 0;
+        while (sufijo < limite - inicio
+                && viejo.charAt(viejo.length() - 1 - sufijo) == texto.charAt(texto.length() - 1 - sufijo)) {
+            sufijo++;
+        }
+        if (sufijo > 0 && Character.isLowSurrogate(viejo.charAt(viejo.length() - sufijo))) {
+            sufijo--;
+        }
+        int finViejo = viejo.length() - sufijo;
+        int finNuevo = texto.length() - sufijo;
+        if (inicio == finViejo && inicio == finNuevo) {
+            return new Resultado(previo, List.of(), true, 0, n, 0, null);
+        }
+
+        // Los índices de los tokens están en code points
+        int inicioCp = viejo.codePointCount(0, inicio);
+        int finViejoCp = inicioCp + viejo.codePointCount(inicio, finViejo);
+        int finNuevoCp = inicioCp + texto.codePointCount(inicio, finNuevo);
+        int delta = finNuevoCp - finViejoCp;
+
+        // 2. Sentencias intactas antes (0..k0-1) y después (k1..n-1) de la edición
+        int k0 = 0;
+        while (k0 < n && sentencias.get(k0).getStop().getStopIndex() < inicioCp - 1) {
+            k0++;
+        }
+        int k1 = k0;
+        while (k1 < n && sentencias.get(k1).getStart().getStartIndex() <= finViejoCp) {
+            k1++;
+        }
+
+        int regionInicioCp = k0 > 0 ? sentencias.get(k0 - 1).getStop().getStopIndex() + 1 : 0;
+        int regionFinCp = k1 < n ? sentencias.get(k1).getStart().getStartIndex() + delta : previo.largoCp + delta;
+        int regionInicio = texto.offsetByCodePoints(inicio, regionInicioCp - inicioCp);
+        int regionFin = texto.offsetByCodePoints(finNuevo, regionFinCp - finNuevoCp);
+
+        Token sincronia = k1 < n ? sentencias.get(k1).getStart() : null;
+        int finLexeo = sincronia != null ? regionFin + sincronia.getText().length() : texto.length();
+
+        // 3. Lexear la región (más el primer token posterior) con posiciones absolutas
+        int linea = 1;
+        int columna = 0;
+        if (k0 > 0) {
+            Token ultimo = sentencias.get(k0 - 1).getStop();
+            linea = ultimo.getLine();
+            columna = ultimo.getCharPositionInLine() + ultimo.getText().codePointCount(0, ultimo.getText().length());
+        }
+        SyntaxErrorListener erroresLexer = new SyntaxErrorListener();
+        BudgetLexer lexer = new BudgetLexer(CharStreams.fromString(texto.substring(regionInicio, finLexeo)));
+        lexer.setPresupuesto(presupuesto);
+        lexer.setTokenFactory(new FabricaDesplazada(previo.nombres, regionInicioCp));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(erroresLexer);
+        lexer.setLine(linea);
+        lexer.setCharPositionInLine(columna);
+
+        List<Token> region = new ArrayList<>();
+        Token siguiente = lexer.nextToken();
+        while (siguiente.getType() != Token.EOF && siguiente.getStartIndex() < regionFinCp) {
+            if (siguiente.getStopIndex() >= regionFinCp) {
+                return null; // un token cruza el límite de la región
+            }
+            region.add(siguiente);
+            siguiente = lexer.nextToken();
+        }
+        if (erroresLexer.hayErrores()) {
+            return null;
+        }
+        // Sin sentencia posterior, "siguiente" es el EOF del documento
+        if (sincronia != null && (siguiente.getStartIndex() != regionFinCp
+                || siguiente.getType() != sincronia.getType() || !siguiente.getText().equals(sincronia.getText()))) {
+            return null;
+        }
+
+        // 4. Parsear la región como statement*
+        SyntaxErrorListener erroresParser = new SyntaxErrorListener();
+        ListTokenSource fuente = new ListTokenSource(region);
+        fuente.setTokenFactory(new CommonTokenFactory(true));
+        CompiscriptParser parser = new CompiscriptParser(new CommonTokenStream(fuente));
+        parser.removeErrorListeners();
+        parser.addErrorListener(erroresParser);
+        BudgetParseListener nodos = new BudgetParseListener(presupuesto);
+        parser.addParseListener(nodos);
+        TwoStageParser.Resultado parseo;
+        try {
+            parseo = TwoStageParser.parsear(parser, nodos::descartarConteo);
+        } catch (ParseCancellationException e) {
+            parseo = null;
+        }
+        if (parseo == null || erroresParser.hayErrores()) {
+            nodos.descartarConteo(); // el parseo completo vuelve a contar todo
+            return null;
+        }
+        List<StatementContext> nuevas = parseo.getArbol().statement();
+
+        // 5. Posición de cada token en el token stream del documento: las sentencias
+        // anteriores conservan la suya, la región y las posteriores se numeran a continuación
+        int primerIndice = k0 > 0 ? sentencias.get(k0 - 1).getStop().getTokenIndex() + 1 : 0;
+        for (int i = 0; i < region.size(); i++) {
+            ((CommonToken) region.get(i)).setTokenIndex(primerIndice + i);
+        }
+        int indiceSiguiente = primerIndice + region.size();
+
+        // 6. Armar el programa: intactas anteriores + nuevas + intactas posteriores + EOF.
+        // Ya no queda nada que pueda fallar: las intactas se cuelgan del programa nuevo
+        // tal cual y a las posteriores solo se les corren los tokens
+        ProgramContext programa = new ProgramContext(null, 0);
+        for (int i = 0; i < k0; i++) {
+            colgar(sentencias.get(i), programa);
+        }
+        for (StatementContext sentencia : nuevas) {
+            colgar(sentencia, programa);
+        }
+        Token eof;
+        if (sincronia != null) {
+            Corrimiento corrimiento = new Corrimiento(delta, siguiente.getLine() - sincronia.getLine(),
+                    sincronia.getLine(), siguiente.getCharPositionInLine() - sincronia.getCharPositionInLine(),
+                    indiceSiguiente - sincronia.getTokenIndex());
+            for (int i = k1; i < n; i++) {
+                corrimiento.aplicar(sentencias.get(i));
+                colgar(sentencias.get(i), programa);
+            }
+            eof = previo.arbol.EOF().getSymbol();
+            corrimiento.correr(eof);
+        } else {
+            eof = siguiente;
+            ((CommonToken) eof).setTokenIndex(indiceSiguiente);
+        }
+        TerminalNodeImpl nodoEof = new TerminalNodeImpl(eof);
+        nodoEof.setParent(programa);
+        programa.addAnyChild(nodoEof);
+        programa.start = programa.getChildCount() > 1 ? ((ParserRuleContext) programa.getChild(0)).getStart() : eof;
+        programa.stop = eof;
+
+        // Nodos del árbol completo: los del anterior menos las sentencias reemplazadas más
+        // la región (sin su program, que no se usa)
+        long reemplazados = 0;
+        for (int i = k0; i < k1; i++) {
+            reemplazados += contarNodos(sentencias.get(i));
+        }
+        Documento documento = new Documento(texto, previo.largoCp + delta, programa, previo.nombres,
+                previo.nombresBase, previo.nodos - reemplazados + nodos.getNodos() - 1);
+        return new Resultado(documento, List.of(), true, nuevas.size(), k0 + (n - k1), region.size() + 1,
+                parseo.getEtapa());
+    }
+
+    private static void colgar(StatementContext sentencia, ProgramContext programa) {
+        sentencia.setParent(programa);
+        programa.addChild(sentencia);
+    }
+
+    private static long contarNodos(ParseTree nodo) {
+        if (!(nodo instanceof ParserRuleContext)) {
+            return 0;
+        }
+        long total = 1;
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            total += contarNodos(nodo.getChild(i));
+        }
+        return total;
+    }
+
+    /**
+     * Corre en su lugar los tokens de las sentencias posteriores a la región.
+     * Los start/stop de los contextos apuntan a esos mismos tokens, así que
+     * basta con recorrer las hojas; cada token es hoja una sola vez.
+     */
+    private static final class Corrimiento {
+        private final int delta;          // code points
+        private final int deltaLineas;
+        private final int lineaSincronia; // solo los tokens de esta línea cambian de columna
+        private final int deltaColumna;
+        private final int deltaIndice;    // posición en el token stream
+
+        Corrimiento(int delta, int deltaLineas, int lineaSincronia, int deltaColumna, int deltaIndice) {
+            this.delta = delta;
+            this.deltaLineas = deltaLineas;
+            this.lineaSincronia = lineaSincronia;
+            this.deltaColumna = deltaColumna;
+            this.deltaIndice = deltaIndice;
+        }
+
+        void aplicar(ParseTree nodo) {
+            if (delta == 0 && deltaLineas == 0 && deltaColumna == 0 && deltaIndice == 0) {
+                return;
+            }
+            if (nodo instanceof TerminalNode terminal) {
+                correr(terminal.getSymbol());
+                return;
+            }
+            for (int i = 0; i < nodo.getChildCount(); i++) {
+                aplicar(nodo.getChild(i));
+            }
+        }
+
+        void correr(Token t) {
+            CommonToken token = (CommonToken) t;
+            if (token.getLine() == lineaSincronia) {
+                token.setCharPositionInLine(token.getCharPositionInLine() + deltaColumna);
+            }
+            token.setLine(token.getLine() + deltaLineas);
+            token.setStartIndex(token.getStartIndex() + delta);
+            token.setStopIndex(token.getStopIndex() + delta);
+            token.setTokenIndex(token.getTokenIndex() + deltaIndice);
+        }
+    }
+
+    // Copia el texto y corre los índices al inicio absoluto de la región
+    private static class FabricaDesplazada extends IdentifierTokenFactory {
+        private final int desplazamiento;
+
+        FabricaDesplazada(Interner nombres, int desplazamiento) {
+            super(nombres, true);
+            this.desplazamiento = desplazamiento;
+        }
+
+        @Override
+        public CommonToken create(Pair<TokenSource, org.antlr.v4.runtime.CharStream> source, int type, String text,
+                                  int channel, int start, int stop, int line, int charPositionInLine) {
+            CommonToken token = super.create(source, type, text, channel, start, stop, line, charPositionInLine);
+            token.setStartIndex(start + desplazamiento);
+            token.setStopIndex(stop + desplazamiento);
+            return token;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.fmd.modules;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de claves int no negativas (ids del Interner) a valores, con
+ * direccionamiento abierto y sin boxing de las claves. Las entradas se guardan
+ * en arreglos densos en orden de inserción, así que recorrerlo es determinista.
+ *
+ * No hay borrado: asignar null deja la clave sin valor (get devuelve null y
+ * los recorridos la saltan), lo que basta para las pilas de enlaces de Entorno.
+ */
+public final class IntMap<V> {
+
+    private int[] tabla;      // id de entrada + 1, 0 = vacío
+    private int[] claves;     // entrada -> clave
+    private Object[] valores; // entrada -> valor
+    private int entradas;
+    private int size;         // entradas con valor no null
+
+    public IntMap() {
+        this(4);
+    }
+
+    public IntMap(int capacidad) {
+        int slots = Integer.highestOneBit(Math.max(4, capacidad) * 2 - 1) * 2;
+        tabla = new int[slots];
+        claves = new int[Math.max(4, capacidad)];
+        valores = new Object[claves.length];
+    }
+
+    /** Copia independiente del mapa (mismas entradas, en el mismo orden). */
+    public IntMap(IntMap<V> otro) {
+        tabla = otro.tabla.clone();
+        claves = otro.claves.clone();
+        valores = otro.valores.clone();
+        entradas = otro.entradas;
+        size = otro.size;
+    }
+
+    private int buscar(int clave) {
+        int mascara = tabla.length - 1;
+        for (int i = Interner.mezclar(clave * 0x9E3779B9) & mascara; ; i = (i + 1) & mascara) {
+            int e = tabla[i] - 1;
+            if (e < 0 || claves[e] == clave) {
+                return i;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int clave) {
+        if (clave < 0) {
+            return null;
+        }
+        int e = tabla[buscar(clave)] - 1;
+        return e < 0 ? null : (V) valores[e];
+    }
+
+    public boolean containsKey(int clave) {
+        return get(clave) != null;
+    }
+
+    /** Asocia el valor a la clave y devuelve el anterior (null si no tenía). */
+    @SuppressWarnings("unchecked")
+    public V put(int clave, V valor) {
+        int slot = buscar(clave);
+        int e = tabla[slot] - 1;
+        if (e >= 0) {
+            V anterior = (V) valores[e];
+            valores[e] = valor;
+            size += (valor != null ? 1 : 0) - (anterior != null ? 1 : 0);
+            return anterior;
+        }
+        if (valor == null) {
+            return null;
+        }
+        if (entradas == claves.length) {
+            claves = Arrays.copyOf(claves, entradas * 2);
+            valores = Arrays.copyOf(valores, entradas * 2);
+        }
+        claves[entradas] = clave;
+        valores[entradas] = valor;
+        tabla[slot] = ++entradas;
+        size++;
+        if (entradas * 2 > tabla.length) {
+            redimensionar();
+        }
+        return null;
+    }
+
+    private void redimensionar() {
+        tabla = new int[tabla.length * 2];
+        for (int e = 0; e < entradas; e++) {
+            tabla[buscar(claves[e])] = e + 1;
+        }
+    }
+
+    /** Entradas con valor. */
+    public int size() {
+        return size;
+    }
+
+    /** Cantidad de entradas para recorrer con claveEn/valorEn (incluye las que quedaron en null). */
+    public int entradas() {
+        return entradas;
+    }
+
+    public int claveEn(int entrada) {
+        return claves[entrada];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valorEn(int entrada) {
+        return (V) valores[entrada];
+    }
+}
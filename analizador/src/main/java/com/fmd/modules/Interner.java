@@ -0,0 +1,127 @@
+package com.fmd.modules;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de nombres de una compilación: asigna a cada identificador distinto un
+ * id entero denso (0, 1, 2, ...) y guarda una sola instancia de su String.
+ *
+ * El lexer la alimenta con IdentifierTokenFactory: cada aparición repetida de
+ * un identificador reutiliza el String ya creado en lugar de copiar el texto
+ * otra vez. Las tablas de símbolos (Entorno, ClassLayout) usan los ids como
+ * claves de mapas IntMap. No es thread-safe; se usa una por compilación.
+ */
+public final class Interner {
+
+    private String[] nombres = new String[64]; // id -> nombre
+    private int[] hashes = new int[64];        // id -> hash del nombre
+    private int[] tabla = new int[128];        // direccionamiento abierto: id + 1, 0 = vacío
+    private int size;
+
+    /** Id del nombre, agregándolo si no existe. */
+    public int intern(String nombre) {
+        int hash = nombre.hashCode();
+        int mascara = tabla.length - 1;
+        for (int i = mezclar(hash) & mascara; ; i = (i + 1) & mascara) {
+            int id = tabla[i] - 1;
+            if (id < 0) {
+                return agregar(nombre, hash, i);
+            }
+            if (hashes[id] == hash && nombres[id].equals(nombre)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Id del nombre formado por los primeros largo caracteres de buffer; solo
+     * se crea un String la primera vez que aparece el nombre.
+     */
+    public int intern(char[] buffer, int largo) {
+        int hash = 0;
+        for (int k = 0; k < largo; k++) {
+            hash = 31 * hash + buffer[k]; // mismo hash que String.hashCode()
+        }
+        int mascara = tabla.length - 1;
+        for (int i = mezclar(hash) & mascara; ; i = (i + 1) & mascara) {
+            int id = tabla[i] - 1;
+            if (id < 0) {
+                return agregar(new String(buffer, 0, largo), hash, i);
+            }
+            if (hashes[id] == hash && igual(nombres[id], buffer, largo)) {
+                return id;
+            }
+        }
+    }
+
+    /** Id del nombre, o -1 si nunca se agregó o es null (no modifica la tabla). */
+    public int id(String nombre) {
+        if (nombre == null) {
+            return -1;
+        }
+        int hash = nombre.hashCode();
+        int mascara = tabla.length - 1;
+        for (int i = mezclar(hash) & mascara; ; i = (i + 1) & mascara) {
+            int id = tabla[i] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (hashes[id] == hash && (nombres[id] == nombre || nombres[id].equals(nombre))) {
+                return id;
+            }
+        }
+    }
+
+    public String nombre(int id) {
+        return nombres[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int agregar(String nombre, int hash, int slot) {
+        int id = size++;
+        if (id == nombres.length) {
+            nombres = Arrays.copyOf(nombres, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        nombres[id] = nombre;
+        hashes[id] = hash;
+        tabla[slot] = id + 1;
+        // Factor de carga máximo 0.5
+        if (size * 2 > tabla.length) {
+            redimensionar();
+        }
+        return id;
+    }
+
+    private void redimensionar() {
+        tabla = new int[tabla.length * 2];
+        int mascara = tabla.length - 1;
+        for (int id = 0; id < size; id++) {
+            int i = mezclar(hashes[id]) & mascara;
+            while (tabla[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = id + 1;
+        }
+    }
+
+    private static boolean igual(String nombre, char[] buffer, int largo) {
+        if (nombre.length() != largo) {
+            return false;
+        }
+        for (int k = 0; k < largo; k++) {
+            if (nombre.charAt(k) != buffer[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Dispersa los bits altos: los hash de String de nombres parecidos difieren en los bajos
+    static int mezclar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fmd.modules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+import com.fmd.SemanticVisitor.Entorno;
+
+/**
+ * Índice de intervalos sobre los rangos de los scopes, para preguntar qué
+ * scope cubre una posición (hover, autocompletado, ir a la definición).
+ *
+ * Al construirse, los extremos de todos los rangos parten el archivo en
+ * segmentos y un barrido guarda para cada segmento el scope más interno que lo
+ * cubre: O(n log n) una vez. Después cada consulta es una búsqueda binaria
+ * sobre los extremos, O(log n) sin importar la profundidad del anidamiento.
+ * Las posiciones que ningún scope cubre pertenecen a la raíz (scope global).
+ */
+public class ScopeIndex {
+
+    // Inicio de cada segmento como clave línea/columna, y scope más interno del segmento
+    private final long[] limites;
+    private final Entorno[] scopes;
+    private final Entorno raiz;
+    private final int numScopes;
+
+    public ScopeIndex(Entorno raiz) {
+        this.raiz = raiz;
+        List<Entorno> conRango = new ArrayList<>();
+        Deque<Entorno> pendientes = new ArrayDeque<>();
+        pendientes.push(raiz);
+        while (!pendientes.isEmpty()) {
+            Entorno e = pendientes.pop();
+            if (e.tieneRango() && clave(e.getLineaInicio(), e.getColumnaInicio()) < fin(e)) {
+                conRango.add(e);
+            }
+            for (Entorno hijo : e.getHijos()) {
+                pendientes.push(hijo);
+            }
+        }
+        this.numScopes = conRango.size();
+
+        long[] extremos = new long[conRango.size() * 2];
+        for (int i = 0; i < conRango.size(); i++) {
+            extremos[2 * i] = inicio(conRango.get(i));
+            extremos[2 * i + 1] = fin(conRango.get(i));
+        }
+        Arrays.sort(extremos);
+        int unicos = 0;
+        for (int i = 0; i < extremos.length; i++) {
+            if (i == 0 || extremos[i] != extremos[i - 1]) {
+                extremos[unicos++] = extremos[i];
+            }
+        }
+        this.limites = Arrays.copyOf(extremos, unicos);
+        this.scopes = new Entorno[unicos];
+
+        // Barrido: entre los scopes activos, el más interno es el que empieza más tarde
+        // (y a igual inicio, el más profundo)
+        conRango.sort(Comparator.comparingLong(ScopeIndex::inicio));
+        Comparator<Entorno> interno = Comparator.comparingLong(ScopeIndex::inicio)
+                .thenComparingInt(Entorno::getProfundidad)
+                .thenComparing(Entorno::getId);
+        TreeSet<Entorno> activos = new TreeSet<>(interno);
+        PriorityQueue<Entorno> porFin = new PriorityQueue<>(Comparator.comparingLong(ScopeIndex::fin));
+        int siguiente = 0;
+        for (int i = 0; i < unicos; i++) {
+            long limite = limites[i];
+            while (!porFin.isEmpty() && fin(porFin.peek()) <= limite) {
+                activos.remove(porFin.poll());
+            }
+            while (siguiente < conRango.size() && inicio(conRango.get(siguiente)) <= limite) {
+                Entorno e = conRango.get(siguiente++);
+                activos.add(e);
+                porFin.add(e);
+            }
+            scopes[i] = activos.isEmpty() ? null : activos.last();
+        }
+    }
+
+    /** Clave ordenable de una posición: línea (desde 1) y columna (desde 0). */
+    public static long clave(int linea, int columna) {
+        return ((long) linea << 32) | (columna & 0xFFFFFFFFL);
+    }
+
+    private static long inicio(Entorno e) {
+        return clave(e.getLineaInicio(), e.getColumnaInicio());
+    }
+
+    private static long fin(Entorno e) {
+        return clave(e.getLineaFin(), e.getColumnaFin());
+    }
+
+    /** Scope más interno que contiene la posición. */
+    public Entorno scopeEn(int linea, int columna) {
+        int i = Arrays.binarySearch(limites, clave(linea, columna));
+        if (i < 0) {
+            i = -i - 2; // último límite menor que la posición
+        }
+        if (i < 0 || scopes[i] == null) {
+            return raiz;
+        }
+        return scopes[i];
+    }
+
+    /** Scopes que contienen la posición, del más interno a la raíz. */
+    public List<Entorno> scopesEn(int linea, int columna) {
+        List<Entorno> cadena = new ArrayList<>();
+        for (Entorno e = scopeEn(linea, columna); e != null; e = e.getPadre()) {
+            cadena.add(e);
+        }
+        return cadena;
+    }
+
+    /** Scopes con rango que forman parte del índice. */
+    public int size() {
+        return numScopes;
+    }
+}
@@ -16,11 +16,11 @@ public class SemanticError {
     // ========================================
 
     // Operaciones aritméticas
-    public static String getArithmeticErrorMessage(String operator, String leftType, String rightType) {
+    public static String getArithmeticErrorMessage(String operator, Type leftType, Type rightType) {
         return "Operación '" + operator + "' no válida entre tipos: '" + leftType + "' y '" + rightType + "'";
     }
 
-    public static String getUnaryArithmeticErrorMessage(String operator, String operandType) {
+    public static String getUnaryArithmeticErrorMessage(String operator, Type operandType) {
         return "Operador '" + operator + "' unario requiere operando integer, encontrado: " + operandType;
     }
 
@@ -29,25 +29,25 @@ public class SemanticError {
     }
 
     // Operaciones lógicas
-    public static String getLogicalErrorMessage(String operator, String operandType, boolean isLeft) {
+    public static String getLogicalErrorMessage(String operator, Type operandType, boolean isLeft) {
         String position = isLeft ? "izquierdo" : "derecho";
         return "Operando " + position + " de '" + operator + "' debe ser boolean, encontrado: " + operandType;
     }
 
-    public static String getUnaryLogicalErrorMessage(String operator, String operandType) {
+    public static String getUnaryLogicalErrorMessage(String operator, Type operandType) {
         return "Operador '" + operator + "' requiere operando boolean, encontrado: " + operandType;
     }
 
     // Operaciones de comparación
-    public static String getComparisonErrorMessage(String operator, String leftType, String rightType) {
+    public static String getComparisonErrorMessage(String operator, Type leftType, Type rightType) {
         return "No se pueden comparar tipos incompatibles: '" + leftType + "' " + operator + " '" + rightType + "'";
     }
 
-    public static String getRelationalErrorMessage(String operator, String leftType, String rightType) {
+    public static String getRelationalErrorMessage(String operator, Type leftType, Type rightType) {
         return "Operación relacional '" + operator + "' no válida entre tipos: '" + leftType + "' y '" + rightType + "'";
     }
 
-    public static String getNonOrderableTypeMessage(String operator, String type) {
+    public static String getNonOrderableTypeMessage(String operator, Type type) {
         return "Operación relacional '" + operator + "' no soportada para tipo: '" + type + "'";
     }
 
@@ -64,6 +64,11 @@ public class SemanticError {
         return columna;
     }
 
+    /** Fase que detectó el error: "semantico" o "sintactico". */
+    public String getTipo() {
+        return "semantico";
+    }
+
     @Override
     public String toString() {
         return "[ERROR SEMÁNTICO] " + mensaje + " (línea " + linea + ", columna " + columna + ")";
@@ -0,0 +1,102 @@
+package com.fmd.modules;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Proyección de un símbolo para la respuesta JSON: name, type, kind, line,
+ * column y el id del scope donde se declaró. Es un Map de solo lectura con
+ * campos fijos en lugar de un HashMap por símbolo; Jackson lo serializa como
+ * cualquier otro Map y las entradas se crean solo al recorrerlo.
+ */
+public final class SimboloExportado extends AbstractMap<String, Object> {
+
+    private static final String[] CLAVES = {"name", "type", "kind", "line", "column", "scope"};
+
+    private final String name;
+    private final String type;
+    private final Symbol.Kind kind;
+    private final int line;
+    private final int column;
+    private final String scope;
+
+    public SimboloExportado(Symbol simbolo, String scope) {
+        this.name = simbolo.getName();
+        this.type = simbolo.getType();
+        this.kind = simbolo.getKind();
+        this.line = simbolo.getLine();
+        this.column = simbolo.getColumn();
+        this.scope = scope;
+    }
+
+    private Object valor(int i) {
+        switch (i) {
+            case 0: return name;
+            case 1: return type;
+            case 2: return kind;
+            case 3: return line;
+            case 4: return column;
+            default: return scope;
+        }
+    }
+
+    @Override
+    public Object get(Object clave) {
+        for (int i = 0; i < CLAVES.length; i++) {
+            if (CLAVES[i].equals(clave)) {
+                return valor(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object clave) {
+        for (String c : CLAVES) {
+            if (c.equals(clave)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return CLAVES.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < CLAVES.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (i >= CLAVES.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> entrada = new SimpleImmutableEntry<>(CLAVES[i], valor(i));
+                        i++;
+                        return entrada;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CLAVES.length;
+            }
+        };
+    }
+}
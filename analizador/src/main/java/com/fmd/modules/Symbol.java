@@ -5,6 +5,13 @@ import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.util.*;
 
+/**
+ * Los campos que solo usan algunas clases de símbolo se asignan bajo demanda:
+ * parámetros (funciones), variables capturadas (funciones anidadas), miembros
+ * (clases y funciones) y los datos de generación de código. Mientras no se
+ * asignan, los getters devuelven colecciones vacías de solo lectura o ceros,
+ * así una variable local no paga por tablas que nunca usa.
+ */
 public class Symbol {
     public enum Kind {
         VARIABLE, CONSTANT, FUNCTION, CLASS
@@ -16,30 +23,42 @@ public class Symbol {
     private final ParserRuleContext declNode;
     private final int line;
     private final int column;
-    private List<Symbol> params = new ArrayList<>(); // para funciones
+    private List<Symbol> params; // para funciones, null hasta el primer parámetro
     private boolean mutable; // para variables/constantes
     private boolean nested;
     private String EnclosingFunctionName;
 
-    private Set<String> CapturedVariables = new HashSet<>();
+    private Set<String> CapturedVariables; // solo funciones anidadas
     private String superClass;
     private String enclosingClassName;
-    private Map<String, Symbol> members = new HashMap<>();
+    private Map<String, Symbol> members; // null hasta el primer miembro
+    private boolean membersPropios;      // false si members es el mapa recibido en setMembers
     private boolean initialized = false;
     private boolean constructor = false;
 
-    // PARA GENERACIÓN DE CÓDIGO INTERMEDIO
-    private String tacAddress;   // Nombre en TAC: variable, temporal o etiqueta
-    private int offset;          // Desplazamiento en el frame o en el objeto
-    private int size;            // Tamaño en bytes (sirve para calcular offsets)
+    // PARA GENERACIÓN DE CÓDIGO INTERMEDIO (se crea con el primer setter)
+    private DatosCodigo codigo;
 
-    // Para arrays/structs
-    private List<Integer> dimensions; // Si es array: [10], [10,20]...
-    private int elementSize;          // Tamaño de cada elemento
+    private static final class DatosCodigo {
+        private String tacAddress;   // Nombre en TAC: variable, temporal o etiqueta
+        private int offset;          // Desplazamiento en el frame o en el objeto
+        private int size;            // Tamaño en bytes (sirve para calcular offsets)
 
-    // Para funciones
-    private int paramCount;      // Cantidad de parámetros
-    private int localVarSize;    // Tamaño total de locales (para reservar stack)
+        // Para arrays/structs
+        private List<Integer> dimensions; // Si es array: [10], [10,20]...
+        private int elementSize;          // Tamaño de cada elemento
+
+        // Para funciones
+        private int paramCount;      // Cantidad de parámetros
+        private int localVarSize;    // Tamaño total de locales (para reservar stack)
+    }
+
+    private DatosCodigo codigo() {
+        if (codigo == null) {
+            codigo = new DatosCodigo();
+        }
+        return codigo;
+    }
 
     public Symbol(String name, Kind kind, String type, ParserRuleContext declNode, int line, int column,
             boolean mutable) {
@@ -86,14 +105,17 @@ public class Symbol {
     }
 
     public List<Symbol> getParams() {
-        return params;
+        return params == null ? Collections.emptyList() : params;
     }
 
     public int getParameterCount() {
-        return params.size();
+        return params == null ? 0 : params.size();
     }
 
     public void addParameter(Symbol newParam) {
+        if (params == null) {
+            params = new ArrayList<>(4);
+        }
         params.add(newParam);
     }
 
@@ -114,7 +136,7 @@ public class Symbol {
     }
 
     public Set<String> getCapturedVariables() {
-        return CapturedVariables;
+        return CapturedVariables == null ? Collections.emptySet() : CapturedVariables;
     }
 
     public void setCapturedVariables(Set<String> capturedVariables) {
@@ -138,14 +160,24 @@ public class Symbol {
     }
 
     public Map<String, Symbol> getMembers() {
-        return members;
+        return members == null ? Collections.emptyMap() : members;
     }
 
+    /**
+     * Usa el mapa recibido como tabla de miembros sin copiarlo. Suele ser la
+     * vista de solo lectura de un scope (Entorno.getSymbolsLocal()).
+     */
     public void setMembers(Map<String, Symbol> symbols) {
         members = symbols;
+        membersPropios = false;
     }
 
+    /** Agrega un miembro. Si la tabla vino de setMembers, primero se copia y el mapa recibido no cambia. */
     public void addMember(Symbol s) {
+        if (!membersPropios) {
+            members = members == null ? new HashMap<>() : new LinkedHashMap<>(members);
+            membersPropios = true;
+        }
         members.put(s.getName(), s);
     }
 
@@ -162,59 +194,59 @@ public class Symbol {
     }
 
     public String getTacAddress() {
-        return tacAddress;
+        return codigo == null ? null : codigo.tacAddress;
     }
 
     public void setTacAddress(String tacAddress) {
-        this.tacAddress = tacAddress;
+        codigo().tacAddress = tacAddress;
     }
 
     public int getOffset() {
-        return offset;
+        return codigo == null ? 0 : codigo.offset;
     }
 
     public void setOffset(int offset) {
-        this.offset = offset;
+        codigo().offset = offset;
     }
 
     public int getSize() {
-        return size;
+        return codigo == null ? 0 : codigo.size;
     }
 
     public void setSize(int size) {
-        this.size = size;
+        codigo().size = size;
     }
 
     public List<Integer> getDimensions() {
-        return dimensions;
+        return codigo == null ? null : codigo.dimensions;
     }
 
     public void setDimensions(List<Integer> dimensions) {
-        this.dimensions = dimensions;
+        codigo().dimensions = dimensions;
     }
 
     public int getElementSize() {
-        return elementSize;
+        return codigo == null ? 0 : codigo.elementSize;
     }
 
     public void setElementSize(int elementSize) {
-        this.elementSize = elementSize;
+        codigo().elementSize = elementSize;
     }
 
     public int getParamCount() {
-        return paramCount;
+        return codigo == null ? 0 : codigo.paramCount;
     }
 
     public void setParamCount(int paramCount) {
-        this.paramCount = paramCount;
+        codigo().paramCount = paramCount;
     }
 
     public int getLocalVarSize() {
-        return localVarSize;
+        return codigo == null ? 0 : codigo.localVarSize;
     }
 
     public void setLocalVarSize(int localVarSize) {
-        this.localVarSize = localVarSize;
+        codigo().localVarSize = localVarSize;
     }
 
     public boolean isGlobal() {
@@ -244,9 +276,9 @@ public class Symbol {
                 name +
                 ":" +
                 type +
-                " [addr=" + (tacAddress != null ? tacAddress : "-") +
-                ", size=" + size +
-                ", offset=" + offset + "]" +
+                " [addr=" + (getTacAddress() != null ? getTacAddress() : "-") +
+                ", size=" + getSize() +
+                ", offset=" + getOffset() + "]" +
                 " (line " + line + ":" + column + ")";
     }
 
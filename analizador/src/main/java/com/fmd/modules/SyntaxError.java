@@ -0,0 +1,22 @@
+package com.fmd.modules;
+
+/**
+ * Error léxico o sintáctico reportado por ANTLR. Comparte el modelo de
+ * SemanticError para que la API y el IDE los muestren en la misma lista.
+ */
+public class SyntaxError extends SemanticError {
+
+    public SyntaxError(String mensaje, int linea, int columna) {
+        super(mensaje, linea, columna);
+    }
+
+    @Override
+    public String getTipo() {
+        return "sintactico";
+    }
+
+    @Override
+    public String toString() {
+        return "[ERROR SINTÁCTICO] " + getMensaje() + " (línea " + getLinea() + ", columna " + getColumna() + ")";
+    }
+}
@@ -0,0 +1,62 @@
+package com.fmd.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Reemplaza al ConsoleErrorListener de ANTLR en el lexer y el parser: guarda
+ * cada error como SyntaxError en lugar de imprimirlo en stderr. Al llegar al
+ * máximo configurado agrega un aviso y cancela el parseo, porque los errores
+ * siguientes suelen ser consecuencia del primero.
+ */
+public class SyntaxErrorListener extends BaseErrorListener {
+
+    private final int maxErrores;
+    private final Consumer<SemanticError> escucha;
+    private final List<SemanticError> errores = new ArrayList<>();
+
+    /**
+     * @param maxErrores máximo de errores a reportar (0 = sin límite)
+     * @param escucha    recibe cada error en cuanto se detecta (puede ser null)
+     */
+    public SyntaxErrorListener(int maxErrores, Consumer<SemanticError> escucha) {
+        this.maxErrores = maxErrores;
+        this.escucha = escucha;
+    }
+
+    public SyntaxErrorListener() {
+        this(0, null);
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+        agregar(new SyntaxError(msg, line, charPositionInLine));
+        if (maxErrores > 0 && errores.size() >= maxErrores) {
+            agregar(new SyntaxError("Se alcanzó el máximo de " + maxErrores
+                    + " errores de sintaxis; se omiten los demás", line, charPositionInLine));
+            throw new ParseCancellationException("Máximo de errores de sintaxis alcanzado");
+        }
+    }
+
+    private void agregar(SemanticError error) {
+        errores.add(error);
+        if (escucha != null) {
+            escucha.accept(error);
+        }
+    }
+
+    public boolean hayErrores() {
+        return !errores.isEmpty();
+    }
+
+    public List<SemanticError> getErrores() {
+        return errores;
+    }
+}
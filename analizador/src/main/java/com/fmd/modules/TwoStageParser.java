@@ -0,0 +1,96 @@
+package com.fmd.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import com.fmd.CompiscriptParser;
+
+/**
+ * Parseo en dos etapas. Primero se intenta con PredictionMode.SLL y
+ * BailErrorStrategy, que es mucho más barato y basta para casi todos los
+ * programas válidos. Si SLL falla (error de sintaxis real o una decisión que
+ * SLL no resuelve), se rebobina el token stream y se parsea de nuevo en modo
+ * LL completo con la estrategia de errores normal, que reporta y se recupera
+ * como antes.
+ */
+public final class TwoStageParser {
+
+    public enum Etapa {
+        SLL, LL
+    }
+
+    /** Árbol resultante y etapa que lo produjo. */
+    public static class Resultado {
+        private final CompiscriptParser.ProgramContext arbol;
+        private final Etapa etapa;
+
+        Resultado(CompiscriptParser.ProgramContext arbol, Etapa etapa) {
+            this.arbol = arbol;
+            this.etapa = etapa;
+        }
+
+        public CompiscriptParser.ProgramContext getArbol() {
+            return arbol;
+        }
+
+        public Etapa getEtapa() {
+            return etapa;
+        }
+    }
+
+    private TwoStageParser() {
+    }
+
+    public static Resultado parsear(CompiscriptParser parser) {
+        return parsear(parser, () -> {
+        });
+    }
+
+    /**
+     * Igual que parsear(parser); antesDeLL se ejecuta si SLL falla, antes de
+     * volver a empezar. Los parse listeners del parser ya vieron las reglas del
+     * intento SLL, que se descarta: aquí se reinicia lo que hayan contado.
+     */
+    public static Resultado parsear(CompiscriptParser parser, Runnable antesDeLL) {
+        ANTLRErrorStrategy estrategia = parser.getErrorHandler();
+        List<ANTLRErrorListener> escuchas = new ArrayList<>(parser.getErrorListeners());
+
+        // 1. SLL sin reportar nada: un fallo aquí no es necesariamente un error de sintaxis
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.removeErrorListeners();
+        try {
+            return new Resultado(parser.program(), Etapa.SLL);
+        } catch (ParseCancellationException e) {
+            // 2. LL completo desde el inicio, con los listeners y la estrategia originales
+            parser.setErrorHandler(estrategia);
+            parser.reset(); // rebobina el token stream y reinicia la estrategia
+            antesDeLL.run();
+            for (ANTLRErrorListener escucha : escuchas) {
+                parser.addErrorListener(escucha);
+            }
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return new Resultado(parser.program(), Etapa.LL);
+        } finally {
+            if (parser.getErrorListeners().isEmpty()) {
+                for (ANTLRErrorListener escucha : escuchas) {
+                    parser.addErrorListener(escucha);
+                }
+            }
+            parser.setErrorHandler(estrategia);
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        }
+    }
+
+    /** Parseo tradicional en una sola etapa LL, para comparar o desactivar la optimización. */
+    public static Resultado parsearLL(CompiscriptParser parser) {
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        return new Resultado(parser.program(), Etapa.LL);
+    }
+}
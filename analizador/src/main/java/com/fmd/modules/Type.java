@@ -0,0 +1,99 @@
+package com.fmd.modules;
+
+/**
+ * Tipo canónico del análisis semántico. Dentro de una compilación cada tipo
+ * existe una sola vez (ver TypeTable), así que dos tipos son iguales si y solo
+ * si son la misma instancia y comparar es un ==.
+ *
+ * - Primitivos y centinelas: constantes compartidas por todas las compilaciones.
+ * - Arreglos: el tipo del elemento y la cantidad de dimensiones ya calculados,
+ *   así indexar o iterar no vuelve a parsear el nombre.
+ * - Clases: enlazadas al Symbol de su declaración en la compilación.
+ *
+ * getNombre() es el mismo texto que usaban los visitors ("integer[]",
+ * "desconocido", ...), que sigue apareciendo en los mensajes de error.
+ */
+public final class Type {
+
+    public enum Categoria {
+        PRIMITIVO, CLASE, ARREGLO, NULO, VACIO, ERROR, DESCONOCIDO
+    }
+
+    public static final Type INTEGER = new Type("integer", Categoria.PRIMITIVO, null);
+    public static final Type STRING = new Type("string", Categoria.PRIMITIVO, null);
+    public static final Type BOOLEAN = new Type("boolean", Categoria.PRIMITIVO, null);
+    public static final Type NULL = new Type("null", Categoria.NULO, null);
+    public static final Type VOID = new Type("void", Categoria.VACIO, null);
+    public static final Type ERROR = new Type("ERROR", Categoria.ERROR, null);
+    public static final Type DESCONOCIDO = new Type("desconocido", Categoria.DESCONOCIDO, null);
+    /** Elemento de un arreglo literal con elementos de distintos tipos. */
+    public static final Type MIXTO = new Type("mixed", Categoria.DESCONOCIDO, null);
+    /** Arreglo literal vacío "[]": compatible con cualquier tipo arreglo. */
+    public static final Type ARREGLO_VACIO = new Type("array[]", Categoria.ARREGLO, DESCONOCIDO);
+    public static final Type ARREGLO_MIXTO = new Type("mixed[]", Categoria.ARREGLO, MIXTO);
+
+    private final String nombre;
+    private final Categoria categoria;
+    private final Type elemento;    // arreglos: tipo de cada elemento (una dimensión menos)
+    private final int dimensiones;  // 0 si no es arreglo
+    private Symbol clase;           // clases: declaración, si ya se conoce
+
+    Type(String nombre, Categoria categoria, Type elemento) {
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.elemento = elemento;
+        this.dimensiones = elemento == null ? 0 : elemento.dimensiones + 1;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public boolean esArreglo() {
+        return categoria == Categoria.ARREGLO;
+    }
+
+    public boolean esPrimitivo() {
+        return categoria == Categoria.PRIMITIVO;
+    }
+
+    public boolean esClase() {
+        return categoria == Categoria.CLASE;
+    }
+
+    /** Tipo del elemento de un arreglo; null si no es arreglo. */
+    public Type getElemento() {
+        return elemento;
+    }
+
+    public int getDimensiones() {
+        return dimensiones;
+    }
+
+    /** Tipo que queda después de quitar todas las dimensiones. */
+    public Type getBase() {
+        Type t = this;
+        while (t.elemento != null) {
+            t = t.elemento;
+        }
+        return t;
+    }
+
+    /** Symbol de la clase; null si no es una clase o si aún no se declaró. */
+    public Symbol getClase() {
+        return clase;
+    }
+
+    void setClase(Symbol clase) {
+        this.clase = clase;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
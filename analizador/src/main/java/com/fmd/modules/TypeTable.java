@@ -0,0 +1,86 @@
+package com.fmd.modules;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tipos canónicos de una compilación. Cada nombre de tipo se parsea una sola
+ * vez (contar los "[]" del final); las consultas siguientes son un get en un
+ * HashMap, y como los nombres suelen ser literales o Strings del Interner su
+ * hash ya está calculado.
+ *
+ * Es una tabla por compilación (la crea SemanticVisitor): los tipos de clase
+ * quedan enlazados al Symbol de esa compilación y no se retienen después. No
+ * es thread-safe.
+ */
+public final class TypeTable {
+
+    private final Map<String, Type> porNombre = new HashMap<>();
+    private final Map<Type, Type> arreglos = new IdentityHashMap<>(); // T -> T[]
+
+    public TypeTable() {
+        for (Type t : new Type[] {Type.INTEGER, Type.STRING, Type.BOOLEAN, Type.NULL, Type.VOID, Type.ERROR,
+                Type.DESCONOCIDO, Type.MIXTO, Type.ARREGLO_VACIO, Type.ARREGLO_MIXTO}) {
+            porNombre.put(t.getNombre(), t);
+        }
+        arreglos.put(Type.MIXTO, Type.ARREGLO_MIXTO);
+    }
+
+    /** Tipo canónico del nombre ("integer", "Persona[][]", ...); null si el nombre es null. */
+    public Type of(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        Type t = porNombre.get(nombre);
+        return t != null ? t : parsear(nombre);
+    }
+
+    private Type parsear(String nombre) {
+        int fin = nombre.length();
+        int dimensiones = 0;
+        while (fin >= 2 && nombre.charAt(fin - 1) == ']' && nombre.charAt(fin - 2) == '[') {
+            fin -= 2;
+            dimensiones++;
+        }
+        Type t;
+        if (dimensiones == 0) {
+            t = new Type(nombre, Type.Categoria.CLASE, null);
+        } else {
+            t = of(nombre.substring(0, fin));
+            for (int i = 0; i < dimensiones; i++) {
+                t = arreglo(t);
+            }
+        }
+        porNombre.put(nombre, t);
+        return t;
+    }
+
+    /** Tipo T[] canónico para el elemento T. */
+    public Type arreglo(Type elemento) {
+        Type t = arreglos.get(elemento);
+        if (t == null) {
+            String nombre = elemento.getNombre() + "[]";
+            t = porNombre.get(nombre);
+            if (t == null) {
+                t = new Type(nombre, Type.Categoria.ARREGLO, elemento);
+                porNombre.put(nombre, t);
+            }
+            arreglos.put(elemento, t);
+        }
+        return t;
+    }
+
+    /** Enlaza el tipo de la clase con su declaración (la primera, si se repite). */
+    public Type declararClase(Symbol clase) {
+        Type t = of(clase.getName());
+        if (t.esClase() && t.getClase() == null) {
+            t.setClase(clase);
+        }
+        return t;
+    }
+
+    public int size() {
+        return porNombre.size();
+    }
+}
@@ -0,0 +1,291 @@
+package com.fmd.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.LookaheadEventInfo;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import com.fmd.CompiscriptLexer;
+import com.fmd.CompiscriptParser;
+import com.fmd.additions.MappedCharStream;
+import com.fmd.modules.SyntaxErrorListener;
+
+/**
+ * Perfil de las decisiones de la gramática sobre un corpus de programas .cps.
+ * Cada archivo se parsea con parser.setProfile(true) (ProfilingATNSimulator) en
+ * modo LL, que intenta SLL y pasa a contexto completo solo ante un conflicto,
+ * igual que la segunda etapa de TwoStageParser. Las estadísticas de cada
+ * decisión se suman entre archivos y se ordenan por tiempo de predicción.
+ *
+ * Solo aparecen las decisiones que llegan a adaptivePredict: las LL(1) se
+ * resuelven con un switch en el código generado y no tienen costo de predicción.
+ *
+ * La caché DFA de ANTLR es estática: el primer archivo paga la construcción del
+ * DFA (transiciones ATN) y los siguientes la reutilizan, como en el servidor.
+ */
+public class GrammarProfiler {
+
+    /** Estadísticas acumuladas de una decisión de la gramática. */
+    public static class Decision {
+        private final int decision;
+        private final String regla;
+        private long invocaciones;
+        private long tiempoNanos;
+        private long sllTotal;
+        private long sllMax;
+        private long transicionesSll;
+        private long llFallback;
+        private long llTotal;
+        private long llMax;
+        private long transicionesLl;
+        private long ambiguedades;
+        private long sensibilidades;
+        private long errores;
+        private String peorCaso = "";
+
+        Decision(int decision, String regla) {
+            this.decision = decision;
+            this.regla = regla;
+        }
+
+        private void sumar(DecisionInfo info, String archivo, CommonTokenStream tokens) {
+            invocaciones += info.invocations;
+            tiempoNanos += info.timeInPrediction;
+            sllTotal += info.SLL_TotalLook;
+            transicionesSll += info.SLL_ATNTransitions;
+            llFallback += info.LL_Fallback;
+            llTotal += info.LL_TotalLook;
+            transicionesLl += info.LL_ATNTransitions;
+            ambiguedades += info.ambiguities.size();
+            sensibilidades += info.contextSensitivities.size();
+            errores += info.errors.size();
+
+            // El peor caso es el de mayor lookahead, sea en SLL o en LL
+            long maxAnterior = Math.max(sllMax, llMax);
+            sllMax = Math.max(sllMax, info.SLL_MaxLook);
+            llMax = Math.max(llMax, info.LL_MaxLook);
+            if (info.LL_MaxLook > maxAnterior && info.LL_MaxLook >= info.SLL_MaxLook) {
+                peorCaso = ubicacion(archivo, tokens, info.LL_MaxLookEvent);
+            } else if (info.SLL_MaxLook > maxAnterior) {
+                peorCaso = ubicacion(archivo, tokens, info.SLL_MaxLookEvent);
+            }
+        }
+
+        private static String ubicacion(String archivo, CommonTokenStream tokens, LookaheadEventInfo evento) {
+            if (evento == null || evento.startIndex < 0 || evento.startIndex >= tokens.size()) {
+                return archivo;
+            }
+            Token token = tokens.get(evento.startIndex);
+            return archivo + ":" + token.getLine() + ":" + token.getCharPositionInLine();
+        }
+
+        public int getDecision() {
+            return decision;
+        }
+
+        public String getRegla() {
+            return regla;
+        }
+
+        public long getInvocaciones() {
+            return invocaciones;
+        }
+
+        public long getTiempoNanos() {
+            return tiempoNanos;
+        }
+
+        public double getLookaheadSllPromedio() {
+            return invocaciones == 0 ? 0 : (double) sllTotal / invocaciones;
+        }
+
+        public long getLookaheadSllMax() {
+            return sllMax;
+        }
+
+        public long getTransicionesSll() {
+            return transicionesSll;
+        }
+
+        public long getLlFallback() {
+            return llFallback;
+        }
+
+        public double getLookaheadLlPromedio() {
+            return llFallback == 0 ? 0 : (double) llTotal / llFallback;
+        }
+
+        public long getLookaheadLlMax() {
+            return llMax;
+        }
+
+        public long getTransicionesLl() {
+            return transicionesLl;
+        }
+
+        public long getAmbiguedades() {
+            return ambiguedades;
+        }
+
+        public long getSensibilidadesContexto() {
+            return sensibilidades;
+        }
+
+        public long getErrores() {
+            return errores;
+        }
+
+        /** archivo:línea:columna donde la decisión necesitó más lookahead. */
+        public String getPeorCaso() {
+            return peorCaso;
+        }
+    }
+
+    /** Resultado del perfil: decisiones ordenadas de mayor a menor costo. */
+    public static class Reporte {
+        private final List<Decision> decisiones;
+        private final int archivos;
+        private final int archivosConErrores;
+        private final long tokens;
+        private final long nanosParseo;
+
+        Reporte(List<Decision> decisiones, int archivos, int archivosConErrores, long tokens, long nanosParseo) {
+            this.decisiones = decisiones;
+            this.archivos = archivos;
+            this.archivosConErrores = archivosConErrores;
+            this.tokens = tokens;
+            this.nanosParseo = nanosParseo;
+        }
+
+        public List<Decision> getDecisiones() {
+            return decisiones;
+        }
+
+        public int getArchivos() {
+            return archivos;
+        }
+
+        public int getArchivosConErrores() {
+            return archivosConErrores;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        public long getNanosParseo() {
+            return nanosParseo;
+        }
+
+        public String formatear(int top) {
+            long nanosPrediccion = decisiones.stream().mapToLong(Decision::getTiempoNanos).sum();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d archivos (%d con errores de sintaxis), %d tokens, parseo %.2f ms, predicción %.2f ms%n",
+                    archivos, archivosConErrores, tokens, nanosParseo / 1e6, nanosPrediccion / 1e6));
+            sb.append(String.format("%-4s %-4s %-22s %10s %9s %8s %7s %8s %7s %7s %7s %6s  %s%n",
+                    "#", "dec", "regla", "invoc", "ms", "SLL avg", "SLL max", "LL fall", "LL avg", "LL max",
+                    "ambig", "ctx", "peor caso"));
+            int limite = top > 0 ? Math.min(top, decisiones.size()) : decisiones.size();
+            for (int i = 0; i < limite; i++) {
+                Decision d = decisiones.get(i);
+                sb.append(String.format("%-4d %-4d %-22s %10d %9.3f %8.2f %7d %8d %7.2f %7d %7d %6d  %s%n",
+                        i + 1, d.decision, d.regla, d.invocaciones, d.tiempoNanos / 1e6,
+                        d.getLookaheadSllPromedio(), d.sllMax, d.llFallback, d.getLookaheadLlPromedio(), d.llMax,
+                        d.ambiguedades, d.sensibilidades, d.peorCaso));
+            }
+            return sb.toString();
+        }
+    }
+
+    private GrammarProfiler() {
+    }
+
+    /** Programas .cps bajo la raíz (recursivo), en orden estable. */
+    public static List<Path> buscarProgramas(Path raiz) throws IOException {
+        if (Files.isRegularFile(raiz)) {
+            return List.of(raiz);
+        }
+        try (Stream<Path> archivos = Files.walk(raiz)) {
+            return archivos.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".cps"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static Reporte perfilar(List<Path> archivos) throws IOException {
+        List<Decision> decisiones = new ArrayList<>();
+        int conErrores = 0;
+        long tokensTotales = 0;
+        long nanosParseo = 0;
+
+        for (Path archivo : archivos) {
+            SyntaxErrorListener sintaxis = new SyntaxErrorListener(0, null);
+            CompiscriptLexer lexer = new CompiscriptLexer(MappedCharStream.fromPath(archivo));
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(sintaxis);
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            tokens.fill();
+
+            CompiscriptParser parser = new CompiscriptParser(tokens);
+            parser.removeErrorListeners();
+            parser.addErrorListener(sintaxis);
+            parser.setProfile(true);
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+            long inicio = System.nanoTime();
+            parser.program();
+            nanosParseo += System.nanoTime() - inicio;
+            tokensTotales += tokens.size();
+            if (sintaxis.hayErrores()) {
+                conErrores++;
+            }
+
+            DecisionInfo[] infos = parser.getParseInfo().getDecisionInfo();
+            for (DecisionInfo info : infos) {
+                while (decisiones.size() <= info.decision) {
+                    int d = decisiones.size();
+                    int regla = parser.getATN().getDecisionState(d).ruleIndex;
+                    decisiones.add(new Decision(d, CompiscriptParser.ruleNames[regla]));
+                }
+                decisiones.get(info.decision).sumar(info, archivo.getFileName().toString(), tokens);
+            }
+        }
+
+        List<Decision> usadas = decisiones.stream()
+                .filter(d -> d.invocaciones > 0)
+                .sorted(Comparator.comparingLong(Decision::getTiempoNanos).reversed()
+                        .thenComparing(Comparator.comparingLong(Decision::getInvocaciones).reversed()))
+                .collect(Collectors.toList());
+        return new Reporte(usadas, archivos.size(), conErrores, tokensTotales, nanosParseo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Argumentos: [directorio o archivo] [--top N]
+        Path raiz = Path.of("src", "main", "java", "com", "fmd");
+        int top = 20;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--top") && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else {
+                raiz = Path.of(args[i]);
+            }
+        }
+
+        List<Path> programas = buscarProgramas(raiz);
+        if (programas.isEmpty()) {
+            System.out.println("No se encontraron archivos .cps en " + raiz);
+            return;
+        }
+        System.out.print(perfilar(programas).formatear(top));
+    }
+}
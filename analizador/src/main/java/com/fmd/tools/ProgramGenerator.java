@@ -0,0 +1,316 @@
+package com.fmd.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generador de programas Compiscript válidos (sintáctica y semánticamente) para
+ * pruebas de escala y benchmarks. Cada forma estira una dimensión del programa
+ * (profundidad de bloques, largo de una expresión, miembros de una clase, ...)
+ * para encontrar comportamiento superlineal en el lexer, el parser o el
+ * SemanticVisitor. Con la misma semilla se genera exactamente el mismo texto.
+ *
+ * Las estructuras anidadas se abren y cierran con ciclos, no con recursión, así
+ * que el generador no tiene límite de profundidad propio.
+ */
+public class ProgramGenerator {
+
+    public enum Forma {
+        /** Bloques if/while/{ } anidados, cada uno con sus propias variables. */
+        ANIDAMIENTO,
+        /** Una expresión aritmética y una lógica con muchos operandos. */
+        EXPRESION,
+        /** Una clase con muchos atributos y métodos. */
+        CLASE_ANCHA,
+        /** Una cadena de herencia de muchas clases. */
+        HERENCIA,
+        /** Muchas funciones que se llaman entre sí. */
+        FUNCIONES,
+        /** Un literal de arreglo (y una matriz) con muchos elementos. */
+        ARREGLO,
+        /** Sentencias de todo tipo al azar, como un programa común pero largo. */
+        MIXTO
+    }
+
+    private static final String[] TIPOS = {"integer", "string", "boolean"};
+    private static final String[] ARITMETICOS = {"+", "-", "*"};
+    private static final String[] RELACIONALES = {"<", "<=", ">", ">=", "==", "!="};
+
+    private final Random random;
+    private final StringBuilder sb = new StringBuilder();
+    private int indentacion;
+    private int contador;
+
+    public ProgramGenerator(long semilla) {
+        this.random = new Random(semilla);
+    }
+
+    /** Genera un programa de la forma pedida; tamanio es la dimensión que se estira. */
+    public String generar(Forma forma, int tamanio) {
+        sb.setLength(0);
+        indentacion = 0;
+        contador = 0;
+        linea("// Generado: " + forma.name().toLowerCase(Locale.ROOT) + " " + tamanio);
+        switch (forma) {
+            case ANIDAMIENTO -> anidamiento(tamanio);
+            case EXPRESION -> expresion(tamanio);
+            case CLASE_ANCHA -> claseAncha(tamanio);
+            case HERENCIA -> herencia(tamanio);
+            case FUNCIONES -> funciones(tamanio);
+            case ARREGLO -> arreglo(tamanio);
+            case MIXTO -> mixto(tamanio);
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------
+    // Formas
+    // ---------------------------
+    private void anidamiento(int profundidad) {
+        linea("let contador: integer = 0;");
+        for (int i = 0; i < profundidad; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> abrir("if (contador " + elegir(RELACIONALES) + " " + entero() + ")");
+                case 1 -> abrir("while (contador < " + entero() + ")");
+                default -> abrir("");
+            }
+            linea("let v" + i + ": integer = contador + " + entero() + ";");
+            linea("contador = contador + v" + i + ";");
+        }
+        for (int i = 0; i < profundidad; i++) {
+            cerrar();
+        }
+        linea("print(contador);");
+    }
+
+    private void expresion(int operandos) {
+        linea("let a: integer = " + entero() + ";");
+        linea("let b: integer = " + entero() + ";");
+        StringBuilder e = new StringBuilder(operandos * 6);
+        e.append(operandoEntero());
+        for (int i = 1; i < operandos; i++) {
+            e.append(' ').append(elegir(ARITMETICOS)).append(' ');
+            // De vez en cuando un grupo entre paréntesis para variar la forma del árbol
+            if (random.nextInt(8) == 0) {
+                e.append('(').append(operandoEntero()).append(" * ").append(operandoEntero()).append(')');
+            } else {
+                e.append(operandoEntero());
+            }
+        }
+        linea("let total: integer = " + e + ";");
+
+        StringBuilder l = new StringBuilder(operandos * 10);
+        l.append("a < ").append(entero());
+        for (int i = 1; i < operandos; i++) {
+            l.append(random.nextBoolean() ? " && " : " || ");
+            l.append(operandoEntero()).append(' ').append(elegir(RELACIONALES)).append(' ').append(operandoEntero());
+        }
+        linea("let condicion: boolean = " + l + ";");
+        linea("print(total);");
+    }
+
+    private void claseAncha(int miembros) {
+        abrir("class Ancha");
+        for (int i = 0; i < miembros; i++) {
+            String tipo = TIPOS[i % TIPOS.length];
+            linea("var campo" + i + ": " + tipo + " = " + literal(tipo) + ";");
+            if (i % 2 == 1) {
+                abrir("function metodo" + i + "(): " + tipo);
+                linea("return this.campo" + i + ";");
+                cerrar();
+            }
+        }
+        cerrar();
+        linea("let ancha: Ancha = new Ancha();");
+        for (int i = 0; i < Math.min(miembros, 10); i++) {
+            int k = random.nextInt(miembros);
+            linea(k % 2 == 1 ? "print(ancha.metodo" + k + "());" : "print(ancha.campo" + k + ");");
+        }
+    }
+
+    private void herencia(int profundidad) {
+        for (int i = 0; i < profundidad; i++) {
+            abrir("class Nivel" + i + (i > 0 ? " : Nivel" + (i - 1) : ""));
+            linea("var campo" + i + ": integer = " + entero() + ";");
+            abrir("function metodo" + i + "(): integer");
+            linea("return this.campo" + i + (i > 0 ? " + this.campo" + (i - 1) : "") + ";");
+            cerrar();
+            cerrar();
+        }
+        if (profundidad > 0) {
+            int ultimo = profundidad - 1;
+            linea("let hoja: Nivel" + ultimo + " = new Nivel" + ultimo + "();");
+            linea("print(hoja.metodo0());");
+            linea("print(hoja.metodo" + ultimo + "());");
+        }
+    }
+
+    private void funciones(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            abrir("function f" + i + "(x: integer, y: integer): integer");
+            linea("let t: integer = x " + elegir(ARITMETICOS) + " y;");
+            if (i > 0) {
+                int llamada = random.nextInt(i);
+                linea("t = t + f" + llamada + "(y, " + entero() + ");");
+            }
+            abrir("if (t > " + entero() + ")");
+            linea("return t - x;");
+            cerrar();
+            linea("return t;");
+            cerrar();
+        }
+        if (cantidad > 0) {
+            linea("print(f" + (cantidad - 1) + "(1, 2));");
+        }
+    }
+
+    private void arreglo(int elementos) {
+        StringBuilder a = new StringBuilder(elementos * 4);
+        for (int i = 0; i < elementos; i++) {
+            a.append(i > 0 ? ", " : "").append(entero());
+        }
+        linea("let datos: integer[] = [" + a + "];");
+
+        int filas = Math.max(1, (int) Math.sqrt(elementos));
+        StringBuilder m = new StringBuilder(elementos * 4);
+        for (int f = 0; f < filas; f++) {
+            m.append(f > 0 ? ", " : "").append('[');
+            for (int c = 0; c < filas; c++) {
+                m.append(c > 0 ? ", " : "").append(entero());
+            }
+            m.append(']');
+        }
+        linea("let matriz: integer[][] = [" + m + "];");
+        linea("print(datos[0] + matriz[0][0]);");
+    }
+
+    private void mixto(int sentencias) {
+        List<String> enteras = new ArrayList<>();
+        linea("let base: integer = " + entero() + ";");
+        enteras.add("base");
+        for (int i = 0; i < sentencias; i++) {
+            String v = "m" + (contador++);
+            String otra = enteras.get(random.nextInt(enteras.size()));
+            switch (random.nextInt(9)) {
+                case 0 -> {
+                    linea("let " + v + ": integer = " + otra + " " + elegir(ARITMETICOS) + " " + entero() + ";");
+                    enteras.add(v);
+                }
+                case 1 -> linea("const " + v.toUpperCase(Locale.ROOT) + ": string = " + literal("string") + ";");
+                case 2 -> linea("print(\"valor: \" + " + otra + ");");
+                case 3 -> {
+                    abrir("if (" + otra + " " + elegir(RELACIONALES) + " " + entero() + ")");
+                    linea("print(" + otra + ");");
+                    cerrarCon("} else {");
+                    indentacion++;
+                    linea("print(" + entero() + ");");
+                    cerrar();
+                }
+                case 4 -> {
+                    abrir("for (let " + v + ": integer = 0; " + v + " < " + entero() + "; " + v + " = " + v + " + 1)");
+                    linea("print(" + v + ");");
+                    cerrar();
+                }
+                case 5 -> {
+                    linea("let " + v + ": integer = 0;");
+                    abrir("while (" + v + " < " + entero() + ")");
+                    linea(v + " = " + v + " + 1;");
+                    cerrar();
+                    enteras.add(v);
+                }
+                case 6 -> {
+                    abrir("function " + v + "(p: integer): integer");
+                    linea("return p * " + entero() + ";");
+                    cerrar();
+                    linea("print(" + v + "(" + otra + "));");
+                }
+                case 7 -> {
+                    abrir("switch (" + otra + ")");
+                    linea("case " + entero() + ":");
+                    linea("  print(\"caso\");");
+                    linea("default:");
+                    linea("  print(\"otro\");");
+                    cerrar();
+                }
+                default -> {
+                    linea("let " + v + ": integer[] = [" + entero() + ", " + otra + ", " + entero() + "];");
+                    abrir("foreach (e in " + v + ")");
+                    linea("print(e);");
+                    cerrar();
+                }
+            }
+        }
+    }
+
+    // ---------------------------
+    // Utilidades
+    // ---------------------------
+    private void linea(String texto) {
+        for (int i = 0; i < indentacion; i++) {
+            sb.append("  ");
+        }
+        sb.append(texto).append('\n');
+    }
+
+    private void abrir(String encabezado) {
+        linea(encabezado.isEmpty() ? "{" : encabezado + " {");
+        indentacion++;
+    }
+
+    private void cerrar() {
+        cerrarCon("}");
+    }
+
+    private void cerrarCon(String texto) {
+        indentacion--;
+        linea(texto);
+    }
+
+    private String entero() {
+        return Integer.toString(random.nextInt(100));
+    }
+
+    private String operandoEntero() {
+        return switch (random.nextInt(3)) {
+            case 0 -> "a";
+            case 1 -> "b";
+            default -> entero();
+        };
+    }
+
+    private String literal(String tipo) {
+        return switch (tipo) {
+            case "integer" -> entero();
+            case "boolean" -> random.nextBoolean() ? "true" : "false";
+            default -> "\"s" + random.nextInt(1000) + "\"";
+        };
+    }
+
+    private String elegir(String[] opciones) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Argumentos: forma tamaño [semilla] [archivo de salida]
+        if (args.length < 2) {
+            System.out.println("Uso: ProgramGenerator <forma> <tamaño> [semilla] [salida.cps]");
+            System.out.println("Formas: " + java.util.Arrays.toString(Forma.values()).toLowerCase(Locale.ROOT));
+            return;
+        }
+        Forma forma = Forma.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int tamanio = Integer.parseInt(args[1]);
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        String programa = new ProgramGenerator(semilla).generar(forma, tamanio);
+        if (args.length > 3) {
+            Files.writeString(Path.of(args[3]), programa, StandardCharsets.UTF_8);
+        } else {
+            System.out.print(programa);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.fmd.tools;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.fmd.modules.Symbol;
+
+/**
+ * Mide cuánta memoria ocupa cada símbolo según su forma. Cada forma crea los
+ * símbolos como lo hacen los visitors (una variable local, una función con sus
+ * parámetros, una clase con sus miembros), los retiene y compara el heap usado
+ * antes y después, con recolecciones de basura de por medio.
+ *
+ * Los nombres y tipos son Strings compartidos, como los que deja el Interner,
+ * así que no cuentan: solo se mide el Symbol y lo que el Symbol asigna.
+ * La medición es aproximada; con n grande el error de la recolección se diluye.
+ */
+public class SymbolFootprint {
+
+    /** Resultado de medir una forma de símbolo. */
+    public static class Medicion {
+        private final String forma;
+        private final int simbolos;
+        private final long bytes;
+
+        Medicion(String forma, int simbolos, long bytes) {
+            this.forma = forma;
+            this.simbolos = simbolos;
+            this.bytes = bytes;
+        }
+
+        public String getForma() {
+            return forma;
+        }
+
+        public int getSimbolos() {
+            return simbolos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getBytesPorSimbolo() {
+            return simbolos == 0 ? 0 : (double) bytes / simbolos;
+        }
+    }
+
+    /** Una forma crea un grupo de símbolos relacionados y devuelve cuántos creó. */
+    interface Forma {
+        int crear(List<Object> destino);
+    }
+
+    private static final String NOMBRE = "x";
+    private static final String FUNCION = "f";
+    private static final String[] ATRIBUTOS = {"a0", "a1", "a2"};
+
+    private static int variable(List<Object> destino) {
+        Symbol sym = new Symbol(NOMBRE, Symbol.Kind.VARIABLE, "integer", null, 1, 0, true);
+        sym.setEnclosingFunctionName(FUNCION);
+        sym.setInitialized(true);
+        destino.add(sym);
+        return 1;
+    }
+
+    private static int funcion(List<Object> destino) {
+        Symbol fn = new Symbol(FUNCION, Symbol.Kind.FUNCTION, "integer", null, 1, 0, false);
+        for (int i = 0; i < 2; i++) {
+            fn.addParameter(new Symbol(NOMBRE, Symbol.Kind.VARIABLE, "integer", null, 1, 0, false));
+        }
+        destino.add(fn);
+        return 3;
+    }
+
+    private static int anidada(List<Object> destino) {
+        Symbol fn = new Symbol(FUNCION, Symbol.Kind.FUNCTION, "integer", null, 1, 0, false);
+        fn.setNested(true);
+        fn.setEnclosingFunctionName(FUNCION);
+        fn.setCapturedVariables(Set.of(NOMBRE)); // FunctionsVisitor guarda una copia inmutable
+        destino.add(fn);
+        return 1;
+    }
+
+    private static int clase(List<Object> destino) {
+        Symbol clase = new Symbol("C", Symbol.Kind.CLASS, "C", null, 1, 0, true);
+        for (int i = 0; i < 3; i++) {
+            Symbol attr = new Symbol(ATRIBUTOS[i], Symbol.Kind.VARIABLE, "integer", null, 1, 0, true);
+            attr.setEnclosingClassName("C");
+            clase.addMember(attr);
+        }
+        destino.add(clase);
+        return 4;
+    }
+
+    /** Mide una forma creando grupos hasta alcanzar al menos n símbolos. */
+    static Medicion medir(String nombre, Forma forma, int n) {
+        List<Object> retenidos = new ArrayList<>(n); // su arreglo ya existe antes de medir
+        long antes = heapUsado();
+        int simbolos = 0;
+        while (simbolos < n) {
+            simbolos += forma.crear(retenidos);
+        }
+        long despues = heapUsado();
+        Reference.reachabilityFence(retenidos);
+        return new Medicion(nombre, simbolos, Math.max(0, despues - antes));
+    }
+
+    public static List<Medicion> medirTodo(int n) {
+        List<Medicion> mediciones = new ArrayList<>();
+        mediciones.add(medir("variable local", SymbolFootprint::variable, n));
+        mediciones.add(medir("función + 2 parámetros", SymbolFootprint::funcion, n));
+        mediciones.add(medir("función anidada con captura", SymbolFootprint::anidada, n));
+        mediciones.add(medir("clase + 3 atributos", SymbolFootprint::clase, n));
+        return mediciones;
+    }
+
+    public static String formatear(List<Medicion> mediciones) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-30s %10s %14s%n", "forma", "símbolos", "bytes/símbolo"));
+        for (Medicion m : mediciones) {
+            sb.append(String.format("%-30s %10d %14.1f%n", m.getForma(), m.getSimbolos(), m.getBytesPorSimbolo()));
+        }
+        return sb.toString();
+    }
+
+    private static long heapUsado() {
+        Runtime rt = Runtime.getRuntime();
+        long usado = Long.MAX_VALUE;
+        // Varias pasadas hasta que el heap usado deja de bajar
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long actual = rt.totalMemory() - rt.freeMemory();
+            if (actual >= usado) {
+                return actual;
+            }
+            usado = actual;
+        }
+        return usado;
+    }
+
+    /** Uso: [n] (símbolos por forma, 200000 por omisión) */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        medir("calentamiento", SymbolFootprint::funcion, Math.min(n, 10_000));
+        System.out.print(formatear(medirTodo(n)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fmd.api.CompilationCache;
+import com.fmd.api.CompilationService;
+import com.fmd.api.ParserWarmup;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.SemanticError;
+
+public class AnalizadorControllerTest {
+
+    private ForkJoinPool pool;
+    private ExecutorService streamExecutor;
+    private CompilationService compilador;
+    private AnalizadorController controller;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        streamExecutor = Executors.newSingleThreadExecutor();
+        compilador = new CompilationService(5000, 2_000_000);
+        controller = new AnalizadorController(compilador, new CompilationCache(1_000_000),
+                new ParserWarmup(compilador, null, List.of(), 0, false), pool, streamExecutor, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        streamExecutor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchDevuelveResultadosPorArchivoEnOrden() {
+        List<Map<String, String>> archivos = new ArrayList<>();
+        archivos.add(Map.of("nombre", "ok.cps", "codigo", "let x: integer = 1;"));
+        archivos.add(Map.of("nombre", "mal.cps", "codigo", "let y: integer = \"hola\";"));
+        archivos.add(Map.of("nombre", "ok2.cps", "codigo", "print(1 + 2);"));
+
+        Map<String, Object> response = controller.analizarLote(Map.of("archivos", archivos), false);
+
+        List<Map<String, Object>> resultados = (List<Map<String, Object>>) response.get("results");
+        assertEquals(3, resultados.size());
+        assertEquals("ok.cps", resultados.get(0).get("nombre"));
+        assertEquals("mal.cps", resultados.get(1).get("nombre"));
+        assertTrue(((List<?>) resultados.get(0).get("errors")).isEmpty());
+        assertEquals(1, ((List<?>) resultados.get(1).get("errors")).size());
+        assertFalse(resultados.get(0).containsKey("astImage"));
+
+        Map<String, Object> resumen = (Map<String, Object>) response.get("summary");
+        assertEquals(3, resumen.get("files"));
+        assertEquals(1, resumen.get("filesWithErrors"));
+    }
+
+    @Test
+    void testBatchRechazaLotesDemasiadoGrandes() {
+        List<Map<String, String>> archivos = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            archivos.add(Map.of("nombre", "f" + i, "codigo", "print(" + i + ");"));
+        }
+
+        assertThrows(ResponseStatusException.class,
+                () -> controller.analizarLote(Map.of("archivos", archivos), false));
+    }
+
+    @Test
+    void testEscuchaRecibeErroresAntesDeLosSimbolos() {
+        List<String> eventos = new ArrayList<>();
+        CompilationService.EscuchaCompilacion escucha = new CompilationService.EscuchaCompilacion() {
+            @Override
+            public void alEncontrarError(SemanticError error) {
+                eventos.add("error");
+            }
+
+            @Override
+            public void alExportarSimbolos(List<Map<String, Object>> simbolos) {
+                eventos.add("symbols");
+            }
+        };
+
+        compilador.compilar("let a: integer = true; let b: string = 1;", false, escucha,
+                compilador.nuevoPresupuesto());
+
+        assertEquals(List.of("error", "error", "symbols"), eventos);
+    }
+
+    @Test
+    void testPresupuestoDeNodosAbortaLaCompilacion() {
+        String programa = "let x: integer = 1;\n".repeat(50);
+
+        CompilationBudget.BudgetExceededException e = assertThrows(CompilationBudget.BudgetExceededException.class,
+                () -> compilador.compilar(programa, false, new CompilationService.EscuchaCompilacion() {
+                }, new CompilationBudget(0, 100)));
+        assertTrue(e.toSemanticError().getMensaje().contains("100 nodos"));
+    }
+
+    @Test
+    void testFechaLimiteVencidaAbortaLaCompilacion() throws Exception {
+        CompilationBudget presupuesto = new CompilationBudget(1, 0);
+        Thread.sleep(5);
+        String programa = "print(1 + 2 * 3);\n".repeat(100);
+
+        assertThrows(CompilationBudget.BudgetExceededException.class,
+                () -> compilador.compilar(programa, false, new CompilationService.EscuchaCompilacion() {
+                }, presupuesto));
+    }
+
+    @Test
+    void testInfraestructuraReutilizadaNoArrastraEstadoEntreCompilaciones() {
+        String programa = "let x: integer = 1;\n".repeat(50);
+        assertThrows(CompilationBudget.BudgetExceededException.class,
+                () -> compilador.compilar(programa, false, CompilationService.SIN_ESCUCHA, new CompilationBudget(0, 100)));
+
+        // El lexer y parser abortados vuelven al pool y deben quedar limpios
+        CompilationResult primero = compilador.compilar("let a: integer = true;");
+        CompilationResult segundo = compilador.compilar("let b: string = \"hola\"; print(b);");
+        assertEquals(1, primero.getErrores().size());
+        assertTrue(segundo.getErrores().isEmpty());
+        assertEquals("b", segundo.getSimbolos().get(0).get("name"));
+        assertNotNull(segundo.getAstImage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompilacionIncrementalAplicaEdicionesSobreLaVersionAnterior() {
+        String codigo = "let a: integer = 1;\nlet b: integer = 2;\nprint(a + b);\n";
+        Map<String, Object> primera = controller.analizarIncremental(Map.of("documento", "doc", "codigo", codigo), false);
+        assertEquals("completo", ((Map<String, Object>) primera.get("reparse")).get("mode"));
+        assertTrue(((List<?>) primera.get("errors")).isEmpty());
+
+        // Cambia el 2 por una cadena: solo se reparsea la segunda sentencia
+        int inicio = codigo.indexOf("2;");
+        Map<String, Object> segunda = controller.analizarIncremental(
+                Map.of("documento", "doc", "inicio", inicio, "fin", inicio + 1, "texto", "\"dos\""), false);
+
+        Map<String, Object> reparseo = (Map<String, Object>) segunda.get("reparse");
+        assertEquals("incremental", reparseo.get("mode"));
+        assertEquals(1, reparseo.get("reparsedStatements"));
+        assertEquals(2, reparseo.get("reusedStatements"));
+        assertEquals(List.of(compilador.compilar(codigo.replace("2;", "\"dos\";")).getErrores().get(0).toString()),
+                ((List<SemanticError>) segunda.get("errors")).stream().map(SemanticError::toString).toList());
+    }
+
+    @Test
+    void testEdicionSinVersionAnteriorEsConflicto() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.analizarIncremental(Map.of("documento", "nuevo", "inicio", 0, "fin", 0, "texto", "x"), false));
+        assertEquals(409, e.getStatusCode().value());
+
+        controller.analizarIncremental(Map.of("documento", "nuevo", "codigo", "print(1);"), false);
+        ResponseStatusException rango = assertThrows(ResponseStatusException.class,
+                () -> controller.analizarIncremental(Map.of("documento", "nuevo", "inicio", 5, "fin", 99, "texto", ""), false));
+        assertEquals(400, rango.getStatusCode().value());
+    }
+}
@@ -0,0 +1,94 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.additions.AstTreeGenerator;
+import com.fmd.ast.AstLowering;
+import com.fmd.ast.AstNode;
+
+public class AstLoweringTest {
+
+    private final AstLowering lowering = new AstLowering(CompiscriptParser.ruleNames, CompiscriptParser.VOCABULARY);
+
+    private static ParseTree parsear(String code) {
+        CompiscriptParser parser = new CompiscriptParser(
+                new CommonTokenStream(new CompiscriptLexer(CharStreams.fromString(code))));
+        return parser.program();
+    }
+
+    private static int contarNodos(ParseTree tree) {
+        int total = 1;
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            total += contarNodos(tree.getChild(i));
+        }
+        return total;
+    }
+
+    @Test
+    void testLiteralQuedaComoHojaSinEnvoltorios() {
+        AstNode ast = lowering.lower(parsear("let x: integer = 42;"));
+
+        assertEquals("(program (variableDeclaration let x (typeAnnotation integer) (initializer = 42)))",
+                ast.toStringTree());
+        AstNode literal = ast.getChild(0).getChild(3).getChild(1);
+        assertTrue(literal.isHoja());
+        assertEquals("Literal", literal.getKind());
+        assertEquals(1, literal.getLine());
+        assertEquals(17, literal.getColumn());
+    }
+
+    @Test
+    void testConservaOperadoresYAlternativasEtiquetadas() {
+        AstNode ast = lowering.lower(parsear("a.b = f(1 + 2 * 3)[0];"));
+
+        assertEquals("(program (assignment a . b = "
+                + "(leftHandSide f (CallExpr (additiveExpr 1 + (multiplicativeExpr 2 * 3))) (IndexExpr [ 0 ]))))",
+                ast.toStringTree());
+
+        AstNode expr = lowering.lower(parsear("x = this.y; z = new P();"));
+        assertEquals("(program (assignment x = (leftHandSide this (PropertyAccessExpr . y))) "
+                + "(assignment z = (NewExpr P)))", expr.toStringTree());
+    }
+
+    @Test
+    void testSentenciasDeUnSoloHijoConservanSuNodo() {
+        AstNode ast = lowering.lower(parsear("print(x); x; while (true) { break; }"));
+
+        assertEquals("(program (printStatement x) (expressionStatement x) "
+                + "(whileStatement true (block (breakStatement break))))", ast.toStringTree());
+    }
+
+    @Test
+    void testReduceElArbolDelCorpus() throws Exception {
+        String code;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("com/fmd/program.cps")) {
+            code = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ParseTree tree = parsear(code);
+
+        AstNode ast = lowering.lower(tree);
+
+        int nodosParseTree = contarNodos(tree);
+        int nodosAst = ast.contarNodos();
+        assertTrue(nodosAst * 3 < nodosParseTree, nodosAst + " nodos de AST vs " + nodosParseTree);
+    }
+
+    @Test
+    void testAstCompactoSeDibuja() {
+        AstNode ast = lowering.lower(parsear("let x: integer = 1 + 2;"));
+        AstTreeGenerator generador = new AstTreeGenerator(java.util.Arrays.asList(CompiscriptParser.ruleNames));
+
+        AstTreeGenerator.Layout layout = generador.layout(ast);
+        assertEquals(ast.contarNodos(), layout.getNodeCount());
+        assertEquals("program", layout.getRoot().getLabel());
+        assertTrue(generador.toSvg(ast).contains(">+</text>"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.additions.AstTreeGenerator;
+import com.fmd.CompiscriptParser;
+
+public class AstTreeGeneratorTest {
+
+    private final AstTreeGenerator generator =
+            new AstTreeGenerator(Arrays.asList(CompiscriptParser.ruleNames));
+
+    private int contarNodos(ParseTree tree) {
+        int total = 1;
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            total += contarNodos(tree.getChild(i));
+        }
+        return total;
+    }
+
+    @Test
+    void testLayoutIncluyeTodosLosNodos() {
+        ParseTree tree = TestUtils.getParseTree("let x: integer = 10; print(x + 5);", CompiscriptParser::program);
+
+        AstTreeGenerator.Layout layout = generator.layout(tree);
+
+        assertEquals(contarNodos(tree), layout.getNodeCount());
+        assertEquals("program", layout.getRoot().getLabel());
+        assertTrue(layout.getWidth() > 0 && layout.getHeight() > 0);
+    }
+
+    @Test
+    void testHijosNoSeSolapan() {
+        ParseTree tree = TestUtils.getParseTree("let a = 1; let b = 2; let c = a + b;", CompiscriptParser::program);
+
+        AstTreeGenerator.Node root = generator.layout(tree).getRoot();
+
+        AstTreeGenerator.Node anterior = null;
+        for (AstTreeGenerator.Node hijo : root.getChildren()) {
+            if (anterior != null) {
+                int finAnterior = anterior.getX() + anterior.getWidth() / 2;
+                int inicioActual = hijo.getX() - hijo.getWidth() / 2;
+                assertTrue(finAnterior < inicioActual, "Los nodos hermanos no deberían solaparse");
+            }
+            anterior = hijo;
+        }
+    }
+
+    @Test
+    void testSvgEscapaEtiquetas() {
+        ParseTree tree = TestUtils.getParseTree("print(1 < 2);", CompiscriptParser::program);
+
+        String svg = generator.toSvg(tree);
+
+        assertTrue(svg.startsWith("<svg"));
+        assertTrue(svg.contains("&lt;"));
+        assertFalse(svg.contains("><</text>"), "El operador < debe ir escapado");
+    }
+
+    @Test
+    void testPngValido() throws Exception {
+        ParseTree tree = TestUtils.getParseTree("function f(): integer { return 1; }", CompiscriptParser::program);
+
+        byte[] png = generator.toPng(tree);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+
+        assertNotNull(image);
+        assertEquals(generator.layout(tree).getWidth(), image.getWidth());
+    }
+
+    @Test
+    void testRendersConcurrentesNoSeMezclan() throws Exception {
+        ParseTree arbolA = TestUtils.getParseTree("let a: integer = 1;", CompiscriptParser::program);
+        ParseTree arbolB = TestUtils.getParseTree("while (true) { print(\"b\"); }", CompiscriptParser::program);
+        String esperadoA = generator.toBase64Png(arbolA);
+        String esperadoB = generator.toBase64Png(arbolB);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                boolean usarA = i % 2 == 0;
+                resultados.add(pool.submit(() -> usarA
+                        ? esperadoA.equals(generator.toBase64Png(arbolA))
+                        : esperadoB.equals(generator.toBase64Png(arbolB))));
+            }
+            for (Future<Boolean> resultado : resultados) {
+                assertTrue(resultado.get(30, TimeUnit.SECONDS), "Cada petición debe recibir su propio árbol");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -8,7 +8,10 @@ import org.antlr.v4.runtime.tree.ParseTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fmd.modules.ClassLayout;
 import com.fmd.modules.SemanticError;
+import com.fmd.modules.Symbol;
+import com.fmd.tools.ProgramGenerator;
 import com.fmd.CompiscriptParser;
 
 public class ClassesTest {
@@ -182,6 +185,25 @@ public class ClassesTest {
         assertTrue(hasConstructorError, "El error debe indicar que la clase no tiene constructor definido");
     }
 
+    @Test
+    void testConstructorSeVerificaUnaVezEnCualquierExpresion() {
+        String code = """
+    class Punto {
+        let x: integer;
+        function constructor(x: integer) { this.x = x; }
+    }
+
+    let p: Punto = new Punto(1);
+    p = new Punto(1, 2);
+    let lista: Punto[] = [new Punto("a"), new Punto(2)];
+    """;
+
+        List<String> mensajes = analyzeCode(code).stream().map(SemanticError::getMensaje).toList();
+        assertEquals(List.of(
+                "Constructor de 'Punto' espera 1 argumentos, pero recibe 2",
+                "Tipo del argumento 1 de 'Punto' esperado: 'integer', recibido: 'string'"), mensajes);
+    }
+
     @Test
     void testMethodCallSpeak() {
         String code = """
@@ -289,10 +311,88 @@ public class ClassesTest {
         assertTrue(errors.isEmpty(), "Método heredado 'speak' debe ser accesible desde Dog");
     }
 
+    @Test
+    void testIndiceInversoDeMetodosPorNombre() {
+        String code = """
+            class A {
+                function saludar(): string { return "a"; }
+            }
+            class B {
+                function saludar(): string { return "b"; }
+                function constructor() { }
+            }
+            print(saludar());
+        """;
 
+        List<SemanticError> errors = analyzeCode(code);
+        assertEquals(2, semanticVisitor.getClassesListener().getClasesConMetodo("saludar").size());
+        assertEquals("B", semanticVisitor.getClassesListener().getClasesConMetodo("constructor").get(0).getName());
+        assertTrue(semanticVisitor.getClassesListener().getClasesConMetodo("otro").isEmpty());
+        assertTrue(errors.stream().anyMatch(e -> e.getMensaje().contains("'saludar' no se puede llamar sin su clase")));
+    }
 
+    @Test
+    void testMetodoDeClaseNoVisibleNoCuentaComoMetodo() {
+        String code = """
+            {
+                class Oculta {
+                    function oculto(): integer { return 1; }
+                }
+            }
+            print(oculto());
+        """;
 
+        List<SemanticError> errors = analyzeCode(code);
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.stream().noneMatch(e -> e.getMensaje().contains("sin su clase")));
+    }
 
+    @Test
+    void testLayoutAplanaLaJerarquiaConIndicesEstables() {
+        String code = """
+            class Base {
+                var id: integer = 1;
+                function describir(): string { return "base"; }
+                function constructor(id: integer) { this.id = id; }
+            }
+            class Medio : Base {
+                var describir: string = "atributo";
+            }
+            class Hoja : Medio {
+                var extra: boolean = true;
+                function describir(): string { return "hoja"; }
+            }
+        """;
 
-}
+        List<SemanticError> errors = analyzeCode(code);
+        assertTrue(errors.isEmpty(), errors.toString());
+
+        ClassesListener clases = semanticVisitor.getClassesListener();
+        Symbol base = semanticVisitor.getRaiz().obtener("Base");
+        Symbol medio = semanticVisitor.getRaiz().obtener("Medio");
+        Symbol hoja = semanticVisitor.getRaiz().obtener("Hoja");
+        ClassLayout layout = clases.getLayout(hoja);
+
+        // Los heredados conservan su índice, también al sobrescribirlos
+        assertEquals(List.of("id", "describir", "constructor", "extra"), layout.getNombres());
+        assertEquals(clases.getLayout(base).getIndice("describir"), layout.getIndice("describir"));
+        assertEquals(-1, layout.getIndice("nada"));
+
+        // Un atributo de la subclase oculta al miembro pero no al método de la superclase
+        assertEquals(Symbol.Kind.VARIABLE, clases.buscarMiembro(medio, "describir").getKind());
+        assertSame(base.getMembers().get("describir"), clases.buscarMetodo(medio, "describir"));
+        assertSame(hoja.getMembers().get("describir"), clases.buscarMetodo(hoja, "describir"));
+        assertSame(base.getMembers().get("constructor"), clases.buscarConstructor(hoja));
+    }
+
+    @Test
+    void testHerenciaProfundaSinErrores() {
+        String code = new ProgramGenerator(4).generar(ProgramGenerator.Forma.HERENCIA, 300);
 
+        List<SemanticError> errors = analyzeCode(code);
+        assertTrue(errors.isEmpty(), errors.toString());
+        Symbol ultima = semanticVisitor.getRaiz().obtener("Nivel299");
+        assertEquals(600, semanticVisitor.getClassesListener().getLayout(ultima).size());
+        assertNotNull(semanticVisitor.getClassesListener().buscarMetodo(ultima, "metodo0"));
+    }
+}
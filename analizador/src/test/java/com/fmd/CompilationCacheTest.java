@@ -0,0 +1,90 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationCache;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.SemanticError;
+
+public class CompilationCacheTest {
+
+    private CompilationResult resultadoConImagen(int bytesImagen) {
+        return new CompilationResult(
+                List.of(new SemanticError("Variable 'x' no declarada", 1, 0)),
+                List.of(),
+                "A".repeat(bytesImagen));
+    }
+
+    @Test
+    void testHashDependeSoloDelContenido() {
+        assertEquals(CompilationCache.hash("let x = 1;"), CompilationCache.hash("let x = 1;"));
+        assertNotEquals(CompilationCache.hash("let x = 1;"), CompilationCache.hash("let x = 2;"));
+        assertEquals(64, CompilationCache.hash("").length());
+    }
+
+    @Test
+    void testHitYMiss() {
+        CompilationCache cache = new CompilationCache(1_000_000);
+        String llave = CompilationCache.hash("print(1);");
+
+        assertNull(cache.get(llave));
+        CompilationResult resultado = resultadoConImagen(100);
+        cache.put(llave, resultado);
+
+        assertSame(resultado, cache.get(llave));
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(1, stats.get("entries"));
+    }
+
+    @Test
+    void testRespetaPresupuestoDeBytes() {
+        CompilationCache cache = new CompilationCache(10_000);
+
+        for (int i = 0; i < 20; i++) {
+            String llave = CompilationCache.hash("programa " + i);
+            cache.get(llave);
+            cache.put(llave, resultadoConImagen(2_000));
+        }
+
+        Map<String, Object> stats = cache.getStats();
+        assertTrue((Long) stats.get("bytes") <= 10_000);
+        assertTrue((Long) stats.get("evictions") > 0);
+    }
+
+    @Test
+    void testProgramaFrecuenteNoEsDesalojadoPorUnoNuevo() {
+        CompilationCache cache = new CompilationCache(5_000);
+        String frecuente = CompilationCache.hash("frecuente");
+        cache.get(frecuente);
+        cache.put(frecuente, resultadoConImagen(3_000));
+        for (int i = 0; i < 5; i++) {
+            cache.get(frecuente);
+        }
+
+        String nuevo = CompilationCache.hash("nuevo");
+        cache.get(nuevo);
+        cache.put(nuevo, resultadoConImagen(3_000));
+
+        assertNotNull(cache.get(frecuente));
+        assertNull(cache.get(nuevo));
+        assertEquals(1L, cache.getStats().get("rejections"));
+    }
+
+    @Test
+    void testResultadoMasGrandeQueElPresupuestoNoSeGuarda() {
+        CompilationCache cache = new CompilationCache(1_000);
+        String llave = CompilationCache.hash("enorme");
+
+        cache.put(llave, resultadoConImagen(5_000));
+
+        assertNull(cache.get(llave));
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CompilationMetricsTest {
+
+    @Test
+    void testRegistraFasesYTamanioDeCadaCompilacion() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        CompilationService compilador = new CompilationService(0, 0, registro);
+
+        compilador.compilar("let x: integer = 1; { let y: integer = x; }");
+        compilador.compilar("let z: integer = true;", false, CompilationService.SIN_ESCUCHA,
+                CompilationBudget.ILIMITADO);
+
+        for (String fase : new String[]{"lexer", "parser", "semantico", "simbolos"}) {
+            assertEquals(2, registro.get("compilador.fase").tag("fase", fase).timer().count(), fase);
+        }
+        // La imagen solo se genera en la primera compilación
+        assertEquals(1, registro.get("compilador.fase").tag("fase", "imagen").timer().count());
+        assertEquals(1, registro.get("compilador.compilacion").tag("resultado", "ok").timer().count());
+        assertEquals(1, registro.get("compilador.compilacion").tag("resultado", "con_errores").timer().count());
+
+        assertEquals(2, registro.get("compilador.scopes").summary().count());
+        assertEquals(3.0, registro.get("compilador.scopes").summary().totalAmount());
+        assertEquals(1.0, registro.get("compilador.errores.total").counter().count());
+        assertTrue(registro.get("compilador.tokens").summary().max() > 10);
+        assertTrue(registro.get("compilador.nodos").summary().totalAmount() > 0);
+    }
+
+    @Test
+    void testCompilacionAbortadaSeCuentaAparte() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        CompilationService compilador = new CompilationService(0, 0, registro);
+
+        assertThrows(CompilationBudget.BudgetExceededException.class,
+                () -> compilador.compilar("print(1);\n".repeat(100), false, CompilationService.SIN_ESCUCHA,
+                        new CompilationBudget(0, 10)));
+
+        assertEquals(1, registro.get("compilador.compilacion").tag("resultado", "presupuesto").timer().count());
+        assertEquals(0, registro.get("compilador.scopes").summary().count());
+    }
+}
@@ -0,0 +1,80 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.modules.SemanticError;
+import com.fmd.modules.Symbol;
+import com.fmd.tools.ProgramGenerator;
+
+public class EntornoTest {
+
+    private static Symbol variable(String nombre, String tipo) {
+        return new Symbol(nombre, Symbol.Kind.VARIABLE, tipo, null, 1, 0, true);
+    }
+
+    @Test
+    void testLaDeclaracionMasInternaOcultaYCerrarLaRestaura() {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.getRaiz().agregar(variable("x", "integer"));
+        visitor.entrarScope(null);
+        visitor.entrarScope(null);
+        visitor.getEntornoActual().agregar(variable("x", "string"));
+
+        assertEquals("string", visitor.getEntornoActual().obtener("x").getType());
+        // Desde el padre no se ve la declaración del hijo
+        assertEquals("integer", visitor.getEntornoActual().getPadre().obtener("x").getType());
+        assertFalse(visitor.getEntornoActual().getPadre().existeGlobal("y"));
+
+        visitor.salirScope();
+        assertEquals("integer", visitor.getEntornoActual().obtener("x").getType());
+        visitor.salirScope();
+        assertEquals("integer", visitor.getEntornoActual().obtener("x").getType());
+    }
+
+    @Test
+    void testDeclararEnUnAncestroNoTapaAlScopeActual() {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.entrarScope(null);
+        visitor.getEntornoActual().agregar(variable("x", "string"));
+        visitor.getRaiz().agregar(variable("x", "integer"));
+
+        assertEquals("string", visitor.getEntornoActual().obtener("x").getType());
+        visitor.salirScope();
+        assertEquals("integer", visitor.getEntornoActual().obtener("x").getType());
+    }
+
+    @Test
+    void testScopesCerradosSiguenResolviendoPorSusPadres() {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.getRaiz().agregar(variable("global", "integer"));
+        visitor.entrarScope(null);
+        visitor.getEntornoActual().agregar(variable("local", "boolean"));
+        SemanticVisitor.Entorno cerrado = visitor.getEntornoActual();
+        visitor.salirScope();
+
+        assertFalse(cerrado.isAbierto());
+        assertEquals("boolean", cerrado.obtener("local").getType());
+        assertEquals("integer", cerrado.obtener("global").getType());
+        assertNull(visitor.getRaiz().obtener("local"));
+        assertEquals(1, cerrado.getSymbolsLocal().size());
+    }
+
+    @Test
+    void testAnidamientoProfundoSinErrores() {
+        String programa = new ProgramGenerator(5).generar(ProgramGenerator.Forma.ANIDAMIENTO, 300);
+        ParseTree tree = TestUtils.getParseTree(programa, CompiscriptParser::program);
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.visit(tree);
+
+        List<SemanticError> errores = visitor.getErrores();
+        assertTrue(errores.isEmpty(), () -> errores.toString());
+        assertSame(visitor.getRaiz(), visitor.getEntornoActual());
+        assertNull(visitor.getRaiz().obtener("v0"));
+        assertNotNull(visitor.getRaiz().obtener("contador"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.modules.ExpressionMemo;
+import com.fmd.modules.SemanticError;
+import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
+import com.fmd.tools.ProgramGenerator;
+
+public class ExpressionMemoTest {
+
+    private static final String CLASES = """
+            class A { let v: integer; function get(): integer { return this.v; } }
+            class B { let a: A; }
+            class C { let b: B; }
+            """;
+
+    private static SemanticVisitor analizar(ParseTree tree) {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.visit(tree);
+        return visitor;
+    }
+
+    private static <T> List<T> buscar(ParseTree nodo, Class<T> clase, List<T> destino) {
+        if (clase.isInstance(nodo)) {
+            destino.add(clase.cast(nodo));
+        }
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            buscar(nodo.getChild(i), clase, destino);
+        }
+        return destino;
+    }
+
+    private static int contarTipados(ParseTree nodo, ExpressionMemo memo) {
+        int total = memo.tipado(nodo) ? 1 : 0;
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            total += contarTipados(nodo.getChild(i), memo);
+        }
+        return total;
+    }
+
+    @Test
+    void testUnNodoSeCalculaUnaSolaVez() {
+        ParseTree tree = TestUtils.getParseTree("let x: integer = 1 + 2;", CompiscriptParser::program);
+        CompiscriptParser.ExpressionContext expr = buscar(tree, CompiscriptParser.ExpressionContext.class,
+                new ArrayList<>()).get(0);
+        ExpressionMemo memo = new ExpressionMemo();
+        ExpressionMemo.Contadores contadores = memo.getContadores();
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertSame(Type.INTEGER, memo.tipar(expr, n -> { llamadas.incrementAndGet(); return Type.INTEGER; }));
+        assertSame(Type.INTEGER, memo.tipar(expr, n -> { llamadas.incrementAndGet(); return Type.STRING; }));
+        assertEquals(1, llamadas.get());
+        assertEquals(1, contadores.getCalculados());
+        assertEquals(1, contadores.getReutilizados());
+        assertSame(Type.INTEGER, memo.get(expr));
+
+        // Un resultado null también se guarda
+        CompiscriptParser.AdditiveExprContext suma = buscar(tree, CompiscriptParser.AdditiveExprContext.class,
+                new ArrayList<>()).get(0);
+        assertNull(memo.tipar(suma, n -> { llamadas.incrementAndGet(); return null; }));
+        assertNull(memo.tipar(suma, n -> { llamadas.incrementAndGet(); return Type.INTEGER; }));
+        assertEquals(2, llamadas.get());
+
+        // Las sentencias no se memorizan
+        ParseTree sentencia = tree.getChild(0);
+        assertFalse(ExpressionMemo.esExpresion(sentencia));
+        memo.tipar(sentencia, n -> { llamadas.incrementAndGet(); return Type.VOID; });
+        memo.tipar(sentencia, n -> { llamadas.incrementAndGet(); return Type.VOID; });
+        assertEquals(4, llamadas.get());
+    }
+
+    @Test
+    void testVolverATiparUnNodoCuentaComoRecalculo() {
+        ParseTree tree = TestUtils.getParseTree("let x: integer = 1;", CompiscriptParser::program);
+        CompiscriptParser.ExpressionContext expr = buscar(tree, CompiscriptParser.ExpressionContext.class,
+                new ArrayList<>()).get(0);
+        ExpressionMemo memo = new ExpressionMemo();
+
+        // El cálculo vuelve a pedir el mismo nodo: se tipa dos veces, queda el primer tipo
+        Type tipo = memo.tipar(expr, n -> memo.tipar(n, m -> Type.INTEGER) == Type.INTEGER ? Type.STRING : null);
+        assertSame(Type.INTEGER, tipo);
+        assertSame(Type.INTEGER, memo.get(expr));
+        assertEquals(1, memo.getContadores().getCalculados());
+        assertEquals(1, memo.getContadores().getRecalculados());
+    }
+
+    @Test
+    void testVisitorsCompartenLaTabla() {
+        ParseTree tree = TestUtils.getParseTree("""
+                let a: boolean = true;
+                let b: boolean = false;
+                if (a || b) { print(1); }
+                """, CompiscriptParser::program);
+        SemanticVisitor visitor = analizar(tree);
+        assertTrue(visitor.getErrores().isEmpty(), visitor.getErrores().toString());
+        CompiscriptParser.LogicalOrExprContext or = buscar(tree, CompiscriptParser.LogicalOrExprContext.class,
+                new ArrayList<>()).stream().filter(n -> n.logicalAndExpr().size() > 1).findFirst().orElseThrow();
+        // La condición la pidió ComparisonVisitor, pero el || lo tipó LogicalVisitor
+        assertSame(Type.BOOLEAN, visitor.getTiposPorNodo().get(or));
+        int calculados = visitor.getContadoresTipado().getCalculados();
+        assertSame(Type.BOOLEAN, visitor.getLogicalVisitor().visit(or));
+        assertSame(Type.BOOLEAN, visitor.getVariableVisitor().visit(or));
+        assertEquals(calculados, visitor.getContadoresTipado().getCalculados());
+    }
+
+    @Test
+    void testCadaExpresionSeTipaExactamenteUnaVez() {
+        ProgramGenerator generador = new ProgramGenerator(11);
+        for (ProgramGenerator.Forma forma : ProgramGenerator.Forma.values()) {
+            ParseTree tree = TestUtils.getParseTree(generador.generar(forma, 40), CompiscriptParser::program);
+            SemanticVisitor visitor = analizar(tree);
+            ExpressionMemo.Contadores c = visitor.getContadoresTipado();
+
+            assertEquals(0, c.getRecalculados(), forma.name());
+            assertTrue(c.getCalculados() > 0, forma.name());
+            // Una sola tabla para todos los visitors: un cálculo por nodo tipado
+            assertEquals(contarTipados(tree, visitor.getTiposPorNodo()), c.getCalculados(), forma.name());
+        }
+    }
+
+    @Test
+    void testAccesoEncadenadoReutilizaElTipoDelObjeto() {
+        ParseTree tree = TestUtils.getParseTree(CLASES + """
+                let c: C = new C();
+                let x: integer = c.b.a.v;
+                """, CompiscriptParser::program);
+        SemanticVisitor visitor = analizar(tree);
+        assertTrue(visitor.getContadoresTipado().getReutilizados() > 0);
+        assertEquals(0, visitor.getContadoresTipado().getRecalculados());
+    }
+
+    @Test
+    void testErrorDelObjetoSeReportaUnaVez() {
+        ParseTree tree = TestUtils.getParseTree(CLASES + """
+                let x: integer = sinDeclarar.b.a;
+                """, CompiscriptParser::program);
+        List<SemanticError> errores = analizar(tree).getErrores();
+        long noDeclarada = errores.stream()
+                .filter(e -> e.toString().contains("'sinDeclarar' no declarada"))
+                .count();
+        assertEquals(1, noDeclarada, errores.toString());
+    }
+
+    @Test
+    void testIdentificadoresGuardanSuSimbolo() {
+        ParseTree tree = TestUtils.getParseTree("""
+                let total: integer = 1;
+                function sumar(n: integer): integer {
+                    let total: integer = n;
+                    return total + n;
+                }
+                let r: integer = total + sumar(2);
+                """, CompiscriptParser::program);
+        SemanticVisitor visitor = analizar(tree);
+        assertTrue(visitor.getErrores().isEmpty(), visitor.getErrores().toString());
+
+        List<CompiscriptParser.IdentifierExprContext> usos = new ArrayList<>();
+        for (CompiscriptParser.IdentifierExprContext id : buscar(tree,
+                CompiscriptParser.IdentifierExprContext.class, new ArrayList<>())) {
+            if (id.getText().equals("total")) {
+                usos.add(id);
+            }
+        }
+        assertEquals(2, usos.size());
+        Symbol local = visitor.getSimbolo(usos.get(0));
+        Symbol global = visitor.getSimbolo(usos.get(1));
+        assertNotNull(local);
+        assertNotNull(global);
+        // Cada uso quedó enlazado a la declaración visible en su scope
+        assertEquals(3, local.getLine());
+        assertEquals(1, global.getLine());
+    }
+}
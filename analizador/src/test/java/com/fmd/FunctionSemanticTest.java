@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.fmd.modules.SemanticError;
+import com.fmd.modules.Type;
 import com.fmd.CompiscriptParser;
 
 public class FunctionSemanticTest {
@@ -49,7 +50,8 @@ public class FunctionSemanticTest {
     private String analyzeExpression(String expressionCode) {
         try {
             ParseTree tree = TestUtils.getParseTree(expressionCode, CompiscriptParser::expression);
-            return semanticVisitor.getVariableVisitor().visit(tree);
+            Type tipo = semanticVisitor.getVariableVisitor().visit(tree);
+            return tipo != null ? tipo.getNombre() : null;
         } catch (Exception e) {
             fail("Error al parsear expresión: " + e.getMessage());
             return null;
@@ -0,0 +1,53 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fmd.tools.GrammarProfiler;
+
+public class GrammarProfilerTest {
+
+    @Test
+    void testPerfilaElCorpusYOrdenaPorTiempo() throws Exception {
+        List<Path> programas = GrammarProfiler.buscarProgramas(Path.of("src", "main", "java", "com", "fmd"));
+        assertTrue(programas.size() >= 3);
+
+        GrammarProfiler.Reporte reporte = GrammarProfiler.perfilar(programas);
+
+        assertEquals(programas.size(), reporte.getArchivos());
+        assertTrue(reporte.getTokens() > 0);
+        List<GrammarProfiler.Decision> decisiones = reporte.getDecisiones();
+        assertFalse(decisiones.isEmpty());
+        for (int i = 1; i < decisiones.size(); i++) {
+            assertTrue(decisiones.get(i - 1).getTiempoNanos() >= decisiones.get(i).getTiempoNanos());
+        }
+        // assignmentExpr necesita mirar más allá del primer token para distinguir sus alternativas
+        GrammarProfiler.Decision asignacion = decisiones.stream()
+                .filter(d -> d.getRegla().equals("assignmentExpr")).findFirst().orElseThrow();
+        assertTrue(asignacion.getInvocaciones() > 0);
+        assertTrue(asignacion.getLookaheadSllMax() > 1);
+        assertFalse(asignacion.getPeorCaso().isEmpty());
+    }
+
+    @Test
+    void testCuentaArchivosConErroresYFormateaElTop(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("ok.cps"), "let a: integer = 1;\na = a + 2;\n");
+        Files.writeString(dir.resolve("mal.cps"), "let a: integer = ;\n");
+        Files.writeString(dir.resolve("notas.txt"), "no es un programa");
+
+        List<Path> programas = GrammarProfiler.buscarProgramas(dir);
+        GrammarProfiler.Reporte reporte = GrammarProfiler.perfilar(programas);
+
+        assertEquals(2, programas.size());
+        assertEquals(1, reporte.getArchivosConErrores());
+        String texto = reporte.formatear(1);
+        assertTrue(texto.startsWith("2 archivos (1 con errores de sintaxis)"));
+        assertEquals(3, texto.split("\n").length);
+    }
+}
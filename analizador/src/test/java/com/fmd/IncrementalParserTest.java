@@ -0,0 +1,241 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.Trees;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.IncrementalParser;
+
+public class IncrementalParserTest {
+
+    private final IncrementalParser parser = new IncrementalParser(25);
+
+    // Árbol y posición de cada token, para comparar con un parseo desde cero
+    private static String huella(ParseTree tree) {
+        StringBuilder sb = new StringBuilder(Trees.toStringTree(tree, List.of(CompiscriptParser.ruleNames)));
+        huellaTokens(tree, sb);
+        return sb.toString();
+    }
+
+    private static void huellaTokens(ParseTree tree, StringBuilder sb) {
+        if (tree instanceof TerminalNode terminal) {
+            Token t = terminal.getSymbol();
+            sb.append('\n').append(t.getType()).append(' ').append(t.getText()).append(" @")
+                    .append(t.getLine()).append(':').append(t.getCharPositionInLine())
+                    .append(" [").append(t.getStartIndex()).append(',').append(t.getStopIndex()).append("] #")
+                    .append(t.getTokenIndex());
+            return;
+        }
+        if (tree instanceof ParserRuleContext ctx) {
+            sb.append('\n').append(ctx.getSourceInterval());
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            huellaTokens(tree.getChild(i), sb);
+        }
+    }
+
+    private IncrementalParser.Resultado desdeCero(String texto) {
+        return parser.parsear(null, texto, null);
+    }
+
+    @Test
+    void testEditarUnaSentenciaSoloReparseaEsaSentencia() {
+        String v1 = "let a: integer = 1;\nlet b: integer = 2;\nlet c: integer = 3;\nprint(a + b + c);\n";
+        String v2 = v1.replace("let b: integer = 2;", "let b: integer = 20 * a;");
+
+        IncrementalParser.Resultado r1 = desdeCero(v1);
+        IncrementalParser.Resultado r2 = parser.parsear(r1.getDocumento(), v2, null);
+
+        assertTrue(r2.isIncremental());
+        assertEquals(1, r2.getReparseadas());
+        assertEquals(3, r2.getReutilizadas());
+        assertEquals(huella(desdeCero(v2).getArbol()), huella(r2.getArbol()));
+    }
+
+    @Test
+    void testInsertarLineasCorreLasSentenciasPosteriores() {
+        String v1 = "let a: integer = 1;\nprint(a);\n";
+        String v2 = "let a: integer = 1;\nlet x: string = \"añadido 🚀\";\nlet y: integer = 2;\nprint(a);\n";
+
+        IncrementalParser.Resultado r2 = parser.parsear(desdeCero(v1).getDocumento(), v2, null);
+
+        assertTrue(r2.isIncremental());
+        assertEquals(huella(desdeCero(v2).getArbol()), huella(r2.getArbol()));
+    }
+
+    @Test
+    void testComentarioAbiertoObligaAParsearTodo() {
+        String v1 = "let a: integer = 1; let b: integer = 2;\nprint(a);\n";
+        String v2 = "// let a: integer = 1; let b: integer = 2;\nprint(a);\n";
+        String v3 = "/* let a: integer = 1; let b: integer = 2;\nprint(a);\n*/";
+
+        IncrementalParser.Resultado r2 = parser.parsear(desdeCero(v1).getDocumento(), v2, null);
+        assertEquals(huella(desdeCero(v2).getArbol()), huella(r2.getArbol()));
+
+        IncrementalParser.Resultado r3 = parser.parsear(r2.getDocumento(), v3, null);
+        assertEquals(huella(desdeCero(v3).getArbol()), huella(r3.getArbol()));
+        assertEquals(0, r3.getArbol().statement().size());
+    }
+
+    @Test
+    void testErrorDeSintaxisSeReportaYLaSiguienteEdicionParseaCompleto() {
+        String v1 = "let a: integer = 1;\nprint(a);\n";
+        String v2 = "let a: integer = ;\nprint(a);\n";
+
+        IncrementalParser.Resultado r2 = parser.parsear(desdeCero(v1).getDocumento(), v2, null);
+        assertFalse(r2.isIncremental());
+        assertNull(r2.getArbol());
+        assertEquals(1, r2.getErroresSintaxis().size());
+
+        IncrementalParser.Resultado r3 = parser.parsear(r2.getDocumento(), v1, null);
+        assertFalse(r3.isIncremental());
+        assertNotNull(r3.getArbol());
+    }
+
+    @Test
+    void testEdicionesAleatoriasProducenElMismoArbolQueParsearDesdeCero() throws Exception {
+        String base;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("com/fmd/program.cps")) {
+            base = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] fragmentos = {"1", "x", " ", "\n", ";", "let q: integer = 7;\n", "print(\"ñ\");", "+ 2", "}", "{",
+                "\"", "//", "/*", "*/", "if (true) { print(1); }\n"};
+        Random random = new Random(42);
+
+        IncrementalParser.Documento documento = desdeCero(base).getDocumento();
+        String texto = base;
+        int incrementales = 0;
+        for (int i = 0; i < 300; i++) {
+            int inicio = random.nextInt(texto.length() + 1);
+            int fin = Math.min(texto.length(), inicio + random.nextInt(4));
+            String insercion = random.nextInt(3) == 0 ? "" : fragmentos[random.nextInt(fragmentos.length)];
+            String nuevo = texto.substring(0, inicio) + insercion + texto.substring(fin);
+
+            IncrementalParser.Resultado r = parser.parsear(documento, nuevo, null);
+            IncrementalParser.Resultado esperado = desdeCero(nuevo);
+            if (esperado.getArbol() == null) {
+                assertNull(r.getArbol(), "edición " + i);
+                assertEquals(esperado.getErroresSintaxis().size(), r.getErroresSintaxis().size());
+                // Se descarta la versión con errores para seguir editando un programa válido
+                continue;
+            }
+            assertEquals(huella(esperado.getArbol()), huella(r.getArbol()), "edición " + i);
+            if (r.isIncremental()) {
+                incrementales++;
+            }
+            documento = r.getDocumento();
+            texto = nuevo;
+        }
+        assertTrue(incrementales > 0);
+    }
+
+    private static void identificadores(ParseTree tree, List<String> destino) {
+        if (tree instanceof TerminalNode terminal) {
+            if (terminal.getSymbol().getType() == CompiscriptLexer.Identifier) {
+                destino.add(terminal.getText());
+            }
+            return;
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            identificadores(tree.getChild(i), destino);
+        }
+    }
+
+    @Test
+    void testLasEdicionesCompartenElInternerDelDocumento() {
+        String v1 = "let total: integer = 1;\nprint(total);\n";
+        String v2 = "let total: integer = 1;\nlet otro: integer = total;\nprint(total);\n";
+
+        IncrementalParser.Resultado r1 = desdeCero(v1);
+        IncrementalParser.Resultado r2 = parser.parsear(r1.getDocumento(), v2, null);
+        assertTrue(r2.isIncremental());
+        assertSame(r1.getNombres(), r2.getNombres());
+
+        // Reutilizados y reparseados: una sola instancia por nombre
+        List<String> nombres = new ArrayList<>();
+        identificadores(r2.getArbol(), nombres);
+        assertEquals(List.of("total", "otro", "total", "total"), nombres);
+        for (String nombre : nombres) {
+            assertSame(r2.getNombres().nombre(r2.getNombres().id(nombre)), nombre);
+        }
+        assertEquals(2, r2.getNombres().size());
+    }
+
+    @Test
+    void testLasSentenciasIntactasSeReutilizanSinCopiarlas() {
+        String v1 = "let a: integer = 1;\nlet b: integer = 2;\nprint(a + b);\n";
+        String v2 = "let a: integer = 1;\nlet x: integer = 5;\nlet b: integer = 2 + x;\nprint(a + b);\n";
+
+        IncrementalParser.Resultado r1 = desdeCero(v1);
+        ParseTree anterior = r1.getArbol().statement(0);
+        ParseTree posterior = r1.getArbol().statement(2);
+        IncrementalParser.Resultado r2 = parser.parsear(r1.getDocumento(), v2, null);
+        assertTrue(r2.isIncremental());
+        assertEquals(huella(desdeCero(v2).getArbol()), huella(r2.getArbol()));
+
+        // Las mismas instancias, colgadas del programa nuevo; la posterior ya con sus tokens corridos
+        assertSame(anterior, r2.getArbol().statement(0));
+        assertSame(posterior, r2.getArbol().statement(3));
+        for (ParseTree sentencia : r2.getArbol().statement()) {
+            assertSame(r2.getArbol(), sentencia.getParent());
+        }
+    }
+
+    @Test
+    void testElInternerSeRenuevaCuandoCreceDemasiado() {
+        String base = "let a: integer = 1;\nprint(a);\n";
+        IncrementalParser.Resultado r = desdeCero(base);
+        boolean renovado = false;
+        for (int i = 0; i < IncrementalParser.MAX_NOMBRES_NUEVOS + 10; i++) {
+            // Cada versión declara un nombre distinto en la misma sentencia
+            String texto = base.replace("print(a);", "let n" + i + ": integer = a;\nprint(a);");
+            IncrementalParser.Resultado siguiente = parser.parsear(r.getDocumento(), texto, null);
+            assertEquals(huella(desdeCero(texto).getArbol()), huella(siguiente.getArbol()));
+            if (!siguiente.isIncremental()) {
+                renovado = true;
+                assertNotSame(r.getNombres(), siguiente.getNombres());
+            }
+            r = siguiente;
+            assertTrue(r.getNombres().size() <= 2 * 2 + IncrementalParser.MAX_NOMBRES_NUEVOS + 1,
+                    "nombres: " + r.getNombres().size());
+        }
+        assertTrue(renovado);
+    }
+
+    @Test
+    void testElReparseoRespetaElPresupuesto() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append("let v").append(i).append(": integer = ").append(i).append(" + 1;\n");
+        }
+        String v1 = sb.toString();
+        String v2 = v1.replace("let v25: integer = 25 + 1;", "let v25: integer = 25 * 2;");
+        IncrementalParser.Resultado r1 = desdeCero(v1);
+        String antes = huella(r1.getArbol());
+
+        // La región no cabe en 5 nodos: se cancela sin tocar la versión anterior
+        assertThrows(CompilationBudget.BudgetExceededException.class,
+                () -> parser.parsear(r1.getDocumento(), v2, null, new CompilationBudget(0, 5)));
+        assertEquals(antes, huella(r1.getArbol()));
+
+        // Los nodos reutilizados no cuentan: el árbol completo no cabe en 100 nodos, la región sí
+        assertTrue(r1.getNodos() > 100);
+        CompilationBudget presupuesto = new CompilationBudget(0, 100);
+        IncrementalParser.Resultado r2 = parser.parsear(r1.getDocumento(), v2, null, presupuesto);
+        assertTrue(r2.isIncremental());
+        assertEquals(desdeCero(v2).getNodos(), r2.getNodos());
+        assertTrue(presupuesto.getNodos() < 30, "nodos: " + presupuesto.getNodos());
+    }
+}
@@ -0,0 +1,142 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.IdentifierTokenFactory;
+import com.fmd.modules.IntMap;
+import com.fmd.modules.Interner;
+import com.fmd.modules.Symbol;
+
+public class InternerTest {
+
+    @Test
+    void testIdsDensosYEstables() {
+        Interner nombres = new Interner();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, nombres.intern("v" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, nombres.intern("v" + i));
+            assertEquals(i, nombres.id("v" + i));
+            assertEquals("v" + i, nombres.nombre(i));
+        }
+        assertEquals(1000, nombres.size());
+        assertEquals(-1, nombres.id("noExiste"));
+        assertEquals(1000, nombres.size()); // id() no agrega
+    }
+
+    @Test
+    void testInternDesdeBufferDevuelveLaMismaInstancia() {
+        Interner nombres = new Interner();
+        String contador = nombres.nombre(nombres.intern("contador".toCharArray(), 8));
+        int id = nombres.intern("contadorX".toCharArray(), 8); // solo los primeros 8 caracteres
+        assertSame(contador, nombres.nombre(id));
+        assertEquals(id, nombres.intern(new String("contador")));
+    }
+
+    @Test
+    void testIntMapCreceYConservaElOrdenDeInsercion() {
+        IntMap<String> mapa = new IntMap<>();
+        Map<Integer, String> esperado = new HashMap<>();
+        Random rnd = new Random(7);
+        List<Integer> orden = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int clave = rnd.nextInt(2000);
+            String valor = "x" + i;
+            if (!esperado.containsKey(clave)) {
+                orden.add(clave);
+            }
+            assertEquals(esperado.put(clave, valor), mapa.put(clave, valor));
+        }
+        assertEquals(esperado.size(), mapa.size());
+        for (int i = 0; i < mapa.entradas(); i++) {
+            assertEquals(orden.get(i), mapa.claveEn(i));
+            assertEquals(esperado.get(mapa.claveEn(i)), mapa.valorEn(i));
+        }
+        assertNull(mapa.get(-1));
+        assertFalse(mapa.containsKey(5000));
+    }
+
+    @Test
+    void testAsignarNullDejaLaClaveSinValor() {
+        IntMap<String> mapa = new IntMap<>();
+        mapa.put(3, "a");
+        mapa.put(8, "b");
+        IntMap<String> copia = new IntMap<>(mapa);
+
+        assertEquals("a", mapa.put(3, null));
+        assertFalse(mapa.containsKey(3));
+        assertEquals(1, mapa.size());
+        assertEquals(2, mapa.entradas());
+        mapa.put(3, "c");
+        assertEquals("c", mapa.get(3));
+        // La copia es independiente
+        assertEquals("a", copia.get(3));
+    }
+
+    @Test
+    void testLexerCompartePorNombreUnaSolaInstancia() {
+        Interner nombres = new Interner();
+        CompiscriptLexer lexer = new CompiscriptLexer(CharStreams.fromString(
+                "let total: integer = 0; total = total + 1; let otro = total;"));
+        lexer.setTokenFactory(new IdentifierTokenFactory(nombres));
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        tokens.fill();
+
+        List<String> apariciones = new ArrayList<>();
+        for (Token t : tokens.getTokens()) {
+            if (t.getType() == CompiscriptLexer.Identifier) {
+                apariciones.add(t.getText());
+            }
+        }
+        assertEquals(List.of("total", "total", "total", "otro", "total"), apariciones);
+        for (String aparicion : apariciones) {
+            assertSame(nombres.nombre(nombres.id(aparicion)), aparicion);
+        }
+        assertEquals(2, nombres.size());
+    }
+
+    @Test
+    void testTablasLocalesSeConsultanPorNombre() {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.entrarScope(null);
+        Symbol x = new Symbol("x", Symbol.Kind.VARIABLE, "integer", null, 1, 0, true);
+        visitor.getEntornoActual().agregar(x);
+
+        Map<String, Symbol> locales = visitor.getEntornoActual().getSymbolsLocal();
+        assertSame(x, locales.get("x"));
+        assertNull(locales.get("y"));
+        assertEquals(List.of("x"), new ArrayList<>(locales.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> locales.put("y", x));
+        // El nombre quedó en la tabla compartida por todo el árbol
+        assertTrue(visitor.getRaiz().getNombres().id("x") >= 0);
+    }
+
+    @Test
+    void testCompilacionConInternadoSinCambiosSemanticos() {
+        CompilationService servicio = new CompilationService(0, 0);
+        String code = String.join("\n",
+                "class A { let v: integer; function get(): integer { return this.v; } }",
+                "class B : A { function doble(x: integer): integer { return x * 2; } }",
+                "let b: B = new B();",
+                "let r: integer = b.doble(b.get());",
+                "let s: string = b.get();");
+        CompilationResult r = servicio.compilar(code, false, CompilationService.SIN_ESCUCHA,
+                CompilationBudget.ILIMITADO);
+        assertEquals(1, r.getErrores().size(), r.getErrores().toString());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fmd.additions.MappedCharStream;
+
+public class MappedCharStreamTest {
+
+    private static final String PROGRAMA = "// señal: ñandú 🚀\n"
+            + "let saludo: string = \"¡Hola, 世界! 🚀\";\n"
+            + "let n: integer = 42;\n"
+            + "print(saludo + n);\n";
+
+    private static List<Token> tokens(CharStream input) {
+        CommonTokenStream stream = new CommonTokenStream(new CompiscriptLexer(input));
+        stream.fill();
+        return stream.getTokens();
+    }
+
+    @Test
+    void testProduceLosMismosTokensQueFromString(@TempDir Path dir) throws Exception {
+        Path archivo = dir.resolve("utf8.cps");
+        Files.writeString(archivo, PROGRAMA, StandardCharsets.UTF_8);
+
+        List<Token> esperados = tokens(CharStreams.fromString(PROGRAMA));
+        List<Token> mapeados = tokens(MappedCharStream.fromPath(archivo));
+
+        assertEquals(esperados.size(), mapeados.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            Token a = esperados.get(i);
+            Token b = mapeados.get(i);
+            assertEquals(a.getType(), b.getType());
+            assertEquals(a.getText(), b.getText());
+            assertEquals(a.getLine(), b.getLine());
+            assertEquals(a.getCharPositionInLine(), b.getCharPositionInLine());
+        }
+    }
+
+    @Test
+    void testLookaheadYRetrocesoSobreCaracteresMultibyte() {
+        MappedCharStream input = new MappedCharStream(
+                ByteBuffer.wrap("añ🚀b".getBytes(StandardCharsets.UTF_8)), "prueba");
+
+        assertEquals('a', input.LA(1));
+        assertEquals('ñ', input.LA(2));
+        assertEquals(0x1F680, input.LA(3));
+        assertEquals('b', input.LA(4));
+        assertEquals(IntStream.EOF, input.LA(5));
+
+        input.consume();
+        input.consume();
+        assertEquals(3, input.index()); // 'a' ocupa 1 byte y 'ñ' 2
+        assertEquals('ñ', input.LA(-1));
+        assertEquals('a', input.LA(-2));
+        assertEquals("ñ🚀", input.getText(Interval.of(1, 6)));
+    }
+
+    @Test
+    void testBytesInvalidosSeDecodificanComoReemplazo() {
+        MappedCharStream input = new MappedCharStream(ByteBuffer.wrap(new byte[]{'a', (byte) 0xC3, 'b'}), null);
+
+        input.consume();
+        assertEquals(0xFFFD, input.LA(1));
+        input.consume();
+        assertEquals('b', input.LA(1));
+        assertEquals(IntStream.UNKNOWN_SOURCE_NAME, input.getSourceName());
+    }
+
+    @Test
+    void testBytesInicialesFueraDeUtf8OcupanUnSoloCaracter() {
+        // 0xF8-0xFF no empiezan ninguna secuencia: no deben tragarse los caracteres siguientes
+        for (int inicial : new int[]{0xF5, 0xF8, 0xFB, 0xFF}) {
+            MappedCharStream input = new MappedCharStream(
+                    ByteBuffer.wrap(new byte[]{'a', (byte) inicial, 'b', 'c', 'd'}), null);
+            int[] esperado = {'a', 0xFFFD, 'b', 'c', 'd'};
+            for (int k = 0; k < esperado.length; k++) {
+                assertEquals(esperado[k], input.LA(1), "byte 0x" + Integer.toHexString(inicial) + ", posición " + k);
+                input.consume();
+            }
+            assertEquals(IntStream.EOF, input.LA(1));
+        }
+    }
+}
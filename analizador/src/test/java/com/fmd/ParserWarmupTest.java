@@ -0,0 +1,56 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+
+import com.fmd.api.CompilationService;
+import com.fmd.api.ParserWarmup;
+
+public class ParserWarmupTest {
+
+    private static final List<String> CORPUS = List.of(
+            "com/fmd/program.cps", "com/fmd/logic_tests.cps", "com/fmd/comparison_test.cps");
+
+    @Test
+    void testCompilaElCorpusYReportaEstadosDfa() {
+        ParserWarmup warmup = new ParserWarmup(new CompilationService(0, 0), null, CORPUS, 2, true);
+        assertFalse(warmup.isListo());
+
+        warmup.calentar();
+
+        Map<String, Object> estado = warmup.getEstado();
+        assertTrue(warmup.isListo());
+        assertEquals(6, estado.get("programs"));
+        assertTrue((Integer) estado.get("parserDfaStates") > 0);
+        assertTrue((Integer) estado.get("lexerDfaStates") > 0);
+    }
+
+    @Test
+    void testRechazaTraficoMientrasCalienta() {
+        List<Object> eventos = new ArrayList<>();
+        ParserWarmup warmup = new ParserWarmup(new CompilationService(0, 0), eventos::add, CORPUS, 1, true);
+
+        warmup.calentar();
+
+        assertEquals(1, eventos.size());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) eventos.get(0)).getState());
+    }
+
+    @Test
+    void testRecursoInexistenteNoImpideElArranque() {
+        ParserWarmup warmup = new ParserWarmup(new CompilationService(0, 0), null,
+                List.of("com/fmd/no_existe.cps"), 1, true);
+
+        warmup.calentar();
+
+        assertTrue(warmup.isListo());
+        assertEquals(0, warmup.getEstado().get("programs"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.SemanticError;
+import com.fmd.tools.ProgramGenerator;
+
+public class ProgramGeneratorTest {
+
+    private final CompilationService compilador = new CompilationService(0, 0);
+
+    @Test
+    void testCadaFormaGeneraProgramasSinErrores() {
+        for (ProgramGenerator.Forma forma : ProgramGenerator.Forma.values()) {
+            for (long semilla = 1; semilla <= 5; semilla++) {
+                comprobarSinErrores(forma, semilla);
+            }
+        }
+    }
+
+    private void comprobarSinErrores(ProgramGenerator.Forma forma, long semilla) {
+        String programa = new ProgramGenerator(semilla).generar(forma, 60);
+        // Sin imagen: dibujar el AST no aporta nada a la validez y domina el tiempo
+        CompilationResult resultado = compilador.compilar(programa, false, CompilationService.SIN_ESCUCHA,
+                CompilationBudget.ILIMITADO);
+        List<SemanticError> errores = resultado.getErrores();
+        assertTrue(errores.isEmpty(), () -> forma + " semilla " + semilla + ": " + errores + "\n" + programa);
+        assertFalse(resultado.getSimbolos().isEmpty());
+    }
+
+    @Test
+    void testMismaSemillaMismoPrograma() {
+        for (ProgramGenerator.Forma forma : ProgramGenerator.Forma.values()) {
+            assertEquals(new ProgramGenerator(7).generar(forma, 40), new ProgramGenerator(7).generar(forma, 40));
+        }
+        assertNotEquals(new ProgramGenerator(7).generar(ProgramGenerator.Forma.MIXTO, 40),
+                new ProgramGenerator(8).generar(ProgramGenerator.Forma.MIXTO, 40));
+    }
+
+    @Test
+    void testElTamanioEstiraLaDimensionPedida() {
+        ProgramGenerator generador = new ProgramGenerator(3);
+        String profundo = generador.generar(ProgramGenerator.Forma.ANIDAMIENTO, 200);
+        assertEquals(201, profundo.lines().filter(l -> l.endsWith("{")).count() + 1);
+
+        String herencia = generador.generar(ProgramGenerator.Forma.HERENCIA, 30);
+        assertTrue(herencia.contains("class Nivel29 : Nivel28 {"));
+
+        String arreglo = generador.generar(ProgramGenerator.Forma.ARREGLO, 1000);
+        String datos = arreglo.lines().filter(l -> l.startsWith("let datos")).findFirst().orElseThrow();
+        assertEquals(1000, datos.split(",").length);
+    }
+}
@@ -0,0 +1,111 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.SemanticVisitor.Entorno;
+import com.fmd.modules.ScopeIndex;
+import com.fmd.tools.ProgramGenerator;
+
+public class ScopeIndexTest {
+
+    private static SemanticVisitor analizar(String code) {
+        ParseTree tree = TestUtils.getParseTree(code, CompiscriptParser::program);
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.visit(tree);
+        return visitor;
+    }
+
+    @Test
+    void testBloquesEnLaMismaLineaTienenIdsDistintos() {
+        SemanticVisitor visitor = analizar("{ let a: integer = 1; } { let b: integer = 2; }");
+
+        assertEquals(3, visitor.getExistingScopes().size());
+        Entorno primero = visitor.getIndiceScopes().scopeEn(1, 4);
+        Entorno segundo = visitor.getIndiceScopes().scopeEn(1, 28);
+        assertNotSame(primero, segundo);
+        assertTrue(primero.existeLocal("a"));
+        assertTrue(segundo.existeLocal("b"));
+        assertSame(visitor.getRaiz(), visitor.getIndiceScopes().scopeEn(1, 23));
+    }
+
+    @Test
+    void testScopeMasInternoYCadenaHastaLaRaiz() {
+        String code = """
+                let x: integer = 1;
+                function f(p: integer): integer {
+                  if (p > 0) {
+                    let y: integer = p;
+                    return y;
+                  }
+                  return p;
+                }
+                """;
+        SemanticVisitor visitor = analizar(code);
+        ScopeIndex indice = visitor.getIndiceScopes();
+
+        Entorno interno = indice.scopeEn(4, 8);
+        assertTrue(interno.existeLocal("y"));
+        assertEquals(6, interno.getLineaFin());
+        List<Entorno> cadena = indice.scopesEn(4, 8);
+        assertSame(visitor.getRaiz(), cadena.get(cadena.size() - 1));
+        assertTrue(cadena.stream().anyMatch(e -> e.existeLocal("p")));
+
+        assertFalse(indice.scopeEn(7, 2).existeLocal("y"));
+        assertSame(visitor.getRaiz(), indice.scopeEn(1, 0));
+        assertSame(visitor.getRaiz(), indice.scopeEn(100, 0));
+    }
+
+    @Test
+    void testCoincideConLaBusquedaLinealEnProgramasGenerados() {
+        for (ProgramGenerator.Forma forma : ProgramGenerator.Forma.values()) {
+            String code = new ProgramGenerator(11).generar(forma, 40);
+            SemanticVisitor visitor = analizar(code);
+            ScopeIndex indice = visitor.getIndiceScopes();
+
+            List<Entorno> todos = new ArrayList<>();
+            Deque<Entorno> pendientes = new ArrayDeque<>(List.of(visitor.getRaiz()));
+            while (!pendientes.isEmpty()) {
+                Entorno e = pendientes.pop();
+                todos.add(e);
+                pendientes.addAll(e.getHijos());
+            }
+
+            CompiscriptLexer lexer = new CompiscriptLexer(CharStreams.fromString(code));
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            tokens.fill();
+            for (Token t : tokens.getTokens()) {
+                int linea = t.getLine();
+                int columna = t.getCharPositionInLine();
+                assertSame(masInterno(todos, visitor.getRaiz(), linea, columna), indice.scopeEn(linea, columna),
+                        forma + " " + linea + ":" + columna);
+            }
+        }
+    }
+
+    private static Entorno masInterno(List<Entorno> todos, Entorno raiz, int linea, int columna) {
+        long p = ScopeIndex.clave(linea, columna);
+        Entorno mejor = raiz;
+        for (Entorno e : todos) {
+            long inicio = ScopeIndex.clave(e.getLineaInicio(), e.getColumnaInicio());
+            long fin = ScopeIndex.clave(e.getLineaFin(), e.getColumnaFin());
+            if (e != raiz && e.tieneRango() && inicio <= p && p < fin
+                    && (mejor == raiz || inicio > ScopeIndex.clave(mejor.getLineaInicio(), mejor.getColumnaInicio())
+                    || inicio == ScopeIndex.clave(mejor.getLineaInicio(), mejor.getColumnaInicio())
+                    && e.getProfundidad() > mejor.getProfundidad())) {
+                mejor = e;
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.tools.ProgramGenerator;
+
+public class SymbolExportTest {
+
+    private final CompilationService compilador = new CompilationService(0, 0);
+
+    private CompilationResult compilar(String code) {
+        return compilador.compilar(code, false, CompilationService.SIN_ESCUCHA, CompilationBudget.ILIMITADO);
+    }
+
+    @Test
+    void testConservaLosSimbolosOcultosConSuScope() {
+        CompilationResult resultado = compilar("""
+                let x: integer = 1;
+                {
+                  let x: string = "interno";
+                }
+                """);
+
+        List<Map<String, Object>> xs = resultado.getSimbolos().stream()
+                .filter(s -> s.get("name").equals("x")).toList();
+        assertEquals(2, xs.size());
+        assertEquals("integer", xs.get(0).get("type"));
+        assertEquals("0", xs.get(0).get("scope"));
+        assertEquals("string", xs.get(1).get("type"));
+        assertNotEquals("0", xs.get(1).get("scope"));
+    }
+
+    @Test
+    void testSeSerializaComoObjetoJson() throws Exception {
+        CompilationResult resultado = compilar("const PI: integer = 314;");
+
+        String json = new ObjectMapper().writeValueAsString(resultado.getSimbolos());
+        assertEquals("[{\"name\":\"PI\",\"type\":\"integer\",\"kind\":\"CONSTANT\",\"line\":1,\"column\":0,\"scope\":\"0\"}]",
+                json);
+        assertEquals(Map.of("name", "PI", "type", "integer", "kind", resultado.getSimbolos().get(0).get("kind"),
+                "line", 1, "column", 0, "scope", "0"), resultado.getSimbolos().get(0));
+    }
+
+    @Test
+    void testExportaUnSimboloPorDeclaracionEnAnidamientoProfundo() {
+        int profundidad = 400;
+        String programa = new ProgramGenerator(2).generar(ProgramGenerator.Forma.ANIDAMIENTO, profundidad);
+        CompilationResult resultado = compilar(programa);
+
+        assertTrue(resultado.getErrores().isEmpty());
+        // contador + una variable por nivel
+        assertEquals(profundidad + 1, resultado.getSimbolos().size());
+    }
+}
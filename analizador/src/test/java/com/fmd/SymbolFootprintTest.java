@@ -0,0 +1,82 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fmd.modules.Symbol;
+
+public class SymbolFootprintTest {
+
+    private static Symbol variable(String nombre) {
+        return new Symbol(nombre, Symbol.Kind.VARIABLE, "integer", null, 1, 0, true);
+    }
+
+    @Test
+    void testSimboloSinTablasDevuelveVaciosDeSoloLectura() {
+        Symbol x = variable("x");
+        assertTrue(x.getParams().isEmpty());
+        assertEquals(0, x.getParameterCount());
+        assertTrue(x.getMembers().isEmpty());
+        assertTrue(x.getCapturedVariables().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> x.getParams().add(variable("y")));
+        assertThrows(UnsupportedOperationException.class, () -> x.getMembers().put("y", variable("y")));
+
+        assertNull(x.getTacAddress());
+        assertNull(x.getDimensions());
+        assertEquals(0, x.getOffset());
+        assertEquals(0, x.getSize());
+        assertEquals(0, x.getLocalVarSize());
+    }
+
+    @Test
+    void testLasTablasSeCreanConElPrimerUso() {
+        Symbol f = new Symbol("f", Symbol.Kind.FUNCTION, "integer", null, 1, 0, false);
+        f.addParameter(variable("a"));
+        f.addParameter(variable("b"));
+        assertEquals(2, f.getParameterCount());
+        assertEquals("b", f.getParams().get(1).getName());
+
+        Symbol c = new Symbol("C", Symbol.Kind.CLASS, "C", null, 1, 0, true);
+        Symbol v = variable("v");
+        c.addMember(v);
+        assertSame(v, c.getMembers().get("v"));
+
+        f.setCapturedVariables(Set.of("z"));
+        assertEquals(Set.of("z"), f.getCapturedVariables());
+
+        f.setTacAddress("t1");
+        f.setOffset(8);
+        f.setDimensions(List.of(10));
+        assertEquals("t1", f.getTacAddress());
+        assertEquals(8, f.getOffset());
+        assertEquals(List.of(10), f.getDimensions());
+        assertTrue(f.toStringTAC().contains("addr=t1"));
+    }
+
+    @Test
+    void testAgregarMiembroDespuesDeSetMembersCopiaLaTabla() {
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.entrarScope(null);
+        Symbol v = variable("v");
+        visitor.getEntornoActual().agregar(v);
+        Map<String, Symbol> locales = visitor.getEntornoActual().getSymbolsLocal();
+
+        Symbol c = new Symbol("C", Symbol.Kind.CLASS, "C", null, 1, 0, true);
+        c.setMembers(locales);
+        assertThrows(UnsupportedOperationException.class, () -> c.getMembers().put("w", variable("w")));
+
+        Symbol w = variable("w");
+        c.addMember(w);
+        assertSame(v, c.getMembers().get("v"));
+        assertSame(w, c.getMembers().get("w"));
+        assertEquals(List.of("v", "w"), List.copyOf(c.getMembers().keySet()));
+        // El scope no cambió
+        assertNull(locales.get("w"));
+        assertEquals(1, locales.size());
+    }
+}
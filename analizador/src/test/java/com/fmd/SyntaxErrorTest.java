@@ -0,0 +1,82 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.CompilationResult;
+import com.fmd.modules.SemanticError;
+import com.fmd.modules.SyntaxError;
+
+public class SyntaxErrorTest {
+
+    private final CompilationService compilador = new CompilationService(0, 0);
+
+    @Test
+    void testErrorDeSintaxisOmiteSemanticoEImagen() {
+        // La segunda línea tiene un error semántico que no debe reportarse
+        CompilationResult resultado = compilador.compilar("let x: integer = ;\nlet y: integer = \"hola\";");
+
+        assertEquals(1, resultado.getErrores().size());
+        SemanticError error = resultado.getErrores().get(0);
+        assertInstanceOf(SyntaxError.class, error);
+        assertEquals("sintactico", error.getTipo());
+        assertEquals(1, error.getLinea());
+        assertTrue(resultado.getSimbolos().isEmpty());
+        assertNull(resultado.getAstImage());
+    }
+
+    @Test
+    void testErroresLexicosTambienSeRecolectan() {
+        CompilationResult resultado = compilador.compilar("let x: integer = 1 # 2;");
+
+        assertFalse(resultado.getErrores().isEmpty());
+        assertTrue(resultado.getErrores().get(0).getMensaje().contains("token recognition error"));
+        assertEquals("sintactico", resultado.getErrores().get(0).getTipo());
+    }
+
+    @Test
+    void testProgramaValidoSigueConElAnalisisSemantico() {
+        CompilationResult resultado = compilador.compilar("let x: integer = \"hola\";");
+
+        assertEquals(1, resultado.getErrores().size());
+        assertEquals("semantico", resultado.getErrores().get(0).getTipo());
+        assertNotNull(resultado.getAstImage());
+    }
+
+    @Test
+    void testMaximoDeErroresCancelaElParseo() {
+        String programa = "let = ;\n".repeat(200);
+
+        CompilationResult resultado = compilador.compilar(programa);
+
+        // 25 errores por defecto más el aviso de que se omiten los demás
+        assertEquals(26, resultado.getErrores().size());
+        assertTrue(resultado.getErrores().get(25).getMensaje().contains("máximo de 25"));
+    }
+
+    @Test
+    void testEscuchaRecibeErroresDeSintaxisYSimbolosVacios() {
+        List<String> eventos = new ArrayList<>();
+        compilador.compilar("print(;", false, new CompilationService.EscuchaCompilacion() {
+            @Override
+            public void alEncontrarError(SemanticError error) {
+                eventos.add(error.getTipo());
+            }
+
+            @Override
+            public void alExportarSimbolos(List<Map<String, Object>> simbolos) {
+                eventos.add("symbols:" + simbolos.size());
+            }
+        }, CompilationBudget.ILIMITADO);
+
+        assertEquals("sintactico", eventos.get(0));
+        assertEquals("symbols:0", eventos.get(eventos.size() - 1));
+    }
+}
@@ -0,0 +1,125 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.api.CompilationService;
+import com.fmd.modules.CompilationBudget;
+import com.fmd.modules.TwoStageParser;
+
+public class TwoStageParserTest {
+
+    private CompiscriptParser parser(String code, List<String> errores) {
+        CompiscriptLexer lexer = new CompiscriptLexer(CharStreams.fromString(code));
+        CompiscriptParser parser = new CompiscriptParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errores.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        });
+        return parser;
+    }
+
+    private String recurso(String nombre) throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(nombre)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testProgramaValidoSeResuelveEnSLL() throws Exception {
+        String code = recurso("com/fmd/logic_tests.cps");
+        List<String> errores = new ArrayList<>();
+        CompiscriptParser dosEtapas = parser(code, errores);
+        TwoStageParser.Resultado resultado = TwoStageParser.parsear(dosEtapas);
+
+        assertEquals(TwoStageParser.Etapa.SLL, resultado.getEtapa());
+        assertTrue(errores.isEmpty());
+
+        // El árbol debe ser idéntico al del parseo LL tradicional
+        CompiscriptParser soloLL = parser(code, new ArrayList<>());
+        assertEquals(TwoStageParser.parsearLL(soloLL).getArbol().toStringTree(soloLL),
+                resultado.getArbol().toStringTree(dosEtapas));
+    }
+
+    @Test
+    void testProgramaValidoQueSLLNoResuelveSeParseaEnLLSinErrores() throws Exception {
+        // program.cps tiene decisiones que SLL no distingue (asignaciones a propiedades como this.name = ...)
+        String code = recurso("com/fmd/program.cps");
+        List<String> errores = new ArrayList<>();
+        CompiscriptParser dosEtapas = parser(code, errores);
+        TwoStageParser.Resultado resultado = TwoStageParser.parsear(dosEtapas);
+
+        assertEquals(TwoStageParser.Etapa.LL, resultado.getEtapa());
+        assertTrue(errores.isEmpty());
+        CompiscriptParser soloLL = parser(code, new ArrayList<>());
+        assertEquals(TwoStageParser.parsearLL(soloLL).getArbol().toStringTree(soloLL),
+                resultado.getArbol().toStringTree(dosEtapas));
+    }
+
+    @Test
+    void testErrorDeSintaxisCaeALLYSeReportaUnaSolaVez() {
+        List<String> errores = new ArrayList<>();
+        CompiscriptParser parser = parser("let x: integer = 1;\nlet ;\nprint(x);", errores);
+
+        TwoStageParser.Resultado resultado = TwoStageParser.parsear(parser);
+
+        assertEquals(TwoStageParser.Etapa.LL, resultado.getEtapa());
+        assertEquals(1, errores.size());
+        assertTrue(errores.get(0).startsWith("2:"));
+        assertNotNull(resultado.getArbol());
+    }
+
+    @Test
+    void testRestauraElParserTrasCadaParseo() {
+        List<String> errores = new ArrayList<>();
+        CompiscriptParser parser = parser("print(1);", errores);
+
+        TwoStageParser.parsear(parser);
+
+        assertEquals(PredictionMode.LL, parser.getInterpreter().getPredictionMode());
+        assertEquals(1, parser.getErrorListeners().size());
+        assertFalse(parser.getErrorHandler() instanceof org.antlr.v4.runtime.BailErrorStrategy);
+    }
+
+    private static int contarReglas(ParseTree nodo) {
+        int total = nodo instanceof ParserRuleContext ? 1 : 0;
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            total += contarReglas(nodo.getChild(i));
+        }
+        return total;
+    }
+
+    @Test
+    void testElIntentoSLLDescartadoNoCuentaNodos() throws Exception {
+        String code = recurso("com/fmd/program.cps");
+        CompiscriptParser soloLL = parser(code, new ArrayList<>());
+        int nodos = contarReglas(TwoStageParser.parsearLL(soloLL).getArbol());
+
+        // program.cps cae a LL: el presupuesto solo debe ver los nodos del árbol LL
+        CompilationService servicio = new CompilationService(0, 0);
+        CompilationBudget presupuesto = new CompilationBudget(0, nodos);
+        servicio.compilar(code, false, CompilationService.SIN_ESCUCHA, presupuesto);
+        assertEquals(nodos, presupuesto.getNodos());
+
+        assertThrows(CompilationBudget.BudgetExceededException.class, () -> servicio.compilar(code, false,
+                CompilationService.SIN_ESCUCHA, new CompilationBudget(0, nodos - 1)));
+    }
+}
@@ -0,0 +1,154 @@
+package com.fmd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import com.fmd.modules.SemanticError;
+import com.fmd.modules.Symbol;
+import com.fmd.modules.Type;
+import com.fmd.modules.TypeTable;
+
+public class TypeTest {
+
+    private static SemanticVisitor analizar(String code) {
+        ParseTree tree = TestUtils.getParseTree(code, CompiscriptParser::program);
+        SemanticVisitor visitor = new SemanticVisitor();
+        visitor.visit(tree);
+        return visitor;
+    }
+
+    @Test
+    void testPrimitivosYCentinelasSonCanonicos() {
+        TypeTable tipos = new TypeTable();
+        assertSame(Type.INTEGER, tipos.of("integer"));
+        assertSame(Type.INTEGER, tipos.of(new String("integer")));
+        assertSame(Type.DESCONOCIDO, tipos.of("desconocido"));
+        assertSame(Type.ERROR, tipos.of("ERROR"));
+        assertSame(Type.ARREGLO_VACIO, tipos.of("array[]"));
+        assertSame(Type.ARREGLO_MIXTO, tipos.of("mixed[]"));
+        assertNull(tipos.of(null));
+    }
+
+    @Test
+    void testArreglosConDimensionesYElemento() {
+        TypeTable tipos = new TypeTable();
+        Type matriz = tipos.of("integer[][]");
+        assertTrue(matriz.esArreglo());
+        assertEquals(2, matriz.getDimensiones());
+        assertSame(tipos.of("integer[]"), matriz.getElemento());
+        assertSame(Type.INTEGER, matriz.getElemento().getElemento());
+        assertSame(Type.INTEGER, matriz.getBase());
+        assertSame(matriz, tipos.arreglo(tipos.arreglo(Type.INTEGER)));
+        assertSame(matriz, tipos.of("integer[][]"));
+        assertEquals("integer[][]", matriz.getNombre());
+        assertSame(Type.ARREGLO_MIXTO, tipos.arreglo(Type.MIXTO));
+    }
+
+    @Test
+    void testClasesEnlazadasASuDeclaracion() {
+        SemanticVisitor visitor = analizar("""
+                class Punto { let x: integer; }
+                let puntos: Punto[] = [];
+                """);
+        Type punto = visitor.getTipos().of("Punto");
+        assertTrue(punto.esClase());
+        Symbol clase = punto.getClase();
+        assertNotNull(clase);
+        assertEquals(Symbol.Kind.CLASS, clase.getKind());
+        assertSame(punto, visitor.getTipos().of("Punto[]").getElemento());
+        // Un nombre sin declaración es una clase sin enlazar
+        assertNull(visitor.getTipos().of("Otra").getClase());
+    }
+
+    @Test
+    void testCadaIndiceQuitaUnaDimension() {
+        List<SemanticError> errores = analizar("""
+                let matriz: integer[][] = [[1, 2], [3, 4]];
+                let fila: integer[] = matriz[0];
+                let celda: integer = matriz[1][0];
+                """).getErrores();
+        assertTrue(errores.isEmpty(), errores.toString());
+
+        errores = analizar("""
+                let matriz: integer[][] = [[1, 2], [3, 4]];
+                let celda: integer = matriz[0];
+                """).getErrores();
+        assertEquals(1, errores.size(), errores.toString());
+        assertTrue(errores.get(0).toString().contains("integer[]"), errores.toString());
+    }
+
+    @Test
+    void testIndexarDeMasEsError() {
+        List<SemanticError> errores = analizar("""
+                let lista: integer[] = [1, 2];
+                let x: integer = lista[0][1];
+                """).getErrores();
+        assertTrue(errores.stream().anyMatch(e -> e.toString().contains("Intento de indexar tipo no-array")),
+                errores.toString());
+    }
+
+    @Test
+    void testIndicesSobreVariasDimensiones() {
+        SemanticVisitor visitor = analizar("""
+                let cubo: integer[][][] = [[[1]]];
+                let i: integer = 0;
+                let plano: integer[][] = cubo[i];
+                let fila: integer[] = cubo[i][0];
+                let celda: integer = cubo[0][i][i + 1];
+                """);
+        assertTrue(visitor.getErrores().isEmpty(), visitor.getErrores().toString());
+        assertEquals("integer[][]", visitor.getAllSymbols().get("plano").getType());
+    }
+
+    @Test
+    void testMensajesDeIndexacion() {
+        // Una fila no es un integer: el mensaje nombra el tipo de la fila
+        List<SemanticError> errores = analizar("""
+                let matriz: integer[][] = [[1, 2], [3, 4]];
+                let celda: integer = matriz[0];
+                """).getErrores();
+        assertEquals(List.of("No se puede inicializar variable 'celda' de tipo 'integer' con expresión de tipo 'integer[]'"),
+                errores.stream().map(SemanticError::getMensaje).toList());
+
+        errores = analizar("""
+                let lista: integer[] = [1, 2];
+                let x: integer = lista[0][1];
+                """).getErrores();
+        assertEquals("Intento de indexar tipo no-array: integer", errores.get(0).getMensaje(), errores.toString());
+
+        errores = analizar("""
+                let n: integer = 3;
+                let x: integer = n[0];
+                """).getErrores();
+        assertEquals("Intento de indexar tipo no-array: integer", errores.get(0).getMensaje(), errores.toString());
+
+        // El índice que no es integer se reporta en cualquier posición
+        errores = analizar("""
+                let matriz: integer[][] = [[1, 2], [3, 4]];
+                let a: integer[] = matriz[true];
+                let b: integer = matriz[0]["x"];
+                """).getErrores();
+        List<String> mensajes = errores.stream().map(SemanticError::getMensaje).toList();
+        assertTrue(mensajes.contains("No se puede accesar a arreglo con tipo: boolean"), mensajes.toString());
+        assertTrue(mensajes.contains("No se puede accesar a arreglo con tipo: string"), mensajes.toString());
+    }
+
+    @Test
+    void testArregloVacioSeAsignaACualquierArreglo() {
+        List<SemanticError> errores = analizar("""
+                let lista: integer[] = [];
+                let matriz: string[][] = [["a"]];
+                matriz[0] = [];
+                """).getErrores();
+        assertTrue(errores.isEmpty(), errores.toString());
+
+        errores = analizar("""
+                let n: integer = [];
+                """).getErrores();
+        assertEquals(1, errores.size(), errores.toString());
+    }
+}